@@ -0,0 +1,40 @@
+package org.delcom.app.configs;
+
+import org.delcom.app.services.DestinationService;
+import org.delcom.app.services.TravelLogStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migrasi ke tabel destinations saat aplikasi start: jurnal lama yang belum punya destination_id
+ * dihubungkan ke destinasi kanonik, lalu travel_log_stats dibangun ulang per destination_id.
+ * Setelah migrasi selesai, pengecekan ini hanya berupa dua query ringan. Berjalan saat bean dibuat,
+ * jadi selesai sebelum web server menerima request yang menulis ke travel_log_stats.
+ */
+@Component
+@DependsOn("moneyColumnMigrationRunner") // migrasi kolom total_cost selesai lebih dulu
+public class DestinationBackfillRunner implements InitializingBean {
+    private static final Logger logger = LoggerFactory.getLogger(DestinationBackfillRunner.class);
+
+    private final DestinationService destinationService;
+    private final TravelLogStatsService statsService;
+
+    public DestinationBackfillRunner(DestinationService destinationService, TravelLogStatsService statsService) {
+        this.destinationService = destinationService;
+        this.statsService = statsService;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long start = System.currentTimeMillis();
+        int linked = destinationService.backfill();
+        if (linked == 0 && !statsService.needsRebuild()) return;
+
+        int stats = statsService.rebuild();
+        logger.info("Migrasi destinasi: {} jurnal dihubungkan, {} baris statistik dibangun ulang dalam {} ms",
+                linked, stats, System.currentTimeMillis() - start);
+    }
+}
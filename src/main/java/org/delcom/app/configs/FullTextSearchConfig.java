@@ -0,0 +1,77 @@
+package org.delcom.app.configs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Menyiapkan full-text search PostgreSQL untuk travel_logs: kolom tsvector (generated)
+ * atas title, destination dan description, plus index GIN. Jika database bukan
+ * PostgreSQL (mis. H2 saat test) atau setup gagal, pencarian kembali memakai LIKE.
+ */
+@Component
+public class FullTextSearchConfig implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(FullTextSearchConfig.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.search.engine:fts}")
+    protected String engine;
+
+    @Value("${app.search.fts-config:indonesian}")
+    protected String tsConfig;
+
+    private volatile boolean enabled;
+
+    public FullTextSearchConfig(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getTsConfig() {
+        return tsConfig;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!"fts".equalsIgnoreCase(engine)) return;
+
+        // Nama konfigurasi masuk ke DDL, jadi batasi ke identifier sederhana
+        if (tsConfig == null || !tsConfig.matches("[a-z_]+")) {
+            logger.warn("app.search.fts-config '{}' tidak valid, pencarian memakai LIKE", tsConfig);
+            return;
+        }
+
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                logger.info("Database {} tidak mendukung full-text search, pencarian memakai LIKE", product);
+                return;
+            }
+
+            String vector = "to_tsvector('" + tsConfig + "'::regconfig, coalesce(%s, ''))";
+            jdbcTemplate.execute("ALTER TABLE travel_logs ADD COLUMN IF NOT EXISTS search_vector tsvector "
+                    + "GENERATED ALWAYS AS ("
+                    + "setweight(" + String.format(vector, "title") + ", 'A') || "
+                    + "setweight(" + String.format(vector, "destination") + ", 'A') || "
+                    + "setweight(" + String.format(vector, "description") + ", 'B')) STORED");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_travel_logs_search_vector "
+                    + "ON travel_logs USING GIN (search_vector)");
+
+            enabled = true;
+            logger.info("Full-text search aktif (konfigurasi '{}')", tsConfig);
+        } catch (DataAccessException e) {
+            logger.warn("Gagal menyiapkan full-text search, pencarian memakai LIKE: {}", e.getMessage());
+        }
+    }
+}
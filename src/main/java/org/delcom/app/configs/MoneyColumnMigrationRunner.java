@@ -0,0 +1,73 @@
+package org.delcom.app.configs;
+
+import org.delcom.app.services.TravelLogStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Migrasi kolom total_cost dari double precision ke BIGINT (rupiah utuh). ddl-auto=update tidak
+ * mengubah tipe kolom yang sudah ada, jadi database lama diubah di sini: nilai NULL menjadi 0 dan
+ * nilai pecahan dibulatkan, lalu travel_log_stats dihitung ulang dari jurnal yang sudah dibulatkan
+ * agar total per destinasi sama persis dengan jumlah jurnalnya. Berjalan saat bean dibuat, sebelum
+ * web server menerima request, dan sebelum DestinationBackfillRunner yang membaca kolom ini.
+ * Hanya untuk PostgreSQL; di H2 tabel dibuat langsung dengan tipe yang benar.
+ */
+@Component
+public class MoneyColumnMigrationRunner implements InitializingBean {
+    private static final Logger logger = LoggerFactory.getLogger(MoneyColumnMigrationRunner.class);
+
+    static final List<String> TABLES = List.of("travel_logs", "travel_log_stats");
+
+    static final String COLUMN_TYPE_SQL = "SELECT data_type FROM information_schema.columns "
+            + "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'total_cost'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TravelLogStatsService statsService;
+
+    public MoneyColumnMigrationRunner(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      TravelLogStatsService statsService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statsService = statsService;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equalsIgnoreCase(product)) return;
+
+            boolean migrated = false;
+            for (String table : TABLES) {
+                List<String> types = jdbcTemplate.queryForList(COLUMN_TYPE_SQL, String.class, table);
+                if (types.isEmpty() || "bigint".equals(types.get(0))) continue;
+
+                long start = System.currentTimeMillis();
+                // Nama tabel hanya dari TABLES, bukan input
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("UPDATE " + table + " SET total_cost = 0 WHERE total_cost IS NULL");
+                    jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN total_cost TYPE bigint "
+                            + "USING ROUND(total_cost)::bigint, ALTER COLUMN total_cost SET NOT NULL");
+                });
+                logger.info("Kolom {}.total_cost diubah dari {} ke bigint dalam {} ms",
+                        table, types.get(0), System.currentTimeMillis() - start);
+                migrated = true;
+            }
+            if (migrated) statsService.rebuild();
+        } catch (DataAccessException e) {
+            logger.error("Gagal migrasi kolom total_cost ke bigint: {}", e.getMessage());
+            throw e;
+        }
+    }
+}
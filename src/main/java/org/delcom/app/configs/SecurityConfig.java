@@ -24,6 +24,8 @@ public class SecurityConfig {
                                                 .permitAll()
                                                 .anyRequest().authenticated())
 
+                                // API memakai Bearer token (bukan cookie sesi), jadi tidak perlu token CSRF
+                                .csrf(csrf -> csrf.ignoringRequestMatchers("/api/**"))
                                 .formLogin(form -> form.disable())
                                 .logout(logout -> logout
                                                 .logoutSuccessUrl("/auth/login")
@@ -0,0 +1,32 @@
+package org.delcom.app.configs;
+
+import org.delcom.app.services.TravelLogStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bangun ulang tabel travel_log_stats dari travel_logs saat aplikasi dijalankan dengan
+ * argumen --rebuild-stats, contoh: {@code java -jar app.jar --rebuild-stats}.
+ */
+@Component
+public class TravelLogStatsRebuildRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(TravelLogStatsRebuildRunner.class);
+
+    private final TravelLogStatsService statsService;
+
+    public TravelLogStatsRebuildRunner(TravelLogStatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption("rebuild-stats")) return;
+
+        long start = System.currentTimeMillis();
+        int rows = statsService.rebuild();
+        logger.info("travel_log_stats dibangun ulang: {} baris dalam {} ms", rows, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,48 @@
+package org.delcom.app.controllers;
+
+import java.util.Locale;
+
+import org.delcom.app.configs.ApiResponse;
+import org.delcom.app.configs.AuthContext;
+import org.delcom.app.dto.SpendingAnalytics;
+import org.delcom.app.services.TravelLogAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+    private final TravelLogAnalyticsService analyticsService;
+
+    public AnalyticsController(TravelLogAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @Autowired
+    protected AuthContext authContext;
+
+    // Pengeluaran per periode (day/week/month/year) + tahunan, histogram rating, destinasi teratas
+    // -------------------------------
+    @GetMapping("/spending")
+    public ResponseEntity<ApiResponse<SpendingAnalytics>> spending(
+            @RequestParam(defaultValue = TravelLogAnalyticsService.DEFAULT_GRANULARITY) String granularity,
+            @RequestParam(defaultValue = "" + TravelLogAnalyticsService.DEFAULT_MAX_POINTS) int maxPoints,
+            @RequestParam(defaultValue = "" + TravelLogAnalyticsService.DEFAULT_TOP_DESTINATIONS) int top) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        String unit = granularity.toLowerCase(Locale.ROOT);
+        if (!TravelLogAnalyticsService.GRANULARITIES.contains(unit)) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", "Granularity harus day, week, month atau year", null));
+        }
+
+        int points = Math.max(3, Math.min(maxPoints, TravelLogAnalyticsService.MAX_POINTS));
+        int destinations = Math.max(1, Math.min(top, TravelLogAnalyticsService.MAX_TOP_DESTINATIONS));
+        SpendingAnalytics analytics = analyticsService.getSpending(authContext.getAuthUser().getId(), unit, points, destinations);
+        return ResponseEntity.ok(new ApiResponse<>("success", "Berhasil mendapatkan analitik pengeluaran", analytics));
+    }
+}
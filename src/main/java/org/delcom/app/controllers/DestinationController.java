@@ -0,0 +1,40 @@
+package org.delcom.app.controllers;
+
+import java.util.List;
+import java.util.Map;
+
+import org.delcom.app.configs.ApiResponse;
+import org.delcom.app.configs.AuthContext;
+import org.delcom.app.services.DestinationSuggestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/destinations")
+public class DestinationController {
+    private final DestinationSuggestService destinationSuggestService;
+
+    public DestinationController(DestinationSuggestService destinationSuggestService) {
+        this.destinationSuggestService = destinationSuggestService;
+    }
+
+    @Autowired
+    protected AuthContext authContext;
+
+    // Autocomplete destinasi (dipanggil setiap ketikan)
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<Map<String, List<String>>>> suggest(
+            @RequestParam(name = "q", required = false) String query,
+            @RequestParam(defaultValue = "" + DestinationSuggestService.DEFAULT_LIMIT) int limit) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        List<String> suggestions = destinationSuggestService.suggest(authContext.getAuthUser().getId(), query, limit);
+        return ResponseEntity.ok(new ApiResponse<>("success", "Berhasil mendapatkan saran destinasi",
+                Map.of("suggestions", suggestions)));
+    }
+}
@@ -0,0 +1,308 @@
+package org.delcom.app.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.delcom.app.configs.ApiResponse;
+import org.delcom.app.configs.AuthContext;
+import org.delcom.app.dto.DestinationRenameForm;
+import org.delcom.app.dto.TravelLogBatchDeleteForm;
+import org.delcom.app.dto.TravelLogFieldsPage;
+import org.delcom.app.dto.TravelLogForm;
+import org.delcom.app.dto.TravelLogImportResult;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.repositories.TravelLogRepositoryCustom;
+import org.delcom.app.services.TravelLogExportService;
+import org.delcom.app.services.TravelLogImportService;
+import org.delcom.app.services.TravelLogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/logs")
+public class TravelLogApiController {
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // Field default jika fields= tidak diisi: tanpa description agar respons daftar tetap ringkas
+    public static final List<String> DEFAULT_FIELDS = List.of(
+            "id", "title", "destination", "imagePath", "totalCost", "rating", "createdAt");
+
+    private final TravelLogService travelLogService;
+    private final TravelLogExportService exportService;
+    private final TravelLogImportService importService;
+    private final Validator validator;
+
+    public TravelLogApiController(TravelLogService travelLogService, TravelLogExportService exportService,
+                                  TravelLogImportService importService, Validator validator) {
+        this.travelLogService = travelLogService;
+        this.exportService = exportService;
+        this.importService = importService;
+        this.validator = validator;
+    }
+
+    @Autowired
+    protected AuthContext authContext;
+
+    // Daftar jurnal dengan cursor pagination dan sparse fieldset (?fields=title,totalCost)
+    // -------------------------------
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLogs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String fields) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        List<String> selected = parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", "Parameter fields tidak valid", null));
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        TravelLogFieldsPage page = travelLogService.getFieldsPage(authContext.getAuthUser().getId(), selected, cursor, size);
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("logs", page.getItems());
+        data.put("nextCursor", page.getNextCursor());
+        return ResponseEntity.ok(new ApiResponse<>("success", "Berhasil mendapatkan data jurnal", data));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLog(@PathVariable UUID id,
+                                                                   @RequestParam(required = false) String fields) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        // Detail: default semua field
+        List<String> selected = fields == null ? TravelLogRepositoryCustom.SELECTABLE_FIELDS : parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", "Parameter fields tidak valid", null));
+        }
+
+        Map<String, Object> log = travelLogService.getFieldsById(authContext.getAuthUser().getId(), id, selected);
+        if (log == null) {
+            return ResponseEntity.status(404).body(new ApiResponse<>("fail", "Jurnal tidak ditemukan", null));
+        }
+        return ResponseEntity.ok(new ApiResponse<>("success", "Berhasil mendapatkan data jurnal", Map.of("log", log)));
+    }
+
+    // Menambah jurnal (tanpa gambar; gambar default dipakai)
+    // -------------------------------
+    @PostMapping
+    public ResponseEntity<ApiResponse<Map<String, UUID>>> createLog(@RequestBody TravelLogForm form) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        String error = validate(form);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", error, null));
+        }
+
+        TravelLog log = new TravelLog(authContext.getAuthUser().getId(), form.getTitle(), form.getDestination(),
+                form.getDescription(), form.getTotalCost(), form.getRating());
+        log.setImagePath("default.jpg");
+        TravelLog saved = travelLogService.save(log);
+
+        return ResponseEntity.ok(new ApiResponse<>("success", "Jurnal berhasil dibuat", Map.of("id", saved.getId())));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> updateLog(@PathVariable UUID id, @RequestBody TravelLogForm form) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        String error = validate(form);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", error, null));
+        }
+
+        TravelLog log = travelLogService.getById(authContext.getAuthUser().getId(), id);
+        if (log == null) {
+            return ResponseEntity.status(404).body(new ApiResponse<>("fail", "Jurnal tidak ditemukan", null));
+        }
+
+        log.setTitle(form.getTitle());
+        log.setDestination(form.getDestination());
+        log.setDescription(form.getDescription());
+        log.setTotalCost(form.getTotalCost());
+        log.setRating(form.getRating());
+        travelLogService.save(log);
+
+        return ResponseEntity.ok(new ApiResponse<>("success", "Jurnal berhasil diupdate", null));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteLog(@PathVariable UUID id) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        UUID userId = authContext.getAuthUser().getId();
+        if (travelLogService.getById(userId, id) == null) {
+            return ResponseEntity.status(404).body(new ApiResponse<>("fail", "Jurnal tidak ditemukan", null));
+        }
+        travelLogService.delete(userId, id);
+
+        return ResponseEntity.ok(new ApiResponse<>("success", "Jurnal berhasil dihapus", null));
+    }
+
+    // Operasi massal: satu statement DELETE/UPDATE untuk semua baris milik user
+    // -------------------------------
+    @PostMapping("/batch/delete")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> deleteLogs(@RequestBody TravelLogBatchDeleteForm form) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        String error = validate(form);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", error, null));
+        }
+
+        int deleted = travelLogService.deleteAll(authContext.getAuthUser().getId(), form.getIds());
+        return ResponseEntity.ok(new ApiResponse<>("success", deleted + " jurnal berhasil dihapus", Map.of("deleted", deleted)));
+    }
+
+    @PostMapping("/batch/rename-destination")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> renameDestination(@RequestBody DestinationRenameForm form) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        String error = validate(form);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", error, null));
+        }
+
+        int updated = travelLogService.renameDestination(authContext.getAuthUser().getId(), form.getFrom(), form.getTo());
+        return ResponseEntity.ok(new ApiResponse<>("success", updated + " jurnal berhasil diupdate", Map.of("updated", updated)));
+    }
+
+    // Ekspor semua jurnal user (streaming: baris dikirim sambil dibaca dari database)
+    // -------------------------------
+    @GetMapping("/export")
+    public ResponseEntity<?> export(@RequestParam(defaultValue = "ndjson") String format) {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", "Format ekspor harus ndjson atau csv", null));
+        }
+
+        // AuthContext hanya ada di thread request; body ditulis di thread async
+        UUID userId = authContext.getAuthUser().getId();
+        StreamingResponseBody body = csv
+                ? out -> exportService.writeCsv(userId, out)
+                : out -> exportService.writeNdjson(userId, out);
+
+        String filename = "travel-logs." + (csv ? "csv" : "ndjson");
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // Import massal dari CSV/NDJSON (body mentah, dibaca streaming); format dari parameter atau Content-Type
+    // -------------------------------
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<TravelLogImportResult>> importLogs(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) throws IOException {
+
+        // Validasi autentikasi
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+
+        String resolved = format != null ? format.toLowerCase(Locale.ROOT) : formatOf(contentType);
+        if (!"csv".equals(resolved) && !"ndjson".equals(resolved)) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", "Format import harus ndjson atau csv", null));
+        }
+
+        UUID userId = authContext.getAuthUser().getId();
+        TravelLogImportResult result;
+        try {
+            result = "csv".equals(resolved)
+                    ? importService.importCsv(userId, body)
+                    : importService.importNdjson(userId, body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>("fail", e.getMessage(), null));
+        }
+
+        String message = result.getFailed() == 0
+                ? "Berhasil mengimpor " + result.getImported() + " jurnal"
+                : "Mengimpor " + result.getImported() + " jurnal, " + result.getFailed() + " baris gagal";
+        return ResponseEntity.ok(new ApiResponse<>("success", message, result));
+    }
+
+    private static String formatOf(String contentType) {
+        if (contentType == null) return null;
+        if (contentType.startsWith("text/csv")) return "csv";
+        if (contentType.startsWith(NDJSON.toString())) return "ndjson";
+        return null;
+    }
+
+    // "title, totalCost" -> [title, totalCost]; null jika ada field yang tidak dikenal
+    private static List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) return DEFAULT_FIELDS;
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) continue;
+            if (!TravelLogRepositoryCustom.SELECTABLE_FIELDS.contains(name)) return null;
+            if (!selected.contains(name)) selected.add(name);
+        }
+        return selected.isEmpty() ? DEFAULT_FIELDS : selected;
+    }
+
+    // Aturan validasi pada form (anotasi Bean Validation); pesan pertama (urut abjad) yang dikembalikan
+    private String validate(Object form) {
+        if (form == null) return "Data jurnal tidak valid";
+        return validator.validate(form).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .findFirst()
+                .orElse(null);
+    }
+}
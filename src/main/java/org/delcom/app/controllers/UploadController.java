@@ -0,0 +1,224 @@
+package org.delcom.app.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.delcom.app.configs.ApiResponse;
+import org.delcom.app.configs.AuthContext;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.services.ImageVariantService;
+import org.delcom.app.services.ResumableUploadService;
+import org.delcom.app.services.TravelLogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Upload cover bertahap untuk klien mobile, mengikuti protokol tus 1.0.0 (core + creation + termination):
+ * POST membuat sesi (Upload-Length, Upload-Metadata berisi logId & filename), HEAD menanyakan offset,
+ * PATCH (application/offset+octet-stream) menambahkan potongan mulai Upload-Offset, DELETE membatalkan.
+ * Setelah byte terakhir diterima foto langsung dipasang sebagai cover jurnal logId.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+    public static final String TUS_VERSION = "1.0.0";
+    public static final String TUS_RESUMABLE = "Tus-Resumable";
+    public static final String UPLOAD_LENGTH = "Upload-Length";
+    public static final String UPLOAD_OFFSET = "Upload-Offset";
+    public static final String UPLOAD_METADATA = "Upload-Metadata";
+    public static final String OFFSET_OCTET_STREAM = "application/offset+octet-stream";
+
+    private final ResumableUploadService uploads;
+    private final TravelLogService travelLogService;
+    private final ImageVariantService imageVariants;
+
+    public UploadController(ResumableUploadService uploads, TravelLogService travelLogService,
+                            ImageVariantService imageVariants) {
+        this.uploads = uploads;
+        this.travelLogService = travelLogService;
+        this.imageVariants = imageVariants;
+    }
+
+    @Autowired
+    protected AuthContext authContext;
+
+    // Kemampuan server (tus discovery)
+    @RequestMapping(method = RequestMethod.OPTIONS)
+    public ResponseEntity<Void> options() {
+        return ResponseEntity.noContent()
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header("Tus-Version", TUS_VERSION)
+                .header("Tus-Extension", "creation,termination")
+                .header("Tus-Max-Size", Long.toString(uploads.getMaxSize()))
+                .build();
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@RequestHeader(value = TUS_RESUMABLE, required = false) String version,
+                                    @RequestHeader(value = UPLOAD_LENGTH, required = false) Long length,
+                                    @RequestHeader(value = UPLOAD_METADATA, required = false) String metadata)
+            throws IOException {
+
+        ResponseEntity<?> rejected = check(version);
+        if (rejected != null) return rejected;
+
+        Map<String, String> meta = parseMetadata(metadata);
+        UUID logId = parseId(meta == null ? null : meta.get("logId"));
+        if (length == null || meta == null || logId == null) {
+            return tus(ResponseEntity.badRequest()).body(new ApiResponse<>("fail", "Upload-Length dan logId wajib diisi", null));
+        }
+        if (length > uploads.getMaxSize()) {
+            return tus(ResponseEntity.status(413)).body(new ApiResponse<>("fail", "Ukuran foto melebihi batas", null));
+        }
+
+        UUID userId = authContext.getAuthUser().getId();
+        if (travelLogService.getById(userId, logId) == null) {
+            return tus(ResponseEntity.status(404)).body(new ApiResponse<>("fail", "Jurnal tidak ditemukan", null));
+        }
+
+        ResumableUploadService.Upload upload;
+        try {
+            upload = uploads.create(userId, logId, meta.get("filename"), length);
+        } catch (ResumableUploadService.TooManySessionsException e) {
+            return tus(ResponseEntity.status(429)).body(new ApiResponse<>("fail", e.getMessage(), null));
+        } catch (ResumableUploadService.CapacityExceededException e) {
+            return tus(ResponseEntity.status(413)).body(new ApiResponse<>("fail", e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return tus(ResponseEntity.badRequest()).body(new ApiResponse<>("fail", e.getMessage(), null));
+        }
+        return tus(ResponseEntity.status(201))
+                .header(HttpHeaders.LOCATION, "/api/uploads/" + upload.id())
+                .header(UPLOAD_OFFSET, "0")
+                .build();
+    }
+
+    // Offset terakhir yang tersimpan; klien melanjutkan PATCH dari sini setelah koneksi putus
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<?> offset(@PathVariable String id,
+                                    @RequestHeader(value = TUS_RESUMABLE, required = false) String version)
+            throws IOException {
+
+        ResponseEntity<?> rejected = check(version);
+        if (rejected != null) return rejected;
+
+        ResumableUploadService.Upload upload = uploads.get(authContext.getAuthUser().getId(), id);
+        if (upload == null) return tus(ResponseEntity.status(404)).build();
+        return tus(ResponseEntity.ok())
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .header(UPLOAD_OFFSET, Long.toString(upload.offset()))
+                .header(UPLOAD_LENGTH, Long.toString(upload.length()))
+                .build();
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> append(@PathVariable String id,
+                                    @RequestHeader(value = TUS_RESUMABLE, required = false) String version,
+                                    @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                    @RequestHeader(value = UPLOAD_OFFSET, required = false) Long offset,
+                                    InputStream body) throws IOException {
+
+        ResponseEntity<?> rejected = check(version);
+        if (rejected != null) return rejected;
+        if (contentType == null || !contentType.startsWith(OFFSET_OCTET_STREAM)) {
+            return tus(ResponseEntity.status(415)).body(new ApiResponse<>("fail", "Content-Type harus " + OFFSET_OCTET_STREAM, null));
+        }
+        if (offset == null || offset < 0) {
+            return tus(ResponseEntity.badRequest()).body(new ApiResponse<>("fail", "Upload-Offset wajib diisi", null));
+        }
+
+        UUID userId = authContext.getAuthUser().getId();
+        ResumableUploadService.Upload upload;
+        try {
+            upload = uploads.append(userId, id, offset, body);
+        } catch (ResumableUploadService.ConflictException e) {
+            return tus(ResponseEntity.status(409)).body(new ApiResponse<>("fail", e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return tus(ResponseEntity.status(413)).body(new ApiResponse<>("fail", e.getMessage(), null));
+        }
+        if (upload == null) {
+            return tus(ResponseEntity.status(404)).body(new ApiResponse<>("fail", "Upload tidak ditemukan", null));
+        }
+
+        if (upload.complete()) {
+            // Sama seperti ganti foto lewat form: cover lama dilepas oleh save, varian dibuat di background
+            TravelLog log = travelLogService.getById(userId, upload.logId());
+            if (log == null) {
+                return tus(ResponseEntity.status(404)).body(new ApiResponse<>("fail", "Jurnal tidak ditemukan", null));
+            }
+            log.setImagePath(upload.storedAs());
+            travelLogService.save(log);
+            imageVariants.generate(userId, log.getId(), upload.storedAs());
+        }
+        return tus(ResponseEntity.noContent()).header(UPLOAD_OFFSET, Long.toString(upload.offset())).build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@PathVariable String id,
+                                    @RequestHeader(value = TUS_RESUMABLE, required = false) String version)
+            throws IOException {
+
+        ResponseEntity<?> rejected = check(version);
+        if (rejected != null) return rejected;
+
+        boolean deleted;
+        try {
+            deleted = uploads.delete(authContext.getAuthUser().getId(), id);
+        } catch (ResumableUploadService.ConflictException e) {
+            return tus(ResponseEntity.status(409)).body(new ApiResponse<>("fail", e.getMessage(), null));
+        }
+        return tus(deleted ? ResponseEntity.noContent() : ResponseEntity.status(404)).build();
+    }
+
+    // Autentikasi & versi protokol; null jika request boleh diproses
+    private ResponseEntity<?> check(String version) {
+        if (!authContext.isAuthenticated()) {
+            return ResponseEntity.status(401).body(new ApiResponse<>("fail", "Data tidak valid", null));
+        }
+        if (version != null && !TUS_VERSION.equals(version)) {
+            return ResponseEntity.status(412).header("Tus-Version", TUS_VERSION).build();
+        }
+        return null;
+    }
+
+    private static ResponseEntity.BodyBuilder tus(ResponseEntity.BodyBuilder builder) {
+        return builder.header(TUS_RESUMABLE, TUS_VERSION);
+    }
+
+    private static ResponseEntity.HeadersBuilder<?> tus(ResponseEntity.HeadersBuilder<?> builder) {
+        return builder.header(TUS_RESUMABLE, TUS_VERSION);
+    }
+
+    // "logId <base64>,filename <base64>" -> {logId=..., filename=...}; null jika formatnya salah
+    static Map<String, String> parseMetadata(String header) {
+        Map<String, String> meta = new HashMap<>();
+        if (header == null || header.isBlank()) return meta;
+        try {
+            for (String pair : header.split(",")) {
+                String[] parts = pair.trim().split(" ", 2);
+                if (parts[0].isEmpty()) return null;
+                String value = parts.length > 1
+                        ? new String(Base64.getDecoder().decode(parts[1].trim()), StandardCharsets.UTF_8) : "";
+                meta.put(parts[0], value);
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return meta;
+    }
+
+    private static UUID parseId(String value) {
+        if (value == null) return null;
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
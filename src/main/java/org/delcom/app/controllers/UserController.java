@@ -1,5 +1,6 @@
 package org.delcom.app.controllers;
 
+import java.time.ZoneId;
 import java.util.Map;
 import java.util.UUID;
 
@@ -9,6 +10,7 @@ import org.delcom.app.entities.AuthToken;
 import org.delcom.app.entities.User;
 import org.delcom.app.services.AuthTokenService;
 import org.delcom.app.services.UserService;
+import org.delcom.app.utils.ETagUtil;
 import org.delcom.app.utils.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -116,7 +118,15 @@ public class UserController {
 
         ApiResponse<Map<String, User>> response = new ApiResponse<>("success", "Berhasil mendapatkan info user",
                 Map.of("user", authUser));
-        return ResponseEntity.ok(response);
+
+        // Validator untuk conditional request; Spring menjawab 304 jika If-None-Match cocok
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .cacheControl(ETagUtil.REVALIDATE)
+                .eTag(ETagUtil.weak(authUser.getId(), authUser.getUpdatedAt()));
+        if (authUser.getUpdatedAt() != null) {
+            ok.lastModified(authUser.getUpdatedAt().atZone(ZoneId.systemDefault()));
+        }
+        return ok.body(response);
     }
 
     // Mengubah informasi pengguna
@@ -0,0 +1,15 @@
+package org.delcom.app.dto;
+
+// Jumlah jurnal per destinasi, untuk mengisi trie autocomplete
+public class DestinationCount {
+    private final String destination;
+    private final Long count;
+
+    public DestinationCount(String destination, Long count) {
+        this.destination = destination;
+        this.count = count;
+    }
+
+    public String getDestination() { return destination; }
+    public Long getCount() { return count; }
+}
@@ -0,0 +1,21 @@
+package org.delcom.app.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+// Body untuk ganti nama destinasi di semua jurnal: {"from": "Jogja", "to": "Yogyakarta"}
+public class DestinationRenameForm {
+    @NotBlank(message = "Destinasi asal wajib diisi")
+    private String from;
+
+    @NotBlank(message = "Destinasi baru wajib diisi")
+    @Size(max = 255, message = "Destinasi maksimal 255 karakter")
+    private String to;
+
+    public DestinationRenameForm() {}
+
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+}
@@ -0,0 +1,15 @@
+package org.delcom.app.dto;
+
+// Hasil agregasi SUM(total_cost) per destinasi untuk chart dashboard
+public class DestinationTotal {
+    private final String destination;
+    private final long totalCost;
+
+    public DestinationTotal(String destination, long totalCost) {
+        this.destination = destination;
+        this.totalCost = totalCost;
+    }
+
+    public String getDestination() { return destination; }
+    public long getTotalCost() { return totalCost; }
+}
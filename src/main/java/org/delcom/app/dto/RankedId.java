@@ -0,0 +1,9 @@
+package org.delcom.app.dto;
+
+import java.util.UUID;
+
+// Hasil full-text search per halaman: id jurnal dan skor ts_rank-nya (kunci keyset bersama id)
+public interface RankedId {
+    UUID getId();
+    float getRank();
+}
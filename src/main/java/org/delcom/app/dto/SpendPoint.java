@@ -0,0 +1,23 @@
+package org.delcom.app.dto;
+
+import java.time.LocalDate;
+
+// Satu titik deret waktu pengeluaran: total per periode dan total kumulatif s.d. periode itu
+public class SpendPoint {
+    private final LocalDate period;
+    private final long total;
+    private final long logs;
+    private final long runningTotal;
+
+    public SpendPoint(LocalDate period, long total, long logs, long runningTotal) {
+        this.period = period;
+        this.total = total;
+        this.logs = logs;
+        this.runningTotal = runningTotal;
+    }
+
+    public LocalDate getPeriod() { return period; }
+    public long getTotal() { return total; }
+    public long getLogs() { return logs; }
+    public long getRunningTotal() { return runningTotal; }
+}
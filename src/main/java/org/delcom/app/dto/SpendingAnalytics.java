@@ -0,0 +1,31 @@
+package org.delcom.app.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// Ringkasan analitik pengeluaran untuk chart; series sudah di-downsample (seriesSize = jumlah periode asli)
+public class SpendingAnalytics {
+    private final String granularity;
+    private final List<SpendPoint> series;
+    private final int seriesSize;
+    private final List<SpendPoint> yearly;
+    private final Map<Integer, Long> ratings;
+    private final List<DestinationTotal> destinations;
+
+    public SpendingAnalytics(String granularity, List<SpendPoint> series, int seriesSize, List<SpendPoint> yearly,
+                             Map<Integer, Long> ratings, List<DestinationTotal> destinations) {
+        this.granularity = granularity;
+        this.series = series;
+        this.seriesSize = seriesSize;
+        this.yearly = yearly;
+        this.ratings = ratings;
+        this.destinations = destinations;
+    }
+
+    public String getGranularity() { return granularity; }
+    public List<SpendPoint> getSeries() { return series; }
+    public int getSeriesSize() { return seriesSize; }
+    public List<SpendPoint> getYearly() { return yearly; }
+    public Map<Integer, Long> getRatings() { return ratings; }
+    public List<DestinationTotal> getDestinations() { return destinations; }
+}
@@ -0,0 +1,21 @@
+package org.delcom.app.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.UUID;
+
+// Body untuk hapus massal: {"ids": ["...", "..."]}
+public class TravelLogBatchDeleteForm {
+    public static final int MAX_IDS = 1000;
+
+    @NotEmpty(message = "Daftar id wajib diisi")
+    @Size(max = MAX_IDS, message = "Maksimal " + MAX_IDS + " id per permintaan")
+    private List<@NotNull(message = "Id tidak boleh kosong") UUID> ids;
+
+    public TravelLogBatchDeleteForm() {}
+
+    public List<UUID> getIds() { return ids; }
+    public void setIds(List<UUID> ids) { this.ids = ids; }
+}
@@ -0,0 +1,52 @@
+package org.delcom.app.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posisi keyset untuk pagination daftar jurnal: (createdAt, id) dari baris
+ * terakhir di halaman sebelumnya, ditambah rank (ts_rank) jika halaman diurutkan
+ * berdasarkan relevansi full-text search. Dikirim ke view sebagai string base64url.
+ */
+public class TravelLogCursor {
+    private final LocalDateTime createdAt;
+    private final UUID id;
+    private final Float rank;
+
+    public TravelLogCursor(LocalDateTime createdAt, UUID id) {
+        this(createdAt, id, null);
+    }
+
+    public TravelLogCursor(LocalDateTime createdAt, UUID id, Float rank) {
+        this.createdAt = createdAt;
+        this.id = id;
+        this.rank = rank;
+    }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public UUID getId() { return id; }
+    public Float getRank() { return rank; }
+
+    public String encode() {
+        // Float.toString bisa dibaca ulang tanpa kehilangan presisi, jadi perbandingan rank tetap tepat
+        String raw = createdAt + "|" + id + (rank != null ? "|" + rank : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Kembalikan null jika cursor kosong / rusak, sehingga view jatuh ke halaman pertama
+    public static TravelLogCursor decode(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length < 2 || parts.length > 3) return null;
+            Float rank = parts.length == 3 ? Float.valueOf(parts[2]) : null;
+            if (rank != null && !Float.isFinite(rank)) return null;
+            return new TravelLogCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]), rank);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.delcom.app.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// Satu halaman REST API: setiap item hanya berisi field yang diminta (fields=)
+public class TravelLogFieldsPage {
+    private final List<Map<String, Object>> items;
+    private final String nextCursor;
+
+    public TravelLogFieldsPage(List<Map<String, Object>> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Map<String, Object>> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
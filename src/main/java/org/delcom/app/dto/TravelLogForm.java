@@ -1,14 +1,33 @@
 package org.delcom.app.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.UUID;
 
 public class TravelLogForm {
     private UUID id;
+
+    @NotBlank(message = "Judul wajib diisi")
+    @Size(max = 255, message = "Judul maksimal 255 karakter")
     private String title;
+
+    @NotBlank(message = "Destinasi wajib diisi")
+    @Size(max = 255, message = "Destinasi maksimal 255 karakter")
     private String destination;
+
     private String description;
-    private Double totalCost;
+
+    @NotNull(message = "Total biaya wajib diisi")
+    @PositiveOrZero(message = "Total biaya tidak boleh negatif")
+    private Long totalCost; // Rupiah utuh
+
+    @Min(value = 1, message = "Rating minimal 1")
+    @Max(value = 5, message = "Rating maksimal 5")
     private Integer rating;
     private MultipartFile imageFile; // Untuk upload
 
@@ -23,8 +42,8 @@ public class TravelLogForm {
     public void setDestination(String destination) { this.destination = destination; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
-    public Double getTotalCost() { return totalCost; }
-    public void setTotalCost(Double totalCost) { this.totalCost = totalCost; }
+    public Long getTotalCost() { return totalCost; }
+    public void setTotalCost(Long totalCost) { this.totalCost = totalCost; }
     public Integer getRating() { return rating; }
     public void setRating(Integer rating) { this.rating = rating; }
     public MultipartFile getImageFile() { return imageFile; }
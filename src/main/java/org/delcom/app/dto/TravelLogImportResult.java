@@ -0,0 +1,40 @@
+package org.delcom.app.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Laporan import massal: jumlah baris masuk/gagal dan alasan per baris (dibatasi MAX_ERRORS)
+public class TravelLogImportResult {
+    public static final int MAX_ERRORS = 1000;
+
+    private long imported;
+    private long failed;
+    private boolean errorsTruncated;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void addImported(long count) { imported += count; }
+
+    public void addError(long row, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) errors.add(new RowError(row, message));
+        else errorsTruncated = true;
+    }
+
+    public long getImported() { return imported; }
+    public long getFailed() { return failed; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public List<RowError> getErrors() { return errors; }
+
+    public static class RowError {
+        private final long row;
+        private final String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() { return row; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,17 @@
+package org.delcom.app.dto;
+
+import java.util.List;
+
+public class TravelLogPage {
+    private final List<TravelLogSummary> items;
+    private final String nextCursor;
+
+    public TravelLogPage(List<TravelLogSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TravelLogSummary> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+}
@@ -0,0 +1,72 @@
+package org.delcom.app.dto;
+
+import org.delcom.app.utils.ImageVariantUtil;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Ringkasan jurnal untuk grid & hasil pencarian: tanpa kolom description penuh,
+// hanya potongan awalnya (dipotong di database) dan tidak dikelola persistence context
+public class TravelLogSummary {
+    // Panjang potongan cerita; query mengambil 1 karakter lebih untuk tahu apakah terpotong
+    public static final int EXCERPT_LENGTH = 160;
+
+    private final UUID id;
+    private final String title;
+    private final String destination;
+    private final String excerpt;
+    private final String imagePath;
+    private final String imageVariants;
+    private final long totalCost;
+    private final Integer rating;
+    private final LocalDateTime createdAt;
+    // Skor relevansi full-text search; null jika halaman diurutkan berdasarkan waktu
+    private final Float rank;
+
+    public TravelLogSummary(UUID id, String title, String destination, String excerpt,
+                            String imagePath, String imageVariants, long totalCost, Integer rating,
+                            LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.destination = destination;
+        this.excerpt = excerpt != null && excerpt.length() > EXCERPT_LENGTH
+                ? excerpt.substring(0, EXCERPT_LENGTH).stripTrailing() + "…"
+                : excerpt;
+        this.imagePath = imagePath;
+        this.imageVariants = imageVariants;
+        this.totalCost = totalCost;
+        this.rating = rating;
+        this.createdAt = createdAt;
+        this.rank = null;
+    }
+
+    private TravelLogSummary(TravelLogSummary source, Float rank) {
+        this.id = source.id;
+        this.title = source.title;
+        this.destination = source.destination;
+        this.excerpt = source.excerpt;
+        this.imagePath = source.imagePath;
+        this.imageVariants = source.imageVariants;
+        this.totalCost = source.totalCost;
+        this.rating = source.rating;
+        this.createdAt = source.createdAt;
+        this.rank = rank;
+    }
+
+    // Salinan dengan skor relevansi, dipakai sebagai bagian cursor halaman berikutnya
+    public TravelLogSummary withRank(Float rank) {
+        return new TravelLogSummary(this, rank);
+    }
+
+    public UUID getId() { return id; }
+    public String getTitle() { return title; }
+    public String getDestination() { return destination; }
+    public String getExcerpt() { return excerpt; }
+    public String getImagePath() { return imagePath; }
+    public String getImageVariants() { return imageVariants; }
+    public String getGridImagePath() { return ImageVariantUtil.resolve(imagePath, imageVariants, ImageVariantUtil.GRID); }
+    public long getTotalCost() { return totalCost; }
+    public Integer getRating() { return rating; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Float getRank() { return rank; }
+}
@@ -0,0 +1,17 @@
+package org.delcom.app.dto;
+
+import java.time.LocalDateTime;
+
+// Penanda versi daftar jurnal user: berubah setiap ada insert, edit, atau hapus
+public class TravelLogVersion {
+    private final LocalDateTime lastModified;
+    private final long count;
+
+    public TravelLogVersion(LocalDateTime lastModified, Long count) {
+        this.lastModified = lastModified;
+        this.count = count != null ? count : 0;
+    }
+
+    public LocalDateTime getLastModified() { return lastModified; }
+    public long getCount() { return count; }
+}
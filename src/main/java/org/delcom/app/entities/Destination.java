@@ -0,0 +1,45 @@
+package org.delcom.app.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Destinasi kanonik: "Bali", "bali " dan "BALI" berbagi satu baris (canonical_key = "bali").
+// travel_logs.destination_id merujuk ke id ini; teks asli tetap disimpan di travel_logs.destination.
+@Entity
+@Table(name = "destinations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_destinations_canonical_key", columnNames = { "canonical_key" })
+})
+public class Destination {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "canonical_key", nullable = false)
+    private String canonicalKey;
+
+    // Penulisan pertama, hanya sebagai rujukan; label chart/statistik memakai teks jurnal milik user
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public Destination() {}
+
+    public Destination(String canonicalKey, String name) {
+        this.canonicalKey = canonicalKey;
+        this.name = name;
+    }
+
+    // Getters & Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getCanonicalKey() { return canonicalKey; }
+    public void setCanonicalKey(String canonicalKey) { this.canonicalKey = canonicalKey; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    @PrePersist protected void onCreate() { createdAt = LocalDateTime.now(); }
+}
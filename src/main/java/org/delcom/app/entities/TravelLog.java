@@ -1,11 +1,22 @@
 package org.delcom.app.entities;
 
 import jakarta.persistence.*;
+import org.delcom.app.utils.ImageVariantUtil;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "travel_logs")
+@Table(name = "travel_logs", indexes = {
+        // Dipakai oleh pagination keyset di halaman utama
+        @Index(name = "idx_travel_logs_user_created", columnList = "user_id, created_at DESC, id DESC"),
+        // Dipakai untuk ETag halaman utama (MAX(updated_at) + COUNT per user)
+        @Index(name = "idx_travel_logs_user_updated", columnList = "user_id, updated_at"),
+        // Filter & GROUP BY destinasi memakai id, bukan teks
+        @Index(name = "idx_travel_logs_user_destination", columnList = "user_id, destination_id"),
+        // Hitung referensi file cover bersama (content-addressed) sebelum dihapus
+        @Index(name = "idx_travel_logs_image_path", columnList = "image_path")
+})
 public class TravelLog {
 
     @Id
@@ -20,7 +31,11 @@ public class TravelLog {
     private String title;
 
     @Column(nullable = false)
-    private String destination; // Lokasi
+    private String destination; // Lokasi (teks asli, ditampilkan & diindeks full-text search)
+
+    // Rujukan ke destinations.id (kanonik); diisi TravelLogService.save
+    @Column(name = "destination_id")
+    private Long destinationId;
 
     @Column(columnDefinition = "TEXT")
     private String description;
@@ -28,8 +43,13 @@ public class TravelLog {
     @Column(name = "image_path")
     private String imagePath; // Untuk foto
 
-    @Column(name = "total_cost")
-    private Double totalCost; // Untuk Chart
+    // Varian ukuran yang sudah dibuat ImageVariantService, mis. "detail,grid"
+    @Column(name = "image_variants")
+    private String imageVariants;
+
+    // Rupiah utuh (BIGINT): penjumlahan eksak, tanpa pembulatan floating point
+    @Column(name = "total_cost", nullable = false)
+    private long totalCost; // Untuk Chart
 
     private Integer rating; // 1-5
 
@@ -39,9 +59,26 @@ public class TravelLog {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Nilai destinasi, biaya & foto saat terakhir dimuat/disimpan, untuk menghitung selisih statistik
+    // dan melepas file cover lama
+    @Transient
+    private boolean persistedStateKnown;
+
+    @Transient
+    private String persistedDestination;
+
+    @Transient
+    private Long persistedDestinationId;
+
+    @Transient
+    private long persistedTotalCost;
+
+    @Transient
+    private String persistedImagePath;
+
     public TravelLog() {}
 
-    public TravelLog(UUID userId, String title, String destination, String description, Double totalCost, Integer rating) {
+    public TravelLog(UUID userId, String title, String destination, String description, long totalCost, Integer rating) {
         this.userId = userId;
         this.title = title;
         this.destination = destination;
@@ -59,17 +96,37 @@ public class TravelLog {
     public void setTitle(String title) { this.title = title; }
     public String getDestination() { return destination; }
     public void setDestination(String destination) { this.destination = destination; }
+    public Long getDestinationId() { return destinationId; }
+    public void setDestinationId(Long destinationId) { this.destinationId = destinationId; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     public String getImagePath() { return imagePath; }
-    public void setImagePath(String imagePath) { this.imagePath = imagePath; }
-    public Double getTotalCost() { return totalCost; }
-    public void setTotalCost(Double totalCost) { this.totalCost = totalCost; }
+    // Foto baru: varian lama tidak berlaku sampai dibuat ulang
+    public void setImagePath(String imagePath) { this.imagePath = imagePath; this.imageVariants = null; }
+    public String getImageVariants() { return imageVariants; }
+    public String getDetailImagePath() { return ImageVariantUtil.resolve(imagePath, imageVariants, ImageVariantUtil.DETAIL); }
+    public long getTotalCost() { return totalCost; }
+    public void setTotalCost(long totalCost) { this.totalCost = totalCost; }
     public Integer getRating() { return rating; }
     public void setRating(Integer rating) { this.rating = rating; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
 
+    public boolean isPersistedStateKnown() { return persistedStateKnown; }
+    public String getPersistedDestination() { return persistedDestination; }
+    public Long getPersistedDestinationId() { return persistedDestinationId; }
+    public long getPersistedTotalCost() { return persistedTotalCost; }
+    public String getPersistedImagePath() { return persistedImagePath; }
+
+    @PostLoad
+    public void markPersistedState() {
+        persistedStateKnown = true;
+        persistedDestination = destination;
+        persistedDestinationId = destinationId;
+        persistedTotalCost = totalCost;
+        persistedImagePath = imagePath;
+    }
+
     @PrePersist protected void onCreate() { createdAt = LocalDateTime.now(); updatedAt = LocalDateTime.now(); }
     @PreUpdate protected void onUpdate() { updatedAt = LocalDateTime.now(); }
 }
\ No newline at end of file
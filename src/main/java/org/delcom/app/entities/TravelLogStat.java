@@ -0,0 +1,58 @@
+package org.delcom.app.entities;
+
+import jakarta.persistence.*;
+import java.util.UUID;
+
+// Ringkasan biaya per user per destinasi kanonik, dirawat bertahap oleh TravelLogStatsService
+@Entity
+@Table(name = "travel_log_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_travel_log_stats_user_destination_id", columnNames = { "user_id", "destination_id" })
+})
+public class TravelLogStat {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @Column(name = "id", updatable = false, nullable = false, columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "destination_id")
+    private Long destinationId;
+
+    // Label untuk chart: teks destinasi dari jurnal user ini (bukan nama global di tabel destinations)
+    @Column(nullable = false)
+    private String destination;
+
+    // Rupiah utuh, sama seperti travel_logs.total_cost
+    @Column(name = "total_cost", nullable = false)
+    private long totalCost;
+
+    @Column(name = "log_count", nullable = false)
+    private Long logCount;
+
+    public TravelLogStat() {}
+
+    public TravelLogStat(UUID userId, Long destinationId, String destination, long totalCost, Long logCount) {
+        this.userId = userId;
+        this.destinationId = destinationId;
+        this.destination = destination;
+        this.totalCost = totalCost;
+        this.logCount = logCount;
+    }
+
+    // Getters & Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public Long getDestinationId() { return destinationId; }
+    public void setDestinationId(Long destinationId) { this.destinationId = destinationId; }
+    public String getDestination() { return destination; }
+    public void setDestination(String destination) { this.destination = destination; }
+    public long getTotalCost() { return totalCost; }
+    public void setTotalCost(long totalCost) { this.totalCost = totalCost; }
+    public Long getLogCount() { return logCount; }
+    public void setLogCount(Long logCount) { this.logCount = logCount; }
+}
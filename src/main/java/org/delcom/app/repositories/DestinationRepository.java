@@ -0,0 +1,22 @@
+package org.delcom.app.repositories;
+
+import org.delcom.app.entities.Destination;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface DestinationRepository extends JpaRepository<Destination, Long> {
+    Optional<Destination> findByCanonicalKey(String canonicalKey);
+
+    // 1 jika baris dibuat, 0 jika canonical_key sudah ada; unique violation tidak membatalkan transaksi pemanggil
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO destinations (canonical_key, name, created_at) VALUES (:canonicalKey, :name, :createdAt) ON CONFLICT (canonical_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(String canonicalKey, String name, LocalDateTime createdAt);
+}
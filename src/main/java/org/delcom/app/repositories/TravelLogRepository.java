@@ -1,21 +1,145 @@
 package org.delcom.app.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.delcom.app.dto.DestinationCount;
+import org.delcom.app.dto.RankedId;
+import org.delcom.app.dto.TravelLogSummary;
+import org.delcom.app.dto.TravelLogVersion;
 import org.delcom.app.entities.TravelLog;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface TravelLogRepository extends JpaRepository<TravelLog, UUID> {
+public interface TravelLogRepository extends JpaRepository<TravelLog, UUID>, TravelLogRepositoryCustom {
+    // Kolom entity untuk query native (tanpa search_vector agar tsvector tidak ikut terkirim)
+    String LOG_COLUMNS = "t.id, t.user_id, t.title, t.destination, t.destination_id, t.description, t.image_path, t.image_variants, t.total_cost, t.rating, t.created_at, t.updated_at";
+
+    // Proyeksi ringkasan untuk list: description dipotong di database (EXCERPT_LENGTH + 1 karakter)
+    String SUMMARY = "SELECT new org.delcom.app.dto.TravelLogSummary(t.id, t.title, t.destination, SUBSTRING(t.description, 1, 161), t.imagePath, t.imageVariants, t.totalCost, t.rating, t.createdAt) FROM TravelLog t";
+
     List<TravelLog> findByUserIdOrderByCreatedAtDesc(UUID userId);
 
     Optional<TravelLog> findByUserIdAndId(UUID userId, UUID id);
 
-    // Fitur Search (Judul atau Lokasi)
-    @Query("SELECT t FROM TravelLog t WHERE t.userId = :userId AND (LOWER(t.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(t.destination) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    List<TravelLog> findByUserIdAndIdIn(UUID userId, Collection<UUID> ids);
+
+    // Ekspor: dibaca bertahap lewat cursor database (fetch size), bukan dimuat sekaligus ke List
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM TravelLog t WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<TravelLog> streamByUserId(UUID userId);
+
+    // Fitur Search (Judul, Lokasi atau Cerita) dengan LIKE, fallback jika full-text search tidak aktif
+    @Query("SELECT t FROM TravelLog t WHERE t.userId = :userId AND (LOWER(t.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(t.destination) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(t.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
     List<TravelLog> search(UUID userId, String keyword);
-}
\ No newline at end of file
+
+    // Pagination keyset (createdAt, id): halaman pertama dan halaman setelah cursor
+    @Query(SUMMARY + " WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TravelLogSummary> findFirstPage(UUID userId, Limit limit);
+
+    @Query(SUMMARY + " WHERE t.userId = :userId AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) ORDER BY t.createdAt DESC, t.id DESC")
+    List<TravelLogSummary> findPageAfter(UUID userId, LocalDateTime createdAt, UUID id, Limit limit);
+
+    @Query(SUMMARY + " WHERE t.userId = :userId AND (LOWER(t.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(t.destination) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(t.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) ORDER BY t.createdAt DESC, t.id DESC")
+    List<TravelLogSummary> searchFirstPage(UUID userId, String keyword, Limit limit);
+
+    @Query(SUMMARY + " WHERE t.userId = :userId AND (LOWER(t.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(t.destination) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(t.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) ORDER BY t.createdAt DESC, t.id DESC")
+    List<TravelLogSummary> searchPageAfter(UUID userId, String keyword, LocalDateTime createdAt, UUID id, Limit limit);
+
+    // Ringkasan untuk id hasil pencarian (urutan mengikuti pemanggil)
+    @Query(SUMMARY + " WHERE t.userId = :userId AND t.id IN :ids")
+    List<TravelLogSummary> findSummariesByIdIn(UUID userId, Collection<UUID> ids);
+
+    // Full-text search PostgreSQL (kolom search_vector + index GIN, lihat FullTextSearchConfig)
+    @Query(value = "SELECT " + LOG_COLUMNS + " FROM travel_logs t WHERE t.user_id = :userId AND t.search_vector @@ websearch_to_tsquery(CAST(:config AS regconfig), :keyword) ORDER BY ts_rank(t.search_vector, websearch_to_tsquery(CAST(:config AS regconfig), :keyword)) DESC, t.id DESC", nativeQuery = true)
+    List<TravelLog> fullTextSearch(UUID userId, String config, String keyword);
+
+    // Versi halaman hanya mengambil id dan rank; ringkasannya dimuat lewat findSummariesByIdIn.
+    // Keyset (rank, id) mengikuti urutan relevansi yang sama dengan fullTextSearch.
+    String RANKED = "SELECT t.id AS id, ts_rank(t.search_vector, q) AS rank FROM travel_logs t, websearch_to_tsquery(CAST(:config AS regconfig), :keyword) q WHERE t.user_id = :userId AND t.search_vector @@ q";
+
+    @Query(value = RANKED + " ORDER BY rank DESC, t.id DESC LIMIT :limit", nativeQuery = true)
+    List<RankedId> fullTextSearchFirstPage(UUID userId, String config, String keyword, int limit);
+
+    @Query(value = "SELECT r.id, r.rank FROM (" + RANKED + ") r WHERE r.rank < CAST(:rank AS real) OR (r.rank = CAST(:rank AS real) AND r.id < :id) ORDER BY r.rank DESC, r.id DESC LIMIT :limit", nativeQuery = true)
+    List<RankedId> fullTextSearchPageAfter(UUID userId, String config, String keyword, float rank, UUID id, int limit);
+
+    @Query(value = "SELECT CAST(COALESCE(SUM(t.total_cost), 0) AS bigint) FROM travel_logs t WHERE t.user_id = :userId AND t.search_vector @@ websearch_to_tsquery(CAST(:config AS regconfig), :keyword)", nativeQuery = true)
+    long fullTextSumTotalCost(UUID userId, String config, String keyword);
+
+    // Validator untuk conditional request (ETag): cukup index (user_id, updated_at)
+    @Query("SELECT new org.delcom.app.dto.TravelLogVersion(MAX(t.updatedAt), COUNT(t)) FROM TravelLog t WHERE t.userId = :userId")
+    TravelLogVersion findVersionByUserId(UUID userId);
+
+    @Query("SELECT t.updatedAt FROM TravelLog t WHERE t.userId = :userId AND t.id = :id")
+    Optional<LocalDateTime> findUpdatedAtByUserIdAndId(UUID userId, UUID id);
+
+    // Agregasi untuk dashboard: dihitung di database, bukan dengan memuat entity
+    @Query("SELECT COALESCE(SUM(t.totalCost), 0L) FROM TravelLog t WHERE t.userId = :userId AND (LOWER(t.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(t.destination) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(t.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    long sumTotalCostByKeyword(UUID userId, String keyword);
+
+    // Autocomplete: teks destinasi milik user sendiri; penulisan terbanyak lebih dulu sehingga menjadi
+    // label saran untuk varian yang sama ("Bali", "bali ")
+    @Query("SELECT new org.delcom.app.dto.DestinationCount(t.destination, COUNT(t)) FROM TravelLog t WHERE t.userId = :userId GROUP BY t.destination ORDER BY COUNT(t) DESC")
+    List<DestinationCount> countByDestinationForUser(UUID userId);
+
+    // Migrasi: teks destinasi yang belum punya destination_id (penulisan terbanyak lebih dulu, sehingga
+    // menjadi nama tampilan destinasi kanonik), lalu isi per teks
+    @Query("SELECT t.destination FROM TravelLog t WHERE t.destinationId IS NULL GROUP BY t.destination ORDER BY COUNT(t) DESC")
+    List<String> findUnlinkedDestinations();
+
+    @Modifying
+    @Query("UPDATE TravelLog t SET t.destinationId = :destinationId WHERE t.destinationId IS NULL AND t.destination = :destination")
+    int linkDestination(String destination, Long destinationId);
+
+    // Operasi massal: satu statement untuk banyak baris, selalu dibatasi user_id.
+    // Bulk JPQL melewati persistence context, jadi context di-flush sebelum dan dikosongkan sesudahnya.
+    @Query("SELECT new org.delcom.app.dto.DestinationCount(t.destination, COUNT(t)) FROM TravelLog t WHERE t.userId = :userId AND t.id IN :ids GROUP BY t.destination")
+    List<DestinationCount> countByDestinationForIds(UUID userId, Collection<UUID> ids);
+
+    @Query("SELECT t.imagePath FROM TravelLog t WHERE t.userId = :userId AND t.id IN :ids AND t.imagePath IS NOT NULL")
+    List<String> findImagePathsByUserIdAndIdIn(UUID userId, Collection<UUID> ids);
+
+    // File cover dipakai bersama (nama = hash isi); yang masih ada di hasil ini belum boleh dihapus
+    @Query("SELECT DISTINCT t.imagePath FROM TravelLog t WHERE t.imagePath IN :imagePaths")
+    List<String> findReferencedImagePaths(Collection<String> imagePaths);
+
+    // Fase mark pembersihan upload: hanya kolom image_path, di-stream per fetch size
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.imagePath FROM TravelLog t WHERE t.imagePath IS NOT NULL")
+    Stream<String> streamImagePaths();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM TravelLog t WHERE t.userId = :userId AND t.id IN :ids")
+    int deleteByUserIdAndIdIn(UUID userId, Collection<UUID> ids);
+
+    // Semua varian penulisan (destination_id sama) ikut diganti. @PreUpdate tidak terpanggil pada
+    // bulk update, updatedAt diisi manual (dipakai ETag)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TravelLog t SET t.destination = :to, t.destinationId = :toId, t.updatedAt = :now WHERE t.userId = :userId AND t.destinationId = :fromId AND (t.destination <> :to OR t.destinationId <> :toId)")
+    int renameDestination(UUID userId, Long fromId, String to, Long toId, LocalDateTime now);
+
+    // Hanya jika foto belum diganti sejak varian mulai dibuat; updatedAt dinaikkan agar ETag halaman berubah
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TravelLog t SET t.imageVariants = :variants, t.updatedAt = :now WHERE t.id = :id AND t.imagePath = :imagePath")
+    int updateImageVariants(UUID id, String imagePath, String variants, LocalDateTime now);
+}
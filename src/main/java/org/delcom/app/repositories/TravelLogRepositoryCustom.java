@@ -0,0 +1,21 @@
+package org.delcom.app.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Query dengan kolom dinamis (sparse fieldset) untuk REST API, lihat TravelLogRepositoryImpl
+public interface TravelLogRepositoryCustom {
+    // Nama field entity yang boleh diminta lewat parameter fields=
+    List<String> SELECTABLE_FIELDS = List.of(
+            "id", "title", "destination", "description", "imagePath", "totalCost", "rating", "createdAt", "updatedAt");
+
+    // Urutan (createdAt DESC, id DESC); afterCreatedAt/afterId null untuk halaman pertama.
+    // id dan createdAt selalu ikut diambil karena dibutuhkan untuk cursor.
+    List<Map<String, Object>> findFieldsPage(UUID userId, Collection<String> fields,
+                                             LocalDateTime afterCreatedAt, UUID afterId, int limit);
+
+    Map<String, Object> findFieldsById(UUID userId, UUID id, Collection<String> fields);
+}
@@ -0,0 +1,77 @@
+package org.delcom.app.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.*;
+import org.delcom.app.entities.TravelLog;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Criteria API: hanya kolom yang diminta yang masuk ke SELECT, hasilnya tuple (bukan entity terkelola)
+public class TravelLogRepositoryImpl implements TravelLogRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFieldsPage(UUID userId, Collection<String> fields,
+                                                    LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<TravelLog> t = query.from(TravelLog.class);
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(t.get("userId"), userId));
+        if (afterCreatedAt != null && afterId != null) {
+            Path<LocalDateTime> createdAt = t.get("createdAt");
+            Path<UUID> id = t.get("id");
+            where.add(cb.or(
+                    cb.lessThan(createdAt, afterCreatedAt),
+                    cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(id, afterId))));
+        }
+
+        query.multiselect(selections(t, fields))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(t.get("createdAt")), cb.desc(t.get("id")));
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(limit).getResultList();
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) result.add(toMap(row));
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> findFieldsById(UUID userId, UUID id, Collection<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<TravelLog> t = query.from(TravelLog.class);
+
+        query.multiselect(selections(t, fields))
+                .where(cb.equal(t.get("userId"), userId), cb.equal(t.get("id"), id));
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(1).getResultList();
+        return rows.isEmpty() ? null : toMap(rows.get(0));
+    }
+
+    private static List<Selection<?>> selections(Root<TravelLog> t, Collection<String> fields) {
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add("id");
+        columns.add("createdAt");
+        for (String field : fields) {
+            if (!SELECTABLE_FIELDS.contains(field)) throw new IllegalArgumentException("Field tidak dikenal: " + field);
+            columns.add(field);
+        }
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        for (String column : columns) selections.add(t.get(column).alias(column));
+        return selections;
+    }
+
+    private static Map<String, Object> toMap(Tuple row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (TupleElement<?> element : row.getElements()) values.put(element.getAlias(), row.get(element));
+        return values;
+    }
+}
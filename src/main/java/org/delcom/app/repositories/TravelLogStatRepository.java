@@ -0,0 +1,51 @@
+package org.delcom.app.repositories;
+
+import org.delcom.app.entities.TravelLogStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TravelLogStatRepository extends JpaRepository<TravelLogStat, UUID> {
+    List<TravelLogStat> findByUserIdOrderByTotalCostDesc(UUID userId);
+
+    // Tambah ringkasan; baris dibuat jika belum ada dengan label dari teks jurnal user, label yang sudah ada tetap. Satu statement agar dua penulisan pertama yang
+    // bersamaan untuk (user, destinasi) yang sama tidak saling menabrak unique constraint.
+    @Modifying
+    @Query(value = "INSERT INTO travel_log_stats (id, user_id, destination_id, destination, total_cost, log_count) VALUES (gen_random_uuid(), :userId, :destinationId, :destination, :cost, :count) ON CONFLICT (user_id, destination_id) DO UPDATE SET total_cost = travel_log_stats.total_cost + EXCLUDED.total_cost, log_count = travel_log_stats.log_count + EXCLUDED.log_count", nativeQuery = true)
+    int upsertDelta(UUID userId, Long destinationId, String destination, long cost, long count);
+
+    // Kurangi ringkasan secara atomik; 0 berarti baris belum ada
+    @Modifying
+    @Query("UPDATE TravelLogStat s SET s.totalCost = s.totalCost + :cost, s.logCount = s.logCount + :count WHERE s.userId = :userId AND s.destinationId = :destinationId")
+    int applyDelta(UUID userId, Long destinationId, long cost, Long count);
+
+    @Modifying
+    @Query("DELETE FROM TravelLogStat s WHERE s.userId = :userId AND s.destinationId = :destinationId AND s.logCount <= 0")
+    void deleteIfEmpty(UUID userId, Long destinationId);
+
+    // Baris lama (sebelum tabel destinations) belum punya destination_id
+    boolean existsByDestinationIdIsNull();
+
+    @Modifying
+    @Query("DELETE FROM TravelLogStat s WHERE s.userId = :userId")
+    void deleteByUserId(UUID userId);
+
+    // Isi ulang dari travel_logs (GROUP BY destination_id, label = penulisan user yang paling sering). Baris yang
+    // sempat dibuat penyimpanan lain setelah DELETE ditimpa dengan hasil agregasi, bukan gagal karena unique constraint.
+    @Modifying
+    @Query(value = "INSERT INTO travel_log_stats (id, user_id, destination_id, destination, total_cost, log_count) SELECT gen_random_uuid(), t.user_id, t.destination_id, mode() WITHIN GROUP (ORDER BY t.destination), SUM(t.total_cost), COUNT(*) FROM travel_logs t WHERE t.user_id = :userId AND t.destination_id IS NOT NULL GROUP BY t.user_id, t.destination_id ON CONFLICT (user_id, destination_id) DO UPDATE SET destination = EXCLUDED.destination, total_cost = EXCLUDED.total_cost, log_count = EXCLUDED.log_count", nativeQuery = true)
+    int insertAggregatesByUserId(UUID userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO travel_log_stats (id, user_id, destination_id, destination, total_cost, log_count) SELECT gen_random_uuid(), t.user_id, t.destination_id, mode() WITHIN GROUP (ORDER BY t.destination), SUM(t.total_cost), COUNT(*) FROM travel_logs t WHERE t.destination_id IS NOT NULL GROUP BY t.user_id, t.destination_id ON CONFLICT (user_id, destination_id) DO UPDATE SET destination = EXCLUDED.destination, total_cost = EXCLUDED.total_cost, log_count = EXCLUDED.log_count", nativeQuery = true)
+    int insertAggregates();
+
+    @Modifying
+    @Query("DELETE FROM TravelLogStat s")
+    void deleteAllStats();
+}
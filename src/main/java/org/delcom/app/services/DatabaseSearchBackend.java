@@ -0,0 +1,77 @@
+package org.delcom.app.services;
+
+import org.delcom.app.configs.FullTextSearchConfig;
+import org.delcom.app.dto.RankedId;
+import org.delcom.app.dto.TravelLogCursor;
+import org.delcom.app.dto.TravelLogSummary;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Pencarian langsung di database: full-text search PostgreSQL, atau LIKE sebagai fallback
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "database", matchIfMissing = true)
+public class DatabaseSearchBackend implements TravelLogSearchBackend {
+    private final TravelLogRepository repository;
+    private final FullTextSearchConfig fullTextSearch;
+
+    public DatabaseSearchBackend(TravelLogRepository repository, FullTextSearchConfig fullTextSearch) {
+        this.repository = repository;
+        this.fullTextSearch = fullTextSearch;
+    }
+
+    // Dengan full-text search hasil diurutkan berdasarkan relevansi (ts_rank), begitu juga searchPage
+    @Override
+    public List<TravelLog> search(UUID userId, String keyword) {
+        if (fullTextSearch.isEnabled()) return repository.fullTextSearch(userId, fullTextSearch.getTsConfig(), keyword);
+        return repository.search(userId, keyword);
+    }
+
+    @Override
+    public List<TravelLogSummary> searchPage(UUID userId, String keyword, TravelLogCursor after, int limit) {
+        if (fullTextSearch.isEnabled()) {
+            String config = fullTextSearch.getTsConfig();
+            // Cursor tanpa rank (dari urutan waktu) tidak punya posisi di urutan relevansi: mulai dari awal
+            List<RankedId> ranked = after == null || after.getRank() == null
+                    ? repository.fullTextSearchFirstPage(userId, config, keyword, limit)
+                    : repository.fullTextSearchPageAfter(userId, config, keyword, after.getRank(), after.getId(), limit);
+            Map<UUID, Float> ranks = new LinkedHashMap<>();
+            for (RankedId row : ranked) ranks.put(row.getId(), row.getRank());
+            return summariesInOrder(repository, userId, List.copyOf(ranks.keySet())).stream()
+                    .map(summary -> summary.withRank(ranks.get(summary.getId())))
+                    .toList();
+        }
+        return after == null
+                ? repository.searchFirstPage(userId, keyword, Limit.of(limit))
+                : repository.searchPageAfter(userId, keyword, after.getCreatedAt(), after.getId(), Limit.of(limit));
+    }
+
+    // Muat ringkasan untuk daftar id, dengan urutan yang sama seperti daftar id
+    static List<TravelLogSummary> summariesInOrder(TravelLogRepository repository, UUID userId, List<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<UUID, TravelLogSummary> byId = new HashMap<>();
+        for (TravelLogSummary summary : repository.findSummariesByIdIn(userId, ids)) byId.put(summary.getId(), summary);
+        List<TravelLogSummary> result = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            TravelLogSummary summary = byId.get(id);
+            if (summary != null) result.add(summary);
+        }
+        return result;
+    }
+
+    @Override
+    public long sumTotalCost(UUID userId, String keyword) {
+        return fullTextSearch.isEnabled()
+                ? repository.fullTextSumTotalCost(userId, fullTextSearch.getTsConfig(), keyword)
+                : repository.sumTotalCostByKeyword(userId, keyword);
+    }
+}
@@ -0,0 +1,115 @@
+package org.delcom.app.services;
+
+import org.delcom.app.entities.Destination;
+import org.delcom.app.repositories.DestinationRepository;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interning destinasi: teks bebas dinormalisasi menjadi canonical key (trim, spasi tunggal,
+ * huruf kecil) dan dipetakan ke satu id di tabel destinations. Baris destinations tidak pernah
+ * diubah/dihapus sehingga pemetaan key -> id aman di-cache di memori. Nama di tabel destinations
+ * tidak ditampilkan ke user; label selalu dari teks jurnal user itu sendiri.
+ */
+@Service
+public class DestinationService {
+    static final int MAX_CACHED = 100_000;
+
+    private final DestinationRepository repository;
+    private final TravelLogRepository logRepository;
+
+    private final Map<String, Long> byKey = new ConcurrentHashMap<>();
+
+    public DestinationService(DestinationRepository repository, TravelLogRepository logRepository) {
+        this.repository = repository;
+        this.logRepository = logRepository;
+    }
+
+    // id destinasi kanonik; dibuat jika belum ada. null untuk teks kosong.
+    public Long intern(String name) {
+        String key = canonicalKey(name);
+        if (key.isEmpty()) return null;
+
+        Long cached = byKey.get(key);
+        if (cached != null) return cached;
+
+        Destination existing = repository.findByCanonicalKey(key).orElse(null);
+        if (existing != null) {
+            remember(key, existing.getId());
+            return existing.getId();
+        }
+
+        // Insert di transaksi pemanggil (tanpa koneksi kedua dari pool). Jika request lain lebih dulu,
+        // ON CONFLICT DO NOTHING menunggu transaksinya selesai lalu barisnya dibaca ulang di sini.
+        boolean inserted = repository.insertIfAbsent(key, displayName(name), LocalDateTime.now()) > 0;
+        Long id = repository.findByCanonicalKey(key).map(Destination::getId)
+                .orElseThrow(() -> new IllegalStateException("Destinasi '" + key + "' tidak ditemukan setelah insert"));
+        // Baris yang baru dibuat baru boleh di-cache setelah commit; rollback membuang id-nya
+        if (inserted) rememberAfterCommit(key, id);
+        else remember(key, id);
+        return id;
+    }
+
+    // id destinasi kanonik tanpa membuat baris baru
+    public Long findId(String name) {
+        String key = canonicalKey(name);
+        if (key.isEmpty()) return null;
+
+        Long cached = byKey.get(key);
+        if (cached != null) return cached;
+
+        return repository.findByCanonicalKey(key).map(destination -> {
+            remember(key, destination.getId());
+            return destination.getId();
+        }).orElse(null);
+    }
+
+    // Migrasi baris lama: isi destination_id per teks destinasi yang berbeda; jumlah baris yang diisi
+    @Transactional
+    public int backfill() {
+        List<String> names = logRepository.findUnlinkedDestinations();
+        int linked = 0;
+        for (String name : names) {
+            Long id = intern(name);
+            if (id != null) linked += logRepository.linkDestination(name, id);
+        }
+        return linked;
+    }
+
+    private void remember(String key, Long id) {
+        if (byKey.size() >= MAX_CACHED) byKey.clear();
+        byKey.put(key, id);
+    }
+
+    private void rememberAfterCommit(String key, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(key, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(key, id);
+            }
+        });
+    }
+
+    public static String canonicalKey(String name) {
+        if (name == null) return "";
+        return displayName(name).toLowerCase(Locale.ROOT);
+    }
+
+    // Teks destinasi yang dirapikan (trim, spasi tunggal) tanpa mengubah huruf besar/kecil
+    public static String displayName(String name) {
+        return name.trim().replaceAll("\\s+", " ");
+    }
+}
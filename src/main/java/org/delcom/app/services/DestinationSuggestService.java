@@ -0,0 +1,239 @@
+package org.delcom.app.services;
+
+import org.delcom.app.dto.DestinationCount;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocomplete destinasi dari trie di memori, satu trie per user sehingga saran hanya berisi
+ * destinasi dari jurnal user itu sendiri. Bobot = jumlah jurnal dengan destinasi itu, diisi dari
+ * travel_logs milik user saat pertama dipakai lalu diperbarui setiap insert/hapus yang sudah di-commit.
+ * Perubahan dicatat di dalam transaksi (versi tulis per stripe user) dan diterapkan setelah commit;
+ * hasil seed yang dibaca bersamaan dengan perubahan yang belum selesai dipakai sekali tanpa di-cache.
+ * Setiap node menyimpan bobot terbesar di subtree-nya sehingga top-k dicari best-first
+ * tanpa menelusuri seluruh cabang. Trie user yang paling lama tidak dipakai dibuang lebih dulu
+ * (app.destinations.suggest.max-users) dan dibangun ulang saat dipakai lagi.
+ */
+@Service
+public class DestinationSuggestService {
+    public static final int DEFAULT_LIMIT = 8;
+    public static final int MAX_LIMIT = 20;
+    private static final int WRITE_STRIPES = 256;
+
+    private final TravelLogRepository repository;
+    private final int maxUsers;
+
+    // Access-order = LRU; dijaga dengan synchronized (tries)
+    private final LinkedHashMap<UUID, Trie> tries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Versi tulis per stripe user: perubahan yang dimulai (di dalam transaksi) dan yang sudah selesai
+    // (setelah commit/rollback). Seed hanya di-cache jika keduanya sama dan tidak bergeser selama query.
+    private final AtomicLongArray writesStarted = new AtomicLongArray(WRITE_STRIPES);
+    private final AtomicLongArray writesFinished = new AtomicLongArray(WRITE_STRIPES);
+
+    public DestinationSuggestService(TravelLogRepository repository,
+                                     @Value("${app.destinations.suggest.max-users:10000}") int maxUsers) {
+        this.repository = repository;
+        this.maxUsers = Math.max(1, maxUsers);
+    }
+
+    public List<String> suggest(UUID userId, String prefix, int limit) {
+        String key = normalize(prefix);
+        if (userId == null || key.isEmpty() || limit <= 0) return List.of();
+        Trie trie = seeded(userId);
+
+        trie.lock.readLock().lock();
+        try {
+            Node node = trie.root;
+            for (int i = 0; i < key.length() && node != null; i++) node = node.children.get(key.charAt(i));
+            if (node == null) return List.of();
+            return topK(node, Math.min(limit, MAX_LIMIT));
+        } finally {
+            trie.lock.readLock().unlock();
+        }
+    }
+
+    public void record(UUID userId, String destination) {
+        record(userId, destination, 1);
+    }
+
+    public void forget(UUID userId, String destination) {
+        forget(userId, destination, 1);
+    }
+
+    // Varian dengan jumlah untuk operasi massal (hapus/ganti nama banyak jurnal sekaligus).
+    // Dipanggil di dalam transaksi yang mengubah jurnal; trie diperbarui setelah commit, dan trie yang
+    // belum dibangun diabaikan karena akan membaca dari database.
+    public void record(UUID userId, String destination, long count) {
+        if (count <= 0) return;
+        adjust(userId, destination, count);
+    }
+
+    public void forget(UUID userId, String destination, long count) {
+        if (count <= 0) return;
+        adjust(userId, destination, -count);
+    }
+
+    // Jumlah trie user yang sedang di-cache (untuk monitoring/test)
+    public int cachedUsers() {
+        synchronized (tries) {
+            return tries.size();
+        }
+    }
+
+    private Trie seeded(UUID userId) {
+        Trie trie;
+        synchronized (tries) {
+            trie = tries.computeIfAbsent(userId, id -> new Trie());
+            Iterator<Trie> eldest = tries.values().iterator();
+            while (tries.size() > maxUsers && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        if (trie.seeded) return trie;
+        synchronized (trie) {
+            if (trie.seeded) return trie;
+            int stripe = stripe(userId);
+            long finished = writesFinished.get(stripe);
+            long started = writesStarted.get(stripe);
+            List<DestinationCount> counts = repository.countByDestinationForUser(userId);
+
+            trie.lock.writeLock().lock();
+            try {
+                // Tidak ada perubahan yang sedang berjalan atau selesai selama query: aman di-cache
+                if (started == finished && writesStarted.get(stripe) == started
+                        && writesFinished.get(stripe) == finished) {
+                    for (DestinationCount count : counts) adjustLocked(trie.root, count.getDestination(), count.getCount());
+                    trie.seeded = true;
+                    return trie;
+                }
+            } finally {
+                trie.lock.writeLock().unlock();
+            }
+
+            // Hasil query bisa belum atau sudah memuat perubahan itu: dipakai sekali, seed diulang nanti
+            Trie once = new Trie();
+            for (DestinationCount count : counts) adjustLocked(once.root, count.getDestination(), count.getCount());
+            once.seeded = true;
+            return once;
+        }
+    }
+
+    private void adjust(UUID userId, String destination, long delta) {
+        int stripe = stripe(userId);
+        writesStarted.incrementAndGet(stripe);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            finish(userId, stripe, destination, delta, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                finish(userId, stripe, destination, delta, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    // Versi selesai dinaikkan di bawah lock trie yang sama dengan pemasangan seed
+    private void finish(UUID userId, int stripe, String destination, long delta, boolean committed) {
+        Trie trie;
+        synchronized (tries) {
+            trie = tries.get(userId);
+        }
+        if (trie == null) {
+            writesFinished.incrementAndGet(stripe);
+            return;
+        }
+        trie.lock.writeLock().lock();
+        try {
+            if (committed && trie.seeded) adjustLocked(trie.root, destination, delta);
+            writesFinished.incrementAndGet(stripe);
+        } finally {
+            trie.lock.writeLock().unlock();
+        }
+    }
+
+    private static int stripe(UUID userId) {
+        return Math.floorMod(userId.hashCode(), WRITE_STRIPES);
+    }
+
+    private static void adjustLocked(Node root, String destination, long delta) {
+        String key = normalize(destination);
+        if (key.isEmpty()) return;
+
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node next = node.children.get(key.charAt(i));
+            if (next == null) {
+                if (delta < 0) return;
+                next = new Node();
+                node.children.put(key.charAt(i), next);
+            }
+            node = next;
+            path[i + 1] = node;
+        }
+
+        node.weight = Math.max(0, node.weight + delta);
+        if (node.weight > 0 && node.display == null) node.display = destination.trim().replaceAll("\\s+", " ");
+
+        // Perbarui maxWeight dari daun ke akar; buang node yang sudah kosong
+        for (int i = key.length(); i >= 0; i--) {
+            Node current = path[i];
+            long max = current.weight;
+            for (Node child : current.children.values()) max = Math.max(max, child.maxWeight);
+            current.maxWeight = max;
+            if (current.weight == 0) current.display = null;
+            if (i > 0 && max == 0 && current.children.isEmpty()) path[i - 1].children.remove(key.charAt(i - 1));
+        }
+    }
+
+    private static List<String> topK(Node start, int limit) {
+        // Entry dengan isResult=true adalah destinasi; selainnya subtree yang belum dibuka
+        record Entry(Node node, long priority, boolean isResult) {}
+        PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(Entry::priority).reversed());
+        queue.add(new Entry(start, start.maxWeight, false));
+
+        List<String> result = new ArrayList<>(limit);
+        while (!queue.isEmpty() && result.size() < limit) {
+            Entry entry = queue.poll();
+            if (entry.isResult()) {
+                result.add(entry.node().display);
+                continue;
+            }
+            Node node = entry.node();
+            if (node.weight > 0) queue.add(new Entry(node, node.weight, true));
+            for (Node child : node.children.values()) {
+                if (child.maxWeight > 0) queue.add(new Entry(child, child.maxWeight, false));
+            }
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        return DestinationService.canonicalKey(value);
+    }
+
+    private static final class Trie {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Node root = new Node();
+        private volatile boolean seeded;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private String display;
+        private long weight;
+        private long maxWeight;
+    }
+}
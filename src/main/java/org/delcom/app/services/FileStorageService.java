@@ -1,58 +1,213 @@
     package org.delcom.app.services;
 
-    import org.springframework.beans.factory.annotation.Value;
+    import org.delcom.app.utils.ImageVariantUtil;
+    import org.springframework.scheduling.annotation.Async;
     import org.springframework.stereotype.Service;
     import org.springframework.web.multipart.MultipartFile;
 
     import java.io.IOException;
+    import java.io.InputStream;
+    import java.io.UncheckedIOException;
     import java.nio.file.Files;
+    import java.nio.file.NoSuchFileException;
     import java.nio.file.Path;
-    import java.nio.file.Paths;
     import java.nio.file.StandardCopyOption;
-    import java.util.UUID;
+    import java.security.DigestInputStream;
+    import java.security.MessageDigest;
+    import java.security.NoSuchAlgorithmException;
+    import java.time.Duration;
+    import java.util.Collection;
+    import java.util.HexFormat;
+    import java.util.Locale;
+    import java.util.regex.Pattern;
+    import java.util.stream.Stream;
 
+    /**
+     * Upload cover: nama file = hash isi, isi disimpan lewat StorageEngine (filesystem, segment, atau S3).
+     * Kode lain membaca file lewat locate/openFile; loadFile tetap tersedia untuk kode yang butuh Path.
+     */
     @Service
     public class FileStorageService {
-        @Value("${app.upload.dir:./uploads}")
-        protected String uploadDir;
+        // Gambar placeholder bersama, tidak pernah dihapus
+        public static final String DEFAULT_IMAGE = "default.jpg";
 
-        public String storeFile(MultipartFile file, UUID todoId) throws IOException {
-            // Buat directory jika belum ada
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+        // Unggahan ulang isi yang sama dalam jangka ini dianggap masih akan dirujuk
+        static final Duration REUSE_GRACE = Duration.ofMinutes(10);
+        private static final int HASH_LENGTH = 64;
+        private static final Pattern HEX = Pattern.compile("[0-9a-f]{64}");
+
+        private final StorageEngine engine;
+        // Salinan di memori untuk /images; dibuang setiap kali nama ditulis ulang atau dihapus
+        private final ImageBufferCache bufferCache;
+
+        public FileStorageService(StorageEngine engine, ImageBufferCache bufferCache) {
+            this.engine = engine;
+            this.bufferCache = bufferCache;
+        }
+
+        // Nama file = SHA-256 isi + ekstensi; hash dihitung sambil file di-stream ke disk (tanpa baca ulang).
+        // Isi yang sama dipakai bersama oleh semua jurnal yang mengunggahnya.
+        public String storeFile(MultipartFile file) throws IOException {
+            Path tmp = tempFile("upload-");
+            try {
+                MessageDigest digest = sha256();
+                try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                    Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return store(tmp, digest.digest(), file.getOriginalFilename());
+            } finally {
+                Files.deleteIfExists(tmp);
             }
+        }
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        // Upload yang sudah lengkap ditulis di tempat lain (mis. upload bertahap); sha256 = hash isi file,
+        // dihitung pemanggil sambil menulis. File disalin lalu disimpan seperti storeFile; aslinya tetap ada
+        // sehingga pemanggil bisa mencoba lagi jika penyimpanan gagal.
+        public String storeFile(Path file, byte[] sha256, String originalFilename) throws IOException {
+            Path tmp = tempFile("upload-");
+            try {
+                Files.copy(file, tmp, StandardCopyOption.REPLACE_EXISTING);
+                return store(tmp, sha256, originalFilename);
+            } finally {
+                Files.deleteIfExists(tmp);
             }
+        }
 
-            String filename = "cover_" + todoId.toString() + fileExtension;
+        private String store(Path tmp, byte[] sha256, String originalFilename) throws IOException {
+            String filename = HexFormat.of().formatHex(sha256) + extension(originalFilename);
+            if (engine.stat(filename) != null) {
+                // Duplikat: ditandai baru dipakai agar tidak ikut terhapus oleh jurnal lain yang
+                // baru saja melepas referensi terakhirnya (lihat deleteFiles)
+                engine.touch(filename);
+            } else {
+                // Dua unggahan bersamaan dengan isi sama hanya saling menimpa dengan isi identik
+                engine.put(filename, tmp);
+                bufferCache.invalidate(filename);
+            }
+            return filename;
+        }
 
-            // Simpan file
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // File turunan (mis. varian ukuran) yang sudah ditulis lengkap di file sementara dari tempFile()
+        public void storeDerivedFile(String filename, Path tmp) throws IOException {
+            engine.put(filename, tmp);
+            bufferCache.invalidate(filename);
+        }
 
-            return filename;
+        public Path tempFile(String prefix) throws IOException {
+            return Files.createTempFile(engine.tempDir(), prefix, ".tmp");
         }
 
         public boolean deleteFile(String filename) {
             try {
-                Path filePath = Paths.get(uploadDir).resolve(filename);
-                return Files.deleteIfExists(filePath);
+                return engine.delete(filename);
             } catch (IOException e) {
                 return false;
+            } finally {
+                bufferCache.invalidate(filename);
             }
         }
 
+        // Dijalankan di thread executor (@Async) agar request hapus massal tidak menunggu I/O disk.
+        // Hanya nama file biasa (tanpa path) yang dihapus; gambar default dilewati.
+        // Varian ukuran (grid, detail) ikut dihapus bersama file aslinya.
+        // Pemanggil (TravelLogService) hanya mengirim file yang sudah tidak dirujuk jurnal mana pun; file
+        // content-addressed yang baru diunggah ulang (REUSE_GRACE) tetap disimpan karena referensi
+        // barunya mungkin belum ter-commit.
+        @Async
+        public void deleteFiles(Collection<String> filenames) {
+            for (String filename : filenames) {
+                if (!isPlainFilename(filename) || DEFAULT_IMAGE.equals(filename)) continue;
+                if (isContentAddressed(filename) && recentlyStored(filename)) continue;
+                deleteQuietly(filename);
+                for (String variant : ImageVariantUtil.NAMES) deleteQuietly(ImageVariantUtil.fileName(filename, variant));
+            }
+        }
+
+        private void deleteQuietly(String filename) {
+            try {
+                engine.delete(filename);
+            } catch (IOException e) {
+                // File yang gagal dihapus dibiarkan; tidak mempengaruhi data jurnal
+            } finally {
+                bufferCache.invalidate(filename);
+            }
+        }
+
+        // Lokasi isi file (file + offset) untuk dikirim tanpa salinan; null jika tidak ada
+        public StorageEngine.Blob locate(String filename) throws IOException {
+            return isPlainFilename(filename) ? engine.locate(filename) : null;
+        }
+
+        // Ukuran & waktu simpan terakhir menurut penyimpanan utama (tanpa mengambil isi); null jika tidak ada
+        public StorageEngine.Blob stat(String filename) throws IOException {
+            return isPlainFilename(filename) ? engine.stat(filename) : null;
+        }
+
+        // Semua file upload yang tersimpan, termasuk varian; stream harus ditutup
+        public Stream<String> listFiles() throws IOException {
+            return engine.names();
+        }
+
+        public InputStream openFile(String filename) throws IOException {
+            if (!isPlainFilename(filename)) throw new NoSuchFileException(filename);
+            return engine.open(filename);
+        }
+
         public Path loadFile(String filename) {
-            return Paths.get(uploadDir).resolve(filename);
+            try {
+                return engine.path(filename);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
 
         public boolean fileExists(String filename) {
-            return Files.exists(loadFile(filename));
+            try {
+                return locate(filename) != null;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        // Nama hasil storeFile (juga varian-nya, mis. <hash>_grid.jpg) diawali 64 hex SHA-256
+        public static boolean isContentAddressed(String filename) {
+            return filename != null && filename.length() >= HASH_LENGTH
+                    && HEX.matcher(filename.substring(0, HASH_LENGTH)).matches();
+        }
+
+        // Versi isi untuk cache turunan & validator HTTP. Nama content-addressed memakai hash di namanya:
+        // isinya tidak pernah berubah, sedangkan mtime-nya ikut diperbarui saat upload duplikat di-touch.
+        // Nama lain memakai mtime (hex).
+        public static String contentVersion(String filename, long lastModified) {
+            return isContentAddressed(filename) ? filename.substring(0, HASH_LENGTH) : Long.toHexString(lastModified);
+        }
+
+        // Hanya nama file langsung (tanpa separator atau nama tersembunyi)
+        public static boolean isPlainFilename(String filename) {
+            return filename != null && filename.matches("[A-Za-z0-9_\\-][A-Za-z0-9._\\-]*");
+        }
+
+        private boolean recentlyStored(String filename) {
+            try {
+                StorageEngine.Blob blob = engine.stat(filename);
+                return blob != null && System.currentTimeMillis() - blob.lastModified() < REUSE_GRACE.toMillis();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        // Ekstensi asli (huruf kecil) jika wajar, selain itu tanpa ekstensi
+        private static String extension(String originalFilename) {
+            if (originalFilename == null || !originalFilename.contains(".")) return "";
+            String ext = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+            return ext.matches("\\.[a-z0-9]{1,10}") ? ext : "";
+        }
+
+        public static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
         }
     }
@@ -0,0 +1,95 @@
+package org.delcom.app.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+/**
+ * Satu file per upload di app.upload.dir. Nama content-addressed disimpan di folder shard
+ * ab/cd/&lt;hash&gt;.ext, nama lama (cover_&lt;uuid&gt;.jpg, default.jpg) langsung di app.upload.dir.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "filesystem", matchIfMissing = true)
+public class FilesystemStorageEngine implements StorageEngine {
+    private final Path root;
+
+    public FilesystemStorageEngine(@Value("${app.upload.dir:./uploads}") String uploadDir) {
+        this.root = Paths.get(uploadDir);
+    }
+
+    @Override
+    public void put(String name, Path source) throws IOException {
+        Path target = path(name);
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public Blob locate(String name) throws IOException {
+        Path file = path(name);
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) return null;
+            return new Blob(file, 0, attrs.size(), attrs.lastModifiedTime().toMillis());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public InputStream open(String name) throws IOException {
+        return Files.newInputStream(path(name));
+    }
+
+    @Override
+    public boolean delete(String name) throws IOException {
+        return Files.deleteIfExists(path(name));
+    }
+
+    @Override
+    public void touch(String name) throws IOException {
+        Files.setLastModifiedTime(path(name), FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    @Override
+    public Path path(String name) {
+        return root.resolve(shard(name));
+    }
+
+    // Hanya file di tempat engine ini menaruhnya (root atau folder shard ab/cd/); folder lain di bawah
+    // root (mis. segments/) dilewati
+    @Override
+    public Stream<String> names() throws IOException {
+        if (!Files.isDirectory(root)) return Stream.empty();
+        return Files.walk(root, 3)
+                .filter(Files::isRegularFile)
+                .filter(file -> {
+                    String name = file.getFileName().toString();
+                    return !name.endsWith(".tmp") && FileStorageService.isPlainFilename(name)
+                            && root.relativize(file).equals(Paths.get(shard(name)));
+                })
+                .map(file -> file.getFileName().toString());
+    }
+
+    @Override
+    public Path tempDir() throws IOException {
+        return Files.createDirectories(root);
+    }
+
+    // ab/cd/abcd...jpg: dua tingkat folder dari awal hash agar tiap folder tetap kecil
+    static String shard(String name) {
+        if (!FileStorageService.isContentAddressed(name)) return name;
+        return name.substring(0, 2) + "/" + name.substring(2, 4) + "/" + name;
+    }
+}
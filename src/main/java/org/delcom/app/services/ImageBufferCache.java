@@ -0,0 +1,243 @@
+package org.delcom.app.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache isi gambar kecil yang sering diminta /images, disimpan di direct ByteBuffer (di luar heap,
+ * tidak ikut dipindai GC). Request yang kena cache dijawab langsung dari buffer tanpa stat/open/read
+ * file. Dibatasi total byte (app.image.memory-cache.max-size) dan ukuran per gambar; gambar baru
+ * hanya masuk jika lebih sering diminta daripada entri yang harus dibuang (frekuensi dihitung dengan
+ * count-min sketch yang meluruh), sehingga permintaan sekali lewat tidak mengusir gambar populer.
+ *
+ * FileStorageService membuang entri sebuah nama saat file itu ditulis atau dihapus. Nama selain
+ * content-addressed juga kedaluwarsa setelah REVALIDATE_AFTER (bisa diubah node lain).
+ */
+@Component
+public class ImageBufferCache {
+    static final Duration REVALIDATE_AFTER = Duration.ofMinutes(1);
+    // Gambar baru masuk cache mulai permintaan kedua
+    static final int MIN_ADMIT_FREQUENCY = 2;
+    private static final long NEVER = Long.MAX_VALUE;
+
+    // Isi gambar (read-only, posisi 0) beserta validator file asli
+    public record Entry(ByteBuffer buffer, long lastModified, String typeName, long expiresAtNanos) {}
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LongSupplier ticker;
+
+    // Access-order = LRU; sketch & total byte juga dijaga dengan synchronized (entries)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    @Autowired
+    public ImageBufferCache(@Value("${app.image.memory-cache.max-size:64MB}") DataSize maxSize,
+                            @Value("${app.image.memory-cache.max-entry-size:256KB}") DataSize maxEntrySize) {
+        this(maxSize, maxEntrySize, System::nanoTime);
+    }
+
+    ImageBufferCache(DataSize maxSize, DataSize maxEntrySize, LongSupplier ticker) {
+        this.maxBytes = maxSize.toBytes();
+        this.maxEntryBytes = Math.min(maxEntrySize.toBytes(), Integer.MAX_VALUE);
+        this.ticker = ticker;
+        // Kira-kira satu counter per 1KB anggaran; sketch tetap kecil walau cache besar
+        this.sketch = new FrequencySketch((int) Math.max(1024, Math.min(1 << 20, maxBytes / 1024)));
+    }
+
+    // Kunci cache: nama file, ditambah lebar & kualitas (sudah dinormalisasi) untuk hasil resize
+    public static String key(String filename, Integer width, Integer quality) {
+        if (width == null) return filename;
+        return filename + "?w=" + ImageResizeService.normalizeWidth(width)
+                + "&q=" + ImageResizeService.normalizeQuality(quality);
+    }
+
+    // Setiap panggilan dihitung sebagai satu permintaan untuk key (dipakai keputusan admit)
+    public Entry get(String key) {
+        synchronized (entries) {
+            sketch.increment(key);
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos() != NEVER
+                    && entry.expiresAtNanos() - ticker.getAsLong() < 0) {
+                remove(key);
+                entry = null;
+            }
+            (entry != null ? hits : misses).increment();
+            return entry;
+        }
+    }
+
+    // Membaca blob ke direct buffer jika layak masuk cache; null jika tidak (pemanggil memakai file).
+    // Keputusan admit (termasuk frekuensi entri yang harus dibuang) diambil sebelum buffer dialokasikan.
+    public Entry load(String key, StorageEngine.Blob blob, String typeName) throws IOException {
+        if (!admissible(key, blob.length())) return null;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) blob.length());
+        try (FileChannel channel = FileChannel.open(blob.file(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, blob.offset() + buffer.position()) < 0) {
+                    throw new EOFException("File memendek saat dibaca ke cache: " + blob.file());
+                }
+            }
+        }
+        buffer.flip();
+        long expiresAt = FileStorageService.isContentAddressed(baseName(key))
+                ? NEVER : ticker.getAsLong() + REVALIDATE_AFTER.toNanos();
+        Entry entry = new Entry(buffer.asReadOnlyBuffer(), blob.lastModified(), typeName, expiresAt);
+        return put(key, entry) ? entry : null;
+    }
+
+    // Semua entri file ini, termasuk hasil resize-nya
+    public void invalidate(String filename) {
+        synchronized (entries) {
+            remove(filename);
+            String prefix = filename + "?";
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    totalBytes -= entry.getValue().buffer().capacity();
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    // --- Metrik cache ---
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+    public long getRejectionCount() { return rejections.sum(); }
+
+    public long getSizeBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private boolean admissible(String key, long size) {
+        if (size <= 0 || size > maxEntryBytes || size > maxBytes) return false;
+        synchronized (entries) {
+            int candidate = sketch.frequency(key);
+            if (candidate < MIN_ADMIT_FREQUENCY) return false;
+            if (outranked(key, size, candidate)) {
+                rejections.increment();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    // Penelusuran yang sama dengan put tetapi tanpa membuang apa pun: true jika ada entri LRU yang
+    // harus dibuang agar size muat dan lebih sering diminta daripada kandidat. Dipanggil dengan
+    // synchronized (entries); iterasi tidak mengubah urutan akses.
+    private boolean outranked(String key, long size, int candidate) {
+        long needed = totalBytes + size - maxBytes;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (needed > 0 && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;
+            if (sketch.frequency(eldest.getKey()) > candidate) return true;
+            needed -= eldest.getValue().buffer().capacity();
+        }
+        return false;
+    }
+
+    // Entri LRU dibuang hanya jika kandidat lebih sering diminta; selain itu kandidat ditolak tanpa
+    // membuang apa pun (dicek lagi di sini karena isi cache bisa berubah selama blob dibaca)
+    boolean put(String key, Entry entry) {
+        long size = entry.buffer().capacity();
+        synchronized (entries) {
+            remove(key);
+            if (outranked(key, size, sketch.frequency(key))) {
+                rejections.increment();
+                return false;
+            }
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (totalBytes + size > maxBytes && it.hasNext()) {
+                totalBytes -= it.next().getValue().buffer().capacity();
+                it.remove();
+                evictions.increment();
+            }
+            entries.put(key, entry);
+            totalBytes += size;
+            return true;
+        }
+    }
+
+    private static String baseName(String key) {
+        int query = key.indexOf('?');
+        return query < 0 ? key : key.substring(0, query);
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) totalBytes -= removed.buffer().capacity();
+    }
+
+    // Count-min sketch 4 baris dengan counter maks. 15; semua counter dibagi dua setiap 10 x lebar
+    // penambahan agar gambar yang dulu populer tidak menetap selamanya
+    static final class FrequencySketch {
+        private static final int ROWS = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x97cb3127, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f};
+
+        private final byte[] counters;
+        private final int width;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int minWidth) {
+            this.width = Integer.highestOneBit(Math.max(16, minWidth - 1) << 1);
+            this.counters = new byte[ROWS * width];
+            this.sampleSize = 10 * width;
+        }
+
+        void increment(String key) {
+            int hash = key.hashCode();
+            for (int row = 0; row < ROWS; row++) {
+                int index = index(hash, row);
+                if (counters[index] < MAX_COUNT) counters[index]++;
+            }
+            if (++additions >= sampleSize) reset();
+        }
+
+        int frequency(String key) {
+            int hash = key.hashCode();
+            int min = MAX_COUNT;
+            for (int row = 0; row < ROWS; row++) min = Math.min(min, counters[index(hash, row)]);
+            return min;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+            h ^= h >>> 16;
+            return row * width + (h & (width - 1));
+        }
+
+        private void reset() {
+            for (int i = 0; i < counters.length; i++) counters[i] >>= 1;
+            additions /= 2;
+        }
+    }
+}
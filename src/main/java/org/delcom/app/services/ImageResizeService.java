@@ -0,0 +1,223 @@
+package org.delcom.app.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Resize gambar on-demand untuk /images/{filename}?w=&q=. Hasil disimpan di direktori cache yang
+ * dibatasi total ukurannya (LRU); isi direktori dibaca ulang saat start sehingga cache bertahan
+ * setelah restart. Permintaan bersamaan untuk ukuran yang sama hanya memicu satu decode.
+ */
+@Service
+public class ImageResizeService {
+    public static final int MIN_WIDTH = 32;
+    public static final int MAX_WIDTH = 2048;
+    // Lebar dibulatkan ke atas ke kelipatan ini agar jumlah ukuran yang di-cache terbatas
+    public static final int WIDTH_STEP = 32;
+
+    public static final int DEFAULT_QUALITY = 80;
+    public static final int MIN_QUALITY = 30;
+    public static final int MAX_QUALITY = 95;
+
+    // Waktu akses terakhir disimpan di mtime file, tapi paling sering sekali per interval ini
+    static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+
+    private final FileStorageService fileStorage;
+    private final ImageVariantService images;
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    // Access-order = LRU (nama file cache -> ukuran byte); dijaga dengan synchronized (entries)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ImageResizeService(FileStorageService fileStorage, ImageVariantService images,
+                              @Value("${app.image.cache.dir:./image-cache}") String cacheDir,
+                              @Value("${app.image.cache.max-size:512MB}") DataSize maxSize) throws IOException {
+        this.fileStorage = fileStorage;
+        this.images = images;
+        this.cacheDir = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.maxBytes = maxSize.toBytes();
+        load();
+    }
+
+    // Path hasil resize, atau null jika file asli tidak ada / bukan gambar (pemanggil menyajikan file asli)
+    public Path resize(String filename, int width, Integer quality) throws IOException {
+        StorageEngine.Blob source = fileStorage.locate(filename);
+        if (source == null) return null;
+
+        int w = normalizeWidth(width);
+        int q = normalizeQuality(quality);
+        String key = cacheKey(filename, w, q, FileStorageService.contentVersion(filename, source.lastModified()));
+
+        Path cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<Path> own = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(key, own);
+        if (running != null) return await(running);
+
+        misses.increment();
+        try {
+            // Cek ulang: pemanggil lain bisa saja baru selesai sebelum kita mendaftar
+            Path result = lookup(key);
+            if (result == null) result = render(filename, key, w, q);
+            own.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    static int normalizeWidth(int width) {
+        int clamped = Math.max(MIN_WIDTH, Math.min(MAX_WIDTH, width));
+        return (clamped + WIDTH_STEP - 1) / WIDTH_STEP * WIDTH_STEP;
+    }
+
+    static int normalizeQuality(Integer quality) {
+        if (quality == null) return DEFAULT_QUALITY;
+        return Math.max(MIN_QUALITY, Math.min(MAX_QUALITY, quality));
+    }
+
+    // Versi isi file asli ikut di nama: foto yang diganti dengan nama sama tidak memakai hasil lama
+    static String cacheKey(String filename, int width, int quality, String contentVersion) {
+        return filename + ".w" + width + ".q" + quality + "." + contentVersion + ".jpg";
+    }
+
+    // --- Metrik cache ---
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+
+    public long getSizeBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private Path lookup(String key) throws IOException {
+        synchronized (entries) {
+            if (entries.get(key) == null) return null;
+        }
+        Path file = cacheDir.resolve(key);
+        if (!Files.isRegularFile(file)) {
+            // Dihapus dari luar aplikasi
+            synchronized (entries) {
+                Long size = entries.remove(key);
+                if (size != null) totalBytes -= size;
+            }
+            return null;
+        }
+        FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+        if (now.toMillis() - Files.getLastModifiedTime(file).toMillis() > TOUCH_INTERVAL.toMillis()) {
+            Files.setLastModifiedTime(file, now);
+        }
+        return file;
+    }
+
+    private Path render(String filename, String key, int width, int quality) throws IOException {
+        Files.createDirectories(cacheDir);
+        Path target = cacheDir.resolve(key);
+        try {
+            if (!images.resize(filename, width, quality / 100f, target)) return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Resize dibatalkan");
+        }
+        add(key, Files.size(target));
+        return target;
+    }
+
+    private void add(String key, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (entries) {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(key)) continue; // yang baru ditulis tetap disimpan
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String name : evicted) {
+            evictions.increment();
+            try {
+                Files.deleteIfExists(cacheDir.resolve(name));
+            } catch (IOException e) {
+                // Sisa file dibersihkan saat start berikutnya jika cache penuh
+            }
+        }
+    }
+
+    // Isi cache dari disk, urut mtime (akses terlama lebih dulu dibuang); sisa file sementara dihapus
+    private void load() throws IOException {
+        if (!Files.isDirectory(cacheDir)) return;
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(cacheDir)) {
+            files = new ArrayList<>(listing.filter(Files::isRegularFile).toList());
+        }
+        files.sort(Comparator.comparingLong(ImageResizeService::modifiedMillis));
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            add(name, Files.size(file));
+        }
+    }
+
+    private static long modifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw e;
+        }
+    }
+}
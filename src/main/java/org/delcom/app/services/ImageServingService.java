@@ -0,0 +1,268 @@
+package org.delcom.app.services;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.delcom.app.utils.ImageVariantUtil;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Menyajikan /images/{filename}: Content-Type dari ekstensi, ETag + Last-Modified (304), Range satu
+ * rentang (206/416), dan Cache-Control immutable untuk URL berversi: nama content-addressed (hash isi)
+ * atau ?v= sama dengan versi file saat ini (lihat {@link #url(String)}). Isi file dikirim tanpa disalin
+ * ke heap: lewat sendfile Tomcat bila connector mendukung, selain itu FileChannel.transferTo ke output
+ * stream respons. Gambar kecil yang sering diminta dikirim dari {@link ImageBufferCache} (memori di luar
+ * heap) tanpa membuka file sama sekali.
+ */
+@Service
+public class ImageServingService {
+    // URL berversi tidak pernah berubah isinya; versi baru = URL baru. Private karena /images/** butuh login,
+    // jadi proxy/CDN bersama tidak boleh menyimpan gambar milik user
+    static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+    // Tanpa versi: boleh disimpan browser tapi selalu divalidasi ulang (biasanya dijawab 304)
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Atribut request sendfile Tomcat (lihat DefaultServlet); file kecil lebih murah ditulis langsung
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private final FileStorageService fileStorage;
+    private final ImageResizeService imageResize;
+    private final ImageBufferCache bufferCache;
+
+    public ImageServingService(FileStorageService fileStorage, ImageResizeService imageResize,
+                               ImageBufferCache bufferCache) {
+        this.fileStorage = fileStorage;
+        this.imageResize = imageResize;
+        this.bufferCache = bufferCache;
+    }
+
+    // Dipakai template: @{${@imageServingService.url(log.imagePath)}}
+    public String url(String filename) {
+        return url(filename, null);
+    }
+
+    public String url(String filename, Integer width) {
+        StringBuilder url = new StringBuilder("/images/").append(filename);
+        String version = version(filename);
+        char separator = '?';
+        if (version != null) {
+            url.append(separator).append("v=").append(version);
+            separator = '&';
+        }
+        if (width != null) url.append(separator).append("w=").append(width);
+        return url.toString();
+    }
+
+    // Versi = mtime file asli (base 36); null jika file tidak ada atau nama sudah berisi hash isi
+    String version(String filename) {
+        if (!FileStorageService.isPlainFilename(filename) || FileStorageService.isContentAddressed(filename)) return null;
+        try {
+            StorageEngine.Blob blob = fileStorage.locate(filename);
+            return blob == null ? null : Long.toString(blob.lastModified(), 36);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void serve(String filename, Integer width, Integer quality, String version,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!FileStorageService.isPlainFilename(filename)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Gambar populer: dijawab dari memori tanpa menyentuh penyimpanan
+        String key = ImageBufferCache.key(filename, width, quality);
+        ImageBufferCache.Entry cached = bufferCache.get(key);
+        if (cached != null) {
+            ByteBuffer buffer = cached.buffer();
+            respond(versioned(filename, version, cached.lastModified()), filename, cached.lastModified(), buffer.capacity(),
+                    cached.typeName(), request, response,
+                    (start, length) -> write(buffer, start, length, response));
+            return;
+        }
+
+        StorageEngine.Blob source = fileStorage.locate(filename);
+        if (source == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        StorageEngine.Blob resolved = source;
+        // Tipe dari ekstensi nama file (hasil resize selalu .jpg), bukan dari negosiasi Accept
+        String resolvedName = filename;
+        boolean fallback = false;
+        if (width != null) {
+            try {
+                Path resized = imageResize.resize(filename, width, quality);
+                if (resized != null) {
+                    resolved = new StorageEngine.Blob(resized, 0, Files.size(resized), source.lastModified());
+                    resolvedName = resized.getFileName().toString();
+                }
+            } catch (ImageVariantService.BusyException e) {
+                // Semua slot decode sedang dipakai: varian grid jika cukup besar, selain itu file asli
+                fallback = true;
+                String grid = ImageVariantUtil.fileName(filename, ImageVariantUtil.GRID);
+                StorageEngine.Blob gridBlob = width <= ImageVariantUtil.maxSize(ImageVariantUtil.GRID)
+                        ? fileStorage.locate(grid) : null;
+                if (gridBlob != null) {
+                    resolved = gridBlob;
+                    resolvedName = grid;
+                }
+            }
+        }
+        StorageEngine.Blob blob = resolved;
+        String typeName = resolvedName;
+        // Pengganti sementara: tidak di-cache di memori maupun sebagai immutable di browser
+        boolean versioned = !fallback && versioned(filename, version, source.lastModified());
+
+        // Hasil resize tergantung versi isi file asli (ikut di nama cache), jadi validator diambil dari file asli
+        ImageBufferCache.Entry loaded = fallback ? null : bufferCache.load(key, blob, typeName);
+        if (loaded != null) {
+            ByteBuffer buffer = loaded.buffer();
+            respond(versioned, filename, source.lastModified(), buffer.capacity(), typeName, request, response,
+                    (start, length) -> write(buffer, start, length, response));
+            return;
+        }
+        respond(versioned, filename, source.lastModified(), blob.length(), typeName, request, response,
+                (start, length) -> transfer(blob.file(), blob.offset() + start, length, request, response));
+    }
+
+    // URL berversi: nama content-addressed atau ?v= sama dengan versi file saat ini
+    private static boolean versioned(String filename, String version, long lastModified) {
+        return FileStorageService.isContentAddressed(filename)
+                || (version != null && version.equals(Long.toString(lastModified, 36)));
+    }
+
+    // Menulis body mulai dari start (relatif terhadap isi gambar) sepanjang length
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(long start, long length) throws IOException;
+    }
+
+    // Header validator & cache, 304, Range (206/416), lalu body lewat writer. ETag dari versi isi file asli;
+    // nama content-addressed tanpa Last-Modified karena mtime-nya berubah saat upload duplikat di-touch.
+    private static void respond(boolean versioned, String filename, long lastModified, long size, String typeName,
+                                HttpServletRequest request, HttpServletResponse response,
+                                BodyWriter body) throws IOException {
+        String etag = "\"" + FileStorageService.contentVersion(filename, lastModified) + "-" + Long.toHexString(size) + "\"";
+        if (FileStorageService.isContentAddressed(filename)) lastModified = -1;
+
+        MediaType type = MediaTypeFactory.getMediaType(typeName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (versioned ? IMMUTABLE : REVALIDATE).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) return;
+        response.setContentType(type.toString());
+
+        long start = 0;
+        long length = size;
+        HttpRange range = range(request, etag, lastModified);
+        if (range != null) {
+            if (size == 0 || !satisfiable(range, size)) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = range.getRangeStart(size);
+            length = range.getRangeEnd(size) - start + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + length - 1) + "/" + size);
+        }
+        response.setContentLengthLong(length);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) return;
+        body.write(start, length);
+    }
+
+    // Satu rentang dari header Range, atau null jika tidak ada / tidak berlaku. Banyak rentang sekaligus
+    // dijawab dengan file utuh (diizinkan RFC 9110) agar tidak perlu multipart/byteranges.
+    static HttpRange range(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !ifRangeMatches(request, etag, lastModified)) return null;
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
+
+    // If-Range: rentang hanya dipakai jika salinan di klien masih sama dengan file sekarang
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(etag);
+        if (lastModified < 0) return false;
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean satisfiable(HttpRange range, long size) {
+        try {
+            return range.getRangeStart(size) < size && range.getRangeEnd(size) >= range.getRangeStart(size);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Isi dari cache memori; Tomcat menyalin langsung dari buffer (tanpa byte[] perantara di heap)
+    private static void write(ByteBuffer buffer, long start, long length, HttpServletResponse response) throws IOException {
+        // Salinan view per request: posisi/limit buffer bersama tidak diubah
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) start).limit((int) (start + length));
+        OutputStream out = response.getOutputStream();
+        if (out instanceof CoyoteOutputStream coyote) {
+            coyote.write(view);
+            return;
+        }
+        WritableByteChannel channel = Channels.newChannel(out);
+        while (view.hasRemaining()) channel.write(view);
+    }
+
+    // start = posisi di file (blob di dalam segment dimulai dari offset-nya)
+    private static void transfer(Path file, long start, long length,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (length >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat mengirim file dengan sendfile() setelah handler selesai; thread request langsung bebas
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) break; // file memendek setelah di-stat
+                position += sent;
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.delcom.app.services;
+
+import org.delcom.app.repositories.TravelLogRepository;
+import org.delcom.app.utils.ImageVariantUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membuat varian ukuran foto cover (detail, grid) di background setelah upload. Gambar di-decode
+ * dengan subsampling sehingga jumlah piksel di memori dibatasi max-decode-pixels, dan jumlah decode
+ * yang berjalan bersamaan dibatasi max-concurrent (juga dipakai resize on-demand di ImageResizeService;
+ * thread request hanya menunggu slot selama acquire-timeout).
+ * Varian yang selesai dicatat di travel_logs.image_variants agar view memakai file kecil; file asli
+ * tetap disimpan.
+ */
+@Service
+public class ImageVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    static final float JPEG_QUALITY = 0.82f;
+
+    // Semua slot decode terpakai lebih lama dari acquire-timeout; pemanggil menyajikan gambar lain
+    public static class BusyException extends IOException {
+        public BusyException(String message) {
+            super(message);
+        }
+    }
+
+    private final FileStorageService fileStorage;
+    private final TravelLogRepository repository;
+    private final TravelLogCache cache;
+    private final long maxDecodePixels;
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public ImageVariantService(FileStorageService fileStorage, TravelLogRepository repository, TravelLogCache cache,
+                               @Value("${app.image.variants.max-decode-pixels:8000000}") long maxDecodePixels,
+                               @Value("${app.image.variants.max-concurrent:2}") int maxConcurrent,
+                               @Value("${app.image.variants.acquire-timeout:500ms}") Duration acquireTimeout) {
+        this.fileStorage = fileStorage;
+        this.repository = repository;
+        this.cache = cache;
+        this.maxDecodePixels = maxDecodePixels;
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    // Dipanggil setelah jurnal tersimpan; gagal decode hanya dicatat di log dan view tetap memakai file asli
+    @Async
+    public void generate(UUID userId, UUID logId, String imagePath) {
+        if (imagePath == null || FileStorageService.DEFAULT_IMAGE.equals(imagePath)) return;
+        try {
+            permits.acquire();
+            try {
+                List<String> variants = writeVariants(imagePath);
+                if (variants.isEmpty()) return;
+                int updated = repository.updateImageVariants(logId, imagePath, String.join(",", variants), LocalDateTime.now());
+                if (updated > 0) cache.invalidate(userId);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Gagal membuat varian gambar {}: {}", imagePath, e.getMessage());
+        }
+    }
+
+    // Satu ukuran dengan lebar maksimal maxWidth (tinggi mengikuti rasio); false jika source bukan gambar.
+    // Ikut antre di semaphore yang sama dengan pembuatan varian, tetapi paling lama acquireTimeout
+    // (dipanggil dari thread request); BusyException jika slot tidak didapat.
+    public boolean resize(String filename, int maxWidth, float quality, Path target) throws IOException, InterruptedException {
+        if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new BusyException("Antrean resize penuh");
+        }
+        try {
+            BufferedImage image = decode(filename, maxWidth, Integer.MAX_VALUE);
+            if (image == null) return false;
+            writeJpeg(scale(image, maxWidth, Integer.MAX_VALUE), target, quality);
+            return true;
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Menulis semua varian; list kosong jika file bukan gambar yang bisa dibaca ImageIO
+    List<String> writeVariants(String imagePath) throws IOException {
+        int largest = ImageVariantUtil.maxSize(ImageVariantUtil.NAMES.get(0));
+        BufferedImage image = decode(imagePath, largest, largest);
+        if (image == null) return List.of();
+
+        List<String> written = new ArrayList<>();
+        for (String variant : ImageVariantUtil.NAMES) {
+            int size = ImageVariantUtil.maxSize(variant);
+            image = scale(image, size, size);
+            Path tmp = fileStorage.tempFile("variant-");
+            try {
+                writeJpeg(image, tmp, JPEG_QUALITY);
+                fileStorage.storeDerivedFile(ImageVariantUtil.fileName(imagePath, variant), tmp);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            written.add(variant);
+        }
+        return written;
+    }
+
+    // File utuh dibaca langsung dari disk (random access); blob di dalam segment lewat stream-nya
+    private BufferedImage decode(String filename, int boxWidth, int boxHeight) throws IOException {
+        StorageEngine.Blob blob = fileStorage.locate(filename);
+        if (blob == null) return null;
+        if (blob.wholeFile()) {
+            try (ImageInputStream in = ImageIO.createImageInputStream(blob.file().toFile())) {
+                return decode(in, boxWidth, boxHeight, maxDecodePixels);
+            }
+        }
+        try (InputStream stream = fileStorage.openFile(filename);
+             ImageInputStream in = new MemoryCacheImageInputStream(stream)) {
+            return decode(in, boxWidth, boxHeight, maxDecodePixels);
+        }
+    }
+
+    static BufferedImage decode(ImageInputStream in, int boxWidth, int boxHeight, long maxPixels) throws IOException {
+        if (in == null) return null;
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) return null;
+
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(in, true, true);
+            int step = subsampling(reader.getWidth(0), reader.getHeight(0), boxWidth, boxHeight, maxPixels);
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(step, step, 0, 0);
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    // Subsampling sebesar mungkin selama hasil decode masih >= 2x ukuran akhir di kotak boxWidth x boxHeight
+    // (sisa resolusi untuk scale yang halus), lalu dinaikkan sampai piksel hasil decode <= maxPixels
+    static int subsampling(int width, int height, int boxWidth, int boxHeight, long maxPixels) {
+        double shrink = Math.max((double) width / boxWidth, (double) height / boxHeight);
+        int step = Math.max(1, (int) (shrink / 2));
+        while ((long) ceilDiv(width, step) * ceilDiv(height, step) > maxPixels) step++;
+        return step;
+    }
+
+    // Diperkecil bertahap (maks. setengah per langkah) agar hasil bilinear tidak pecah sampai muat di
+    // kotak boxWidth x boxHeight; tidak pernah memperbesar. Hasil selalu RGB tanpa alpha (JPEG),
+    // area transparan menjadi putih.
+    static BufferedImage scale(BufferedImage image, int boxWidth, int boxHeight) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double ratio = Math.min(1.0, Math.min((double) boxWidth / width, (double) boxHeight / height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Ditulis ke file sementara lalu dipindah, agar /images tidak pernah menyajikan file setengah jadi
+    static void writeJpeg(BufferedImage image, Path target, float quality) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
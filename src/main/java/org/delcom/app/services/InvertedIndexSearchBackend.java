@@ -0,0 +1,286 @@
+package org.delcom.app.services;
+
+import org.delcom.app.dto.TravelLogCursor;
+import org.delcom.app.dto.TravelLogSummary;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Pencarian di memori: inverted index (term -> daftar docId) per user, dibangun saat
+ * user pertama kali mencari lalu diperbarui bertahap saat save/delete. Setiap term query
+ * dicocokkan sebagai prefix dan semua term harus cocok (AND). Total posting dibatasi
+ * app.search.index.max-postings; index user yang paling lama tidak dipakai dibuang duluan.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "memory")
+public class InvertedIndexSearchBackend implements TravelLogSearchBackend {
+    private static final int WRITE_STRIPES = 256;
+    private static final int FETCH_CHUNK = 500;
+    private static final Comparator<Doc> NEWEST_FIRST =
+            Comparator.comparing(Doc::createdAt).thenComparing(Doc::id).reversed();
+
+    private final TravelLogRepository repository;
+    private final long maxPostings;
+
+    // Access-order = LRU; dijaga dengan synchronized (shards)
+    private final LinkedHashMap<UUID, UserIndex> shards = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong totalPostings = new AtomicLong();
+
+    // Versi tulis per stripe user: index yang dibangun bersamaan dengan save/delete tidak di-cache
+    private final AtomicLongArray writeVersions = new AtomicLongArray(WRITE_STRIPES);
+
+    public InvertedIndexSearchBackend(TravelLogRepository repository,
+                                      @Value("${app.search.index.max-postings:2000000}") long maxPostings) {
+        this.repository = repository;
+        this.maxPostings = maxPostings;
+    }
+
+    @Override
+    public List<TravelLog> search(UUID userId, String keyword) {
+        return load(userId, shard(userId).match(tokenize(keyword), null, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public List<TravelLogSummary> searchPage(UUID userId, String keyword, TravelLogCursor after, int limit) {
+        Doc cursor = after == null ? null : new Doc(after.getId(), after.getCreatedAt(), 0);
+        List<Doc> docs = shard(userId).match(tokenize(keyword), cursor, limit);
+        return DatabaseSearchBackend.summariesInOrder(repository, userId, docs.stream().map(Doc::id).toList());
+    }
+
+    @Override
+    public long sumTotalCost(UUID userId, String keyword) {
+        long total = 0;
+        for (Doc doc : shard(userId).match(tokenize(keyword), null, Integer.MAX_VALUE)) total += doc.cost();
+        return total;
+    }
+
+    @Override
+    public void onSaved(TravelLog log) {
+        UUID userId = log.getUserId();
+        Doc doc = Doc.of(log);
+        List<String> terms = terms(log);
+        afterCommit(() -> {
+            writeVersions.incrementAndGet(stripe(userId));
+            UserIndex shard = cachedShard(userId);
+            if (shard != null) {
+                totalPostings.addAndGet(shard.add(doc, terms));
+                evictIfNeeded();
+            }
+        });
+    }
+
+    @Override
+    public void onDeleted(TravelLog log) {
+        UUID userId = log.getUserId();
+        UUID id = log.getId();
+        afterCommit(() -> {
+            writeVersions.incrementAndGet(stripe(userId));
+            UserIndex shard = cachedShard(userId);
+            if (shard != null) shard.remove(id);
+        });
+    }
+
+    // Perubahan massal: index user dibuang dan dibangun ulang saat pencarian berikutnya. Dibuang lagi
+    // setelah commit karena pencarian sebelum commit masih membangun index dari data lama.
+    @Override
+    public void onBulkChange(UUID userId) {
+        drop(userId);
+        afterCommit(() -> drop(userId));
+    }
+
+    private void drop(UUID userId) {
+        writeVersions.incrementAndGet(stripe(userId));
+        synchronized (shards) {
+            UserIndex removed = shards.remove(userId);
+            if (removed != null) totalPostings.addAndGet(-removed.postingCount());
+        }
+    }
+
+    // Jumlah index user yang sedang di-cache (untuk monitoring/test)
+    public int cachedUsers() {
+        synchronized (shards) {
+            return shards.size();
+        }
+    }
+
+    private UserIndex cachedShard(UUID userId) {
+        synchronized (shards) {
+            return shards.get(userId);
+        }
+    }
+
+    private UserIndex shard(UUID userId) {
+        UserIndex cached = cachedShard(userId);
+        if (cached != null && !cached.needsCompaction()) return cached;
+
+        long version = writeVersions.get(stripe(userId));
+        UserIndex built = new UserIndex();
+        long postings = 0;
+        for (TravelLog log : repository.findByUserIdOrderByCreatedAtDesc(userId)) {
+            postings += built.add(Doc.of(log), terms(log));
+        }
+
+        if (writeVersions.get(stripe(userId)) == version) {
+            synchronized (shards) {
+                UserIndex previous = shards.put(userId, built);
+                if (previous != null) totalPostings.addAndGet(-previous.postingCount());
+                totalPostings.addAndGet(postings);
+            }
+            evictIfNeeded();
+        }
+        return built;
+    }
+
+    private void evictIfNeeded() {
+        synchronized (shards) {
+            Iterator<UserIndex> eldest = shards.values().iterator();
+            while (totalPostings.get() > maxPostings && shards.size() > 1 && eldest.hasNext()) {
+                totalPostings.addAndGet(-eldest.next().postingCount());
+                eldest.remove();
+            }
+        }
+    }
+
+    // Ambil baris jurnal untuk id hasil pencarian, dengan urutan yang sama
+    private List<TravelLog> load(UUID userId, List<Doc> docs) {
+        if (docs.isEmpty()) return List.of();
+        Map<UUID, TravelLog> byId = new HashMap<>();
+        for (int from = 0; from < docs.size(); from += FETCH_CHUNK) {
+            List<UUID> chunk = docs.subList(from, Math.min(from + FETCH_CHUNK, docs.size()))
+                    .stream().map(Doc::id).toList();
+            for (TravelLog log : repository.findByUserIdAndIdIn(userId, chunk)) byId.put(log.getId(), log);
+        }
+        List<TravelLog> result = new ArrayList<>(docs.size());
+        for (Doc doc : docs) {
+            TravelLog log = byId.get(doc.id());
+            if (log != null) result.add(log);
+        }
+        return result;
+    }
+
+    private static int stripe(UUID userId) {
+        return Math.floorMod(userId.hashCode(), WRITE_STRIPES);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static List<String> terms(TravelLog log) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.addAll(tokenize(log.getTitle()));
+        terms.addAll(tokenize(log.getDestination()));
+        terms.addAll(tokenize(log.getDescription()));
+        return new ArrayList<>(terms);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    record Doc(UUID id, LocalDateTime createdAt, long cost) {
+        static Doc of(TravelLog log) {
+            LocalDateTime createdAt = log.getCreatedAt() != null ? log.getCreatedAt() : LocalDateTime.MIN;
+            return new Doc(log.getId(), createdAt, log.getTotalCost());
+        }
+    }
+
+    // Index satu user. docId = posisi di list docs, sehingga posting list selalu terurut naik.
+    static final class UserIndex {
+        private final TreeMap<String, IntList> postings = new TreeMap<>();
+        private final List<Doc> docs = new ArrayList<>();
+        private final Map<UUID, Integer> docIdByLog = new HashMap<>();
+        private int deletedDocs;
+        private long postingCount;
+
+        // Edit = hapus dokumen lama (tombstone) lalu tambah dokumen baru
+        synchronized long add(Doc doc, List<String> terms) {
+            remove(doc.id());
+            int docId = docs.size();
+            docs.add(doc);
+            docIdByLog.put(doc.id(), docId);
+            for (String term : terms) postings.computeIfAbsent(term, k -> new IntList()).add(docId);
+            postingCount += terms.size();
+            return terms.size();
+        }
+
+        synchronized void remove(UUID id) {
+            Integer docId = docIdByLog.remove(id);
+            if (docId != null) {
+                docs.set(docId, null);
+                deletedDocs++;
+            }
+        }
+
+        // Terlalu banyak tombstone: bangun ulang dari database saat pencarian berikutnya
+        synchronized boolean needsCompaction() {
+            return deletedDocs > 64 && deletedDocs > docIdByLog.size();
+        }
+
+        synchronized long postingCount() {
+            return postingCount;
+        }
+
+        synchronized List<Doc> match(List<String> queryTerms, Doc after, int limit) {
+            if (queryTerms.isEmpty()) return List.of();
+
+            BitSet result = null;
+            for (String term : queryTerms) {
+                BitSet hits = new BitSet(docs.size());
+                for (IntList list : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                    list.setBits(hits);
+                }
+                if (result == null) result = hits;
+                else result.and(hits);
+                if (result.isEmpty()) return List.of();
+            }
+
+            List<Doc> matches = new ArrayList<>(result.cardinality());
+            for (int docId = result.nextSetBit(0); docId >= 0; docId = result.nextSetBit(docId + 1)) {
+                Doc doc = docs.get(docId);
+                if (doc != null && (after == null || NEWEST_FIRST.compare(doc, after) > 0)) matches.add(doc);
+            }
+            matches.sort(NEWEST_FIRST);
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        }
+    }
+
+    // Posting list ringkas tanpa boxing Integer
+    static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void setBits(BitSet bits) {
+            for (int i = 0; i < size; i++) bits.set(values[i]);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package org.delcom.app.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Upload foto bertahap yang bisa dilanjutkan (gaya protokol tus): klien membuat sesi dengan ukuran
+ * total, lalu mengirim potongan berurutan; setiap potongan di-stream langsung dari body request ke file
+ * &lt;id&gt;.part lewat FileChannel (tanpa buffer seluruh request). Koneksi yang putus cukup menanyakan
+ * offset lalu melanjutkan dari sana. Setelah byte terakhir diterima file dipindahkan ke
+ * FileStorageService (nama content-addressed, hash dihitung sambil menulis).
+ *
+ * Sesi disimpan di app.upload.resumable.dir (&lt;id&gt;.info + &lt;id&gt;.part) sehingga bertahan setelah
+ * restart; sesi yang tidak disentuh selama app.upload.resumable.expiration dihapus. Jumlah sesi terbuka
+ * per user (max-sessions-per-user) dan total ukuran yang dipesan semua sesi (max-total-size) dibatasi
+ * agar disk tidak bisa dipenuhi sesi yang tidak pernah diselesaikan.
+ */
+@Service
+public class ResumableUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final int CHUNK_BUFFER_BYTES = 64 * 1024;
+    private static final String PART = ".part";
+    private static final String INFO = ".info";
+
+    public record Upload(String id, UUID userId, UUID logId, String filename, long length, long offset,
+                         String storedAs) {
+        public boolean complete() {
+            return storedAs != null;
+        }
+    }
+
+    // Offset potongan tidak sama dengan offset di server, atau sesi sedang menerima potongan lain
+    public static class ConflictException extends IllegalStateException {
+        public ConflictException(String message) {
+            super(message);
+        }
+    }
+
+    // User sudah punya max-sessions-per-user sesi yang belum selesai
+    public static class TooManySessionsException extends IllegalStateException {
+        public TooManySessionsException(String message) {
+            super(message);
+        }
+    }
+
+    // Ukuran yang dipesan semua sesi terbuka akan melewati max-total-size
+    public static class CapacityExceededException extends IllegalStateException {
+        public CapacityExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private final FileStorageService fileStorage;
+    private final Path dir;
+    private final long maxBytes;
+    private final Duration expiration;
+    private final int maxSessionsPerUser;
+    private final long maxTotalBytes;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Pengecekan batas & pendaftaran sesi baru dilakukan bersama agar dua create tidak lolos bersamaan
+    private final Object createLock = new Object();
+
+    public ResumableUploadService(FileStorageService fileStorage,
+                                  @Value("${app.upload.resumable.dir:./upload-sessions}") String dir,
+                                  @Value("${app.upload.resumable.max-size:50MB}") DataSize maxSize,
+                                  @Value("${app.upload.resumable.expiration:24h}") Duration expiration,
+                                  @Value("${app.upload.resumable.max-sessions-per-user:5}") int maxSessionsPerUser,
+                                  @Value("${app.upload.resumable.max-total-size:2GB}") DataSize maxTotalSize)
+            throws IOException {
+        this.fileStorage = fileStorage;
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        this.maxBytes = maxSize.toBytes();
+        this.expiration = expiration;
+        this.maxSessionsPerUser = Math.max(1, maxSessionsPerUser);
+        this.maxTotalBytes = maxTotalSize.toBytes();
+        loadAll();
+    }
+
+    public long getMaxSize() {
+        return maxBytes;
+    }
+
+    public Upload create(UUID userId, UUID logId, String filename, long length) throws IOException {
+        if (length <= 0) throw new IllegalArgumentException("Ukuran upload tidak valid");
+        if (length > maxBytes) throw new IllegalArgumentException("Ukuran upload melebihi batas " + maxBytes + " byte");
+
+        Session session = new Session(UUID.randomUUID().toString().replace("-", ""), userId, logId, filename, length);
+        reserve(session);
+        try {
+            Files.createDirectories(dir);
+            Files.createFile(part(session.id));
+            Properties info = new Properties();
+            info.setProperty("user", userId.toString());
+            info.setProperty("log", logId.toString());
+            info.setProperty("length", Long.toString(length));
+            if (filename != null) info.setProperty("filename", filename);
+            try (OutputStream out = Files.newOutputStream(dir.resolve(session.id + INFO))) {
+                info.store(out, null);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                remove(session.id);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        return session.snapshot(0, null);
+    }
+
+    // Sesi didaftarkan (memesan ukurannya) hanya jika kedua batas masih terpenuhi
+    private void reserve(Session session) {
+        synchronized (createLock) {
+            int open = 0;
+            long reserved = 0;
+            for (Session other : sessions.values()) {
+                if (other.userId.equals(session.userId)) open++;
+                reserved += other.length;
+            }
+            if (open >= maxSessionsPerUser) {
+                throw new TooManySessionsException("Maksimal " + maxSessionsPerUser + " upload yang belum selesai");
+            }
+            if (reserved + session.length > maxTotalBytes) {
+                throw new CapacityExceededException("Kapasitas upload server sedang penuh");
+            }
+            sessions.put(session.id, session);
+        }
+    }
+
+    // null jika sesi tidak ada, sudah kedaluwarsa, atau milik user lain
+    public Upload get(UUID userId, String id) throws IOException {
+        Session session = session(userId, id);
+        return session == null ? null : session.snapshot(Files.size(part(id)), null);
+    }
+
+    // Menambahkan body request di offset; mengembalikan status terbaru (complete() jika byte terakhir sudah
+    // diterima dan file sudah masuk penyimpanan). Byte yang sempat ditulis sebelum koneksi putus tetap
+    // disimpan, jadi klien melanjutkan dari offset yang dilaporkan get().
+    public Upload append(UUID userId, String id, long offset, InputStream body) throws IOException {
+        Session session = session(userId, id);
+        if (session == null) return null;
+        if (!session.lock.tryLock()) throw new ConflictException("Upload sedang menerima potongan lain");
+        try {
+            // Selesai, dihapus, atau kedaluwarsa selagi menunggu lock
+            if (sessions.get(id) != session) return null;
+            Path part = part(id);
+            long current = Files.size(part);
+            if (offset != current) throw new ConflictException("Offset tidak cocok, server di " + current);
+
+            long written = write(session, part, current, body);
+            long end = current + written;
+            if (end < session.length) return session.snapshot(end, null);
+            return finish(session, part);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    public boolean delete(UUID userId, String id) throws IOException {
+        Session session = session(userId, id);
+        if (session == null) return false;
+        if (!session.lock.tryLock()) throw new ConflictException("Upload sedang menerima potongan lain");
+        try {
+            if (sessions.get(id) != session) return false;
+            remove(id);
+            return true;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    // Sesi yang tidak menerima potongan selama masa berlakunya dihapus bersama isinya
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void expire() {
+        if (!Files.isDirectory(dir)) return;
+        long cutoff = System.currentTimeMillis() - expiration.toMillis();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(INFO))
+                    .map(name -> name.substring(0, name.length() - INFO.length()))
+                    .forEach(id -> expire(id, cutoff));
+        } catch (IOException e) {
+            logger.warn("Pembersihan sesi upload gagal: {}", e.getMessage());
+        }
+    }
+
+    private void expire(String id, long cutoff) {
+        Session session = sessions.get(id);
+        if (session != null && !session.lock.tryLock()) return;
+        try {
+            if (lastActivity(id) < cutoff) remove(id);
+        } catch (IOException e) {
+            // Dicoba lagi pada pembersihan berikutnya
+        } finally {
+            if (session != null) session.lock.unlock();
+        }
+    }
+
+    // Body di-stream ke akhir file part; hash isi diperbarui dari buffer yang sama setelah tertulis
+    private long write(Session session, Path part, long offset, InputStream body) throws IOException {
+        MessageDigest digest = session.digest(part, offset);
+        long remaining = session.length - offset;
+        long written = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_BUFFER_BYTES);
+        ReadableByteChannel in = Channels.newChannel(body);
+        try (FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (true) {
+                // Satu byte lebih dari sisa ukuran agar body yang kelebihan ketahuan
+                buffer.clear();
+                if (buffer.capacity() > remaining - written) buffer.limit((int) (remaining - written + 1));
+                int read = in.read(buffer);
+                if (read < 0) break;
+                if (written + read > remaining) throw new IllegalArgumentException("Potongan melebihi ukuran upload");
+                buffer.flip();
+                ByteBuffer view = buffer.duplicate();
+                while (buffer.hasRemaining()) out.write(buffer);
+                digest.update(view);
+                written += read;
+            }
+        } finally {
+            // Koneksi putus di tengah potongan: byte yang sudah ditulis tetap dipakai. Jika file ternyata
+            // lebih panjang dari yang ter-hash, digest(...) menghitung ulang pada potongan berikutnya.
+            session.digested = offset + written;
+        }
+        return written;
+    }
+
+    // Sesi baru dihapus setelah file tersimpan; jika gagal, part tetap utuh dan PATCH terakhir bisa diulang
+    private Upload finish(Session session, Path part) throws IOException {
+        byte[] sha256 = session.digest(part, session.length).digest();
+        // digest() mereset hash; percobaan ulang menghitungnya lagi dari file part
+        session.digest = null;
+        String stored = fileStorage.storeFile(part, sha256, session.filename);
+        remove(session.id);
+        logger.info("Upload bertahap {} selesai: {} byte disimpan sebagai {}", session.id, session.length, stored);
+        return session.snapshot(session.length, stored);
+    }
+
+    private Session session(UUID userId, String id) throws IOException {
+        if (id == null || !id.matches("[0-9a-f]{32}")) return null;
+        Session session = sessions.get(id);
+        if (session == null) {
+            session = load(id);
+            if (session == null) return null;
+            Session existing = sessions.putIfAbsent(id, session);
+            if (existing != null) session = existing;
+        }
+        return session.userId.equals(userId) ? session : null;
+    }
+
+    // Semua sesi yang masih ada di disk ikut dihitung dalam batas sejak start
+    private void loadAll() throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        List<String> ids;
+        try (Stream<Path> files = Files.list(dir)) {
+            ids = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(INFO))
+                    .map(name -> name.substring(0, name.length() - INFO.length()))
+                    .toList();
+        }
+        for (String id : ids) {
+            Session session = load(id);
+            if (session != null) sessions.put(id, session);
+        }
+    }
+
+    // Sesi dari sebelum restart: hash isi dihitung ulang dari file part saat potongan berikutnya datang
+    private Session load(String id) throws IOException {
+        Path infoFile = dir.resolve(id + INFO);
+        if (!Files.isRegularFile(infoFile) || !Files.isRegularFile(part(id))) return null;
+        Properties info = new Properties();
+        try (Reader in = Files.newBufferedReader(infoFile, StandardCharsets.ISO_8859_1)) {
+            info.load(in);
+        }
+        try {
+            return new Session(id, UUID.fromString(info.getProperty("user")), UUID.fromString(info.getProperty("log")),
+                    info.getProperty("filename"), Long.parseLong(info.getProperty("length")));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void remove(String id) throws IOException {
+        sessions.remove(id);
+        Files.deleteIfExists(part(id));
+        Files.deleteIfExists(dir.resolve(id + INFO));
+    }
+
+    private long lastActivity(String id) throws IOException {
+        long info = Files.getLastModifiedTime(dir.resolve(id + INFO)).toMillis();
+        try {
+            return Math.max(info, Files.getLastModifiedTime(part(id)).toMillis());
+        } catch (NoSuchFileException e) {
+            return info;
+        }
+    }
+
+    private Path part(String id) {
+        return dir.resolve(id + PART);
+    }
+
+    private static final class Session {
+        final String id;
+        final UUID userId;
+        final UUID logId;
+        final String filename;
+        final long length;
+        final ReentrantLock lock = new ReentrantLock();
+
+        // SHA-256 dari byte [0, digested) file part; hanya diakses saat memegang lock
+        MessageDigest digest;
+        long digested;
+
+        Session(String id, UUID userId, UUID logId, String filename, long length) {
+            this.id = id;
+            this.userId = userId;
+            this.logId = logId;
+            this.filename = filename;
+            this.length = length;
+        }
+
+        // Hash yang sejalan dengan isi file sampai offset; dihitung ulang dari file jika tidak
+        MessageDigest digest(Path part, long offset) throws IOException {
+            if (digest != null && digested == offset) return digest;
+            digest = FileStorageService.sha256();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_BUFFER_BYTES);
+            try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                long position = 0;
+                while (position < offset) {
+                    buffer.clear();
+                    if (buffer.capacity() > offset - position) buffer.limit((int) (offset - position));
+                    int read = in.read(buffer, position);
+                    if (read < 0) throw new IOException("File upload memendek: " + part);
+                    buffer.flip();
+                    digest.update(buffer);
+                    position += read;
+                }
+            }
+            digested = offset;
+            return digest;
+        }
+
+        Upload snapshot(long offset, String storedAs) {
+            return new Upload(id, userId, logId, filename, length, offset, storedAs);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package org.delcom.app.services;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Klien S3 minimal (AWS S3, MinIO, dan layanan kompatibel) di atas java.net.http dengan tanda tangan
+ * Signature Version 4. Hanya operasi yang dipakai S3StorageEngine: HEAD/GET/PUT/DELETE objek,
+ * salin ke diri sendiri (memperbarui Last-Modified), dan multipart upload. Isi objek di-stream dari/ke
+ * file, tidak pernah ditampung utuh di heap.
+ */
+final class S3Client {
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+    private static final Pattern KEY = Pattern.compile("<Key>([^<]+)</Key>");
+    private static final Pattern NEXT_TOKEN = Pattern.compile("<NextContinuationToken>([^<]+)</NextContinuationToken>");
+
+    // Ukuran & waktu ubah terakhir objek di bucket
+    record ObjectInfo(long size, long lastModified) {}
+
+    // Satu halaman ListObjectsV2; next null jika sudah halaman terakhir
+    record Page(List<String> keys, String next) {}
+
+    private final URI endpoint;
+    private final String bucket;
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+    private final boolean pathStyle;
+    private final HttpClient http;
+
+    S3Client(String endpoint, String bucket, String region, String accessKey, String secretKey, boolean pathStyle) {
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.bucket = bucket;
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.pathStyle = pathStyle;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    // null jika objek tidak ada
+    ObjectInfo head(String key) throws IOException {
+        HttpResponse<Void> response = send(request("HEAD", key, "", Map.of(), EMPTY_SHA256,
+                HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) return null;
+        check("HEAD", key, response.statusCode(), null);
+        return info(response);
+    }
+
+    // Isi objek ditulis ke target; null (target tidak dibuat) jika objek tidak ada
+    ObjectInfo get(String key, Path target) throws IOException {
+        HttpResponse<InputStream> response = send(request("GET", key, "", Map.of(), EMPTY_SHA256,
+                HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() == 404) return null;
+            check("GET", key, response.statusCode(), body);
+            Files.copy(body, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return info(response);
+    }
+
+    void put(String key, Path file, String contentType) throws IOException {
+        HttpResponse<String> response = send(request("PUT", key, "", Map.of("content-type", contentType),
+                UNSIGNED_PAYLOAD, HttpRequest.BodyPublishers.ofFile(file)), HttpResponse.BodyHandlers.ofString());
+        check("PUT", key, response.statusCode(), response.body());
+    }
+
+    // Salin objek ke dirinya sendiri: isi tetap, Last-Modified menjadi sekarang. REPLACE mengganti
+    // metadata, jadi Content-Type dikirim ulang agar tidak menjadi binary/octet-stream.
+    void touch(String key, String contentType) throws IOException {
+        Map<String, String> headers = Map.of(
+                "x-amz-copy-source", "/" + bucket + "/" + encodePath(key),
+                "x-amz-metadata-directive", "REPLACE",
+                "content-type", contentType);
+        HttpResponse<String> response = send(request("PUT", key, "", headers, EMPTY_SHA256,
+                HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.ofString());
+        // Sama dengan penggabungan multipart: penyalinan yang gagal bisa dijawab 200 dengan <Error>
+        if (response.body() != null && response.body().contains("<Error>")) {
+            throw new IOException("S3 COPY " + key + " gagal: " + response.body());
+        }
+        check("COPY", key, response.statusCode(), response.body());
+    }
+
+    void delete(String key) throws IOException {
+        HttpResponse<String> response = send(request("DELETE", key, "", Map.of(), EMPTY_SHA256,
+                HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 404) return;
+        check("DELETE", key, response.statusCode(), response.body());
+    }
+
+    // Key yang diawali prefix, maks. 1000 per halaman; token dari Page.next sebelumnya (null untuk halaman pertama)
+    Page list(String prefix, String continuationToken) throws IOException {
+        String query = "list-type=2" + (prefix.isEmpty() ? "" : "&prefix=" + encode(prefix))
+                + (continuationToken == null ? "" : "&continuation-token=" + encode(continuationToken));
+        HttpResponse<String> response = send(request("GET", "", query, Map.of(), EMPTY_SHA256,
+                HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.ofString());
+        check("LIST", bucket, response.statusCode(), response.body());
+        List<String> keys = new ArrayList<>();
+        Matcher key = KEY.matcher(response.body());
+        while (key.find()) keys.add(key.group(1));
+        Matcher next = NEXT_TOKEN.matcher(response.body());
+        return new Page(keys, next.find() ? next.group(1) : null);
+    }
+
+    // Multipart upload: file dikirim per bagian partSize byte, masing-masing di-stream langsung dari disk
+    void putMultipart(String key, Path file, String contentType, long partSize) throws IOException {
+        HttpResponse<String> created = send(request("POST", key, "uploads=", Map.of("content-type", contentType),
+                EMPTY_SHA256, HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.ofString());
+        check("CREATE MULTIPART", key, created.statusCode(), created.body());
+        Matcher matcher = UPLOAD_ID.matcher(created.body());
+        if (!matcher.find()) throw new IOException("S3 tidak mengembalikan UploadId untuk " + key);
+        String uploadId = matcher.group(1);
+        String uploadQuery = "uploadId=" + encode(uploadId);
+
+        try {
+            long size = Files.size(file);
+            List<String> etags = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += partSize) {
+                long length = Math.min(partSize, size - offset);
+                int partNumber = etags.size() + 1;
+                HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofInputStream(partStream(file, offset, length)), length);
+                HttpResponse<String> part = send(request("PUT", key, "partNumber=" + partNumber + "&" + uploadQuery,
+                        Map.of(), UNSIGNED_PAYLOAD, body), HttpResponse.BodyHandlers.ofString());
+                check("UPLOAD PART " + partNumber, key, part.statusCode(), part.body());
+                etags.add(part.headers().firstValue("ETag")
+                        .orElseThrow(() -> new IOException("S3 tidak mengembalikan ETag part " + partNumber)));
+            }
+
+            StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < etags.size(); i++) {
+                xml.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                        .append(etags.get(i).replace("\"", "&quot;")).append("</ETag></Part>");
+            }
+            byte[] payload = xml.append("</CompleteMultipartUpload>").toString().getBytes(StandardCharsets.UTF_8);
+            HttpResponse<String> completed = send(request("POST", key, uploadQuery, Map.of(), sha256Hex(payload),
+                    HttpRequest.BodyPublishers.ofByteArray(payload)), HttpResponse.BodyHandlers.ofString());
+            // S3 bisa menjawab 200 dengan <Error> di body jika penggabungan gagal
+            if (completed.body() != null && completed.body().contains("<Error>")) {
+                throw new IOException("S3 COMPLETE MULTIPART " + key + " gagal: " + completed.body());
+            }
+            check("COMPLETE MULTIPART", key, completed.statusCode(), completed.body());
+        } catch (IOException | RuntimeException e) {
+            try {
+                send(request("DELETE", key, uploadQuery, Map.of(), EMPTY_SHA256, HttpRequest.BodyPublishers.noBody()),
+                        HttpResponse.BodyHandlers.discarding());
+            } catch (IOException abortFailed) {
+                e.addSuppressed(abortFailed);
+            }
+            throw e;
+        }
+    }
+
+    // --- HTTP ---
+
+    private HttpRequest request(String method, String key, String query, Map<String, String> extraHeaders,
+                                String payloadHash, HttpRequest.BodyPublisher body) {
+        String path = pathStyle ? "/" + bucket + "/" + encodePath(key) : "/" + encodePath(key);
+        String host = pathStyle ? endpoint.getHost() : bucket + "." + endpoint.getHost();
+        String authority = endpoint.getPort() == -1 ? host : host + ":" + endpoint.getPort();
+        URI uri = URI.create(endpoint.getScheme() + "://" + authority + path + (query.isEmpty() ? "" : "?" + query));
+
+        Map<String, String> headers = new TreeMap<>(extraHeaders);
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("x-amz-date", AMZ_DATE.format(Instant.now()));
+        String authorization = authorization(method, path, query, authority, headers, payloadHash,
+                headers.get("x-amz-date"), region, accessKey, secretKey);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMinutes(5))
+                .method(method, body)
+                .header("Authorization", authorization);
+        headers.forEach(builder::header);
+        return builder.build();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return http.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Permintaan S3 dibatalkan");
+        }
+    }
+
+    private static void check(String operation, String key, int status, Object body) throws IOException {
+        if (status / 100 == 2) return;
+        String detail = body instanceof InputStream in ? new String(in.readNBytes(512), StandardCharsets.UTF_8)
+                : String.valueOf(body);
+        throw new IOException("S3 " + operation + " " + key + " gagal: HTTP " + status + " " + detail);
+    }
+
+    private static ObjectInfo info(HttpResponse<?> response) {
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        long lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                .orElse(System.currentTimeMillis());
+        return new ObjectInfo(size, lastModified);
+    }
+
+    // Potongan [offset, offset + length) dari file, dibuka saat HttpClient mulai mengirim
+    private static Supplier<InputStream> partStream(Path file, long offset, long length) {
+        return () -> {
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ).position(offset);
+                return new FilterInputStream(Channels.newInputStream(channel)) {
+                    private long remaining = length;
+
+                    @Override
+                    public int read() throws IOException {
+                        if (remaining <= 0) return -1;
+                        int b = super.read();
+                        if (b >= 0) remaining--;
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int off, int len) throws IOException {
+                        if (remaining <= 0) return -1;
+                        int n = super.read(buffer, off, (int) Math.min(len, remaining));
+                        if (n > 0) remaining -= n;
+                        return n;
+                    }
+                };
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    // --- Signature Version 4 ---
+
+    // Header Authorization untuk request; headers berisi header yang ikut ditandatangani selain host
+    // (nama huruf kecil). Dipisah dari request() agar bisa diuji dengan contoh di dokumentasi AWS.
+    static String authorization(String method, String path, String query, String host, Map<String, String> headers,
+                                String payloadHash, String amzDate, String region, String accessKey, String secretKey) {
+        Map<String, String> signed = new TreeMap<>(headers);
+        signed.put("host", host);
+        StringBuilder canonicalHeaders = new StringBuilder();
+        signed.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value.trim()).append('\n'));
+        String signedHeaders = String.join(";", signed.keySet());
+
+        String canonicalRequest = method + "\n" + path + "\n" + canonicalQuery(query) + "\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + payloadHash;
+        String date = amzDate.substring(0, 8);
+        String scope = date + "/" + region + "/s3/aws4_request";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n"
+                + sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8));
+
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(key, stringToSign));
+        return "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature;
+    }
+
+    // Parameter diurutkan menurut nama; query yang dibuat di sini sudah ter-encode
+    private static String canonicalQuery(String query) {
+        if (query.isEmpty()) return "";
+        Map<String, String> params = new TreeMap<>();
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(eq < 0 ? pair : pair.substring(0, eq), eq < 0 ? "" : pair.substring(eq + 1));
+        }
+        StringBuilder canonical = new StringBuilder();
+        params.forEach((name, value) -> {
+            if (canonical.length() > 0) canonical.append('&');
+            canonical.append(name).append('=').append(value);
+        });
+        return canonical.toString();
+    }
+
+    private static String encodePath(String key) {
+        StringBuilder path = new StringBuilder();
+        for (String segment : key.split("/", -1)) {
+            if (path.length() > 0) path.append('/');
+            path.append(encode(segment));
+        }
+        return path.toString();
+    }
+
+    // URI-encode versi AWS: hanya A-Z a-z 0-9 - _ . ~ yang dibiarkan
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20").replace("*", "%2A")
+                .replace("%7E", "~");
+    }
+
+    static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
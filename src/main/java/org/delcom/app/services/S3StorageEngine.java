@@ -0,0 +1,349 @@
+package org.delcom.app.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Upload disimpan di bucket S3 (atau MinIO/layanan kompatibel) yang dipakai bersama semua node web,
+ * sehingga node bisa ditambah tanpa berbagi disk. Setiap node menyimpan salinan objek yang sering dibaca
+ * di cache lokal (app.storage.s3.cache-dir, LRU dibatasi total ukurannya) agar /images tetap dikirim
+ * dari file lokal dengan sendfile. File besar diunggah dengan multipart upload.
+ *
+ * Objek content-addressed tidak pernah berubah isinya, jadi salinan lokalnya tidak perlu dicek ulang;
+ * nama lain dicek dengan HEAD paling cepat setiap REVALIDATE_AFTER. Semua key diberi awalan
+ * app.storage.s3.prefix sehingga bucket bisa dipakai bersama aplikasi/lingkungan lain.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "s3")
+public class S3StorageEngine implements StorageEngine {
+    static final Duration REVALIDATE_AFTER = Duration.ofMinutes(1);
+    // Batas minimum ukuran part multipart di S3 (kecuali part terakhir)
+    static final long MIN_PART_BYTES = DataSize.ofMegabytes(5).toBytes();
+    private static final String TMP_DIR = "tmp";
+
+    private final S3Client s3;
+    private final String prefix;
+    private final long partSize;
+    private final Path cacheDir;
+    private final long maxCacheBytes;
+
+    // Access-order = LRU (nama objek -> ukuran byte); dijaga dengan synchronized (entries)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // Kapan salinan lokal terakhir dicocokkan dengan bucket (nama biasa saja)
+    private final Map<String, Long> verifiedAt = new ConcurrentHashMap<>();
+    // Banyak request untuk objek yang sama saat cache kosong hanya memicu satu GET
+    private final Map<String, CompletableFuture<Blob>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public S3StorageEngine(@Value("${app.storage.s3.endpoint}") String endpoint,
+                           @Value("${app.storage.s3.bucket}") String bucket,
+                           @Value("${app.storage.s3.prefix:}") String prefix,
+                           @Value("${app.storage.s3.region:us-east-1}") String region,
+                           @Value("${app.storage.s3.access-key}") String accessKey,
+                           @Value("${app.storage.s3.secret-key}") String secretKey,
+                           @Value("${app.storage.s3.path-style:true}") boolean pathStyle,
+                           @Value("${app.storage.s3.part-size:8MB}") DataSize partSize,
+                           @Value("${app.storage.s3.cache-dir:./s3-cache}") String cacheDir,
+                           @Value("${app.storage.s3.cache-max-size:1GB}") DataSize maxCacheSize) throws IOException {
+        this.s3 = new S3Client(endpoint, bucket, region, accessKey, secretKey, pathStyle);
+        this.prefix = prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+        this.partSize = Math.max(MIN_PART_BYTES, partSize.toBytes());
+        this.cacheDir = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.maxCacheBytes = maxCacheSize.toBytes();
+        load();
+    }
+
+    @Override
+    public void put(String name, Path source) throws IOException {
+        long size = Files.size(source);
+        String type = contentType(name);
+        if (size > partSize) {
+            s3.putMultipart(key(name), source, type, partSize);
+        } else {
+            s3.put(key(name), source, type);
+        }
+        // Yang baru diunggah hampir pasti segera dibaca (halaman detail, varian): langsung masuk cache.
+        // mtime salinan = Last-Modified dari bucket (presisi detik), agar revalidasi tidak salah membuangnya.
+        S3Client.ObjectInfo info = s3.head(key(name));
+        if (info == null) throw new NoSuchFileException("Objek tidak ada setelah diunggah: " + key(name));
+        Files.setLastModifiedTime(source, FileTime.fromMillis(info.lastModified()));
+        Path cached = cachePath(name);
+        Files.createDirectories(cached.getParent());
+        Files.move(source, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        verifiedAt.put(name, System.currentTimeMillis());
+        add(name, size);
+    }
+
+    // Salinan lokal (diambil dari bucket jika belum ada); null jika objek tidak ada
+    @Override
+    public Blob locate(String name) throws IOException {
+        Blob cached = cached(name);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<Blob> own = new CompletableFuture<>();
+        CompletableFuture<Blob> running = inFlight.putIfAbsent(name, own);
+        if (running != null) return await(running);
+
+        misses.increment();
+        try {
+            Blob result = fetch(name);
+            own.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(name, own);
+        }
+    }
+
+    // HEAD ke bucket: tidak mengunduh isi, dan selalu melihat touch/hapus dari node lain
+    @Override
+    public Blob stat(String name) throws IOException {
+        S3Client.ObjectInfo info = s3.head(key(name));
+        return info == null ? null : new Blob(null, 0, info.size(), info.lastModified());
+    }
+
+    @Override
+    public InputStream open(String name) throws IOException {
+        Blob blob = locate(name);
+        if (blob == null) throw new NoSuchFileException(name);
+        return Files.newInputStream(blob.file());
+    }
+
+    @Override
+    public boolean delete(String name) throws IOException {
+        boolean exists = s3.head(key(name)) != null;
+        if (exists) s3.delete(key(name));
+        drop(name);
+        return exists;
+    }
+
+    @Override
+    public void touch(String name) throws IOException {
+        s3.touch(key(name), contentType(name));
+        // Sama dengan put: mtime salinan mengikuti Last-Modified baru di bucket
+        Path cached = cachePath(name);
+        S3Client.ObjectInfo info = Files.exists(cached) ? s3.head(key(name)) : null;
+        if (info != null) Files.setLastModifiedTime(cached, FileTime.fromMillis(info.lastModified()));
+    }
+
+    private static String contentType(String name) {
+        return MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    @Override
+    public Path path(String name) throws IOException {
+        Blob blob = locate(name);
+        return blob != null ? blob.file() : cachePath(name);
+    }
+
+    // Key di bawah prefix (tanpa prefix-nya), halaman berikutnya baru diminta saat stream sampai di sana
+    @Override
+    public Stream<String> names() {
+        Iterator<String> keys = new Iterator<>() {
+            private Iterator<String> page = List.<String>of().iterator();
+            private String next;
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && (first || next != null)) {
+                    try {
+                        S3Client.Page listed = s3.list(prefix, next);
+                        page = listed.keys().iterator();
+                        next = listed.next();
+                        first = false;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return page.next().substring(prefix.length());
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(keys, Spliterator.ORDERED), false);
+    }
+
+    @Override
+    public Path tempDir() throws IOException {
+        return Files.createDirectories(cacheDir.resolve(TMP_DIR));
+    }
+
+    // --- Metrik cache ---
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+
+    public long getCacheSizeBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    // mtime salinan lokal = Last-Modified objek di bucket
+    private Blob cached(String name) throws IOException {
+        synchronized (entries) {
+            if (entries.get(name) == null) return null;
+        }
+        Path file = cachePath(name);
+        if (!Files.isRegularFile(file)) {
+            drop(name);
+            return null;
+        }
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        long size = Files.size(file);
+        if (!FileStorageService.isContentAddressed(name)) {
+            long now = System.currentTimeMillis();
+            Long verified = verifiedAt.get(name);
+            if (verified == null || now - verified > REVALIDATE_AFTER.toMillis()) {
+                S3Client.ObjectInfo info = s3.head(key(name));
+                if (info == null || info.lastModified() != modified || info.size() != size) {
+                    drop(name);
+                    return null;
+                }
+                verifiedAt.put(name, now);
+            }
+        }
+        return new Blob(file, 0, size, modified);
+    }
+
+    private Blob fetch(String name) throws IOException {
+        Path tmp = Files.createTempFile(tempDir(), "s3-", ".tmp");
+        try {
+            S3Client.ObjectInfo info = s3.get(key(name), tmp);
+            if (info == null) {
+                drop(name);
+                return null;
+            }
+            Files.setLastModifiedTime(tmp, FileTime.fromMillis(info.lastModified()));
+            Path target = cachePath(name);
+            Files.createDirectories(target.getParent());
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(target);
+            verifiedAt.put(name, System.currentTimeMillis());
+            add(name, size);
+            return new Blob(target, 0, size, info.lastModified());
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private String key(String name) {
+        return prefix + name;
+    }
+
+    private Path cachePath(String name) {
+        return cacheDir.resolve(FilesystemStorageEngine.shard(name));
+    }
+
+    private void add(String name, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (entries) {
+            Long previous = entries.put(name, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+            while (totalBytes > maxCacheBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(name)) continue; // yang baru ditulis tetap disimpan
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String key : evicted) deleteCached(key);
+    }
+
+    private void drop(String name) {
+        synchronized (entries) {
+            Long size = entries.remove(name);
+            if (size != null) totalBytes -= size;
+        }
+        verifiedAt.remove(name);
+        deleteCached(name);
+    }
+
+    private void deleteCached(String name) {
+        try {
+            Files.deleteIfExists(cachePath(name));
+        } catch (IOException e) {
+            // Sisa file dibersihkan saat start berikutnya jika cache penuh
+        }
+    }
+
+    // Isi cache dari disk, urut mtime (objek terlama lebih dulu dibuang); sisa file sementara dihapus
+    private void load() throws IOException {
+        if (!Files.isDirectory(cacheDir)) return;
+        Path tmpDir = cacheDir.resolve(TMP_DIR);
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(cacheDir)) {
+            files = new ArrayList<>(walk.filter(Files::isRegularFile).toList());
+        }
+        files.sort(Comparator.comparingLong(S3StorageEngine::modifiedMillis));
+        for (Path file : files) {
+            if (file.startsWith(tmpDir)) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            add(file.getFileName().toString(), Files.size(file));
+        }
+    }
+
+    private static long modifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Blob await(CompletableFuture<Blob> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw e;
+        }
+    }
+}
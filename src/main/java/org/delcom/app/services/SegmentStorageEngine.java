@@ -0,0 +1,585 @@
+package org.delcom.app.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Penyimpanan blob gaya Haystack: setiap upload ditambahkan (append-only) ke file segment besar
+ * (segment-00000001.dat, maks. app.storage.segment.max-size), sehingga jutaan cover hanya memakai
+ * sedikit inode. Lokasi tiap blob (segment, offset, panjang) disimpan di index ringkas di memori dan
+ * di file .idx per segment, jadi start tidak perlu membaca isi segment. Blob dibaca lewat segment
+ * yang di-mmap; blob yang dihapus/ditimpa dibuang oleh kompaksi di background begitu porsi data
+ * mati di satu segment mencapai app.storage.segment.compact-ratio.
+ *
+ * Nama yang tidak ada di segment dicari di app.upload.dir (upload lama sebelum engine ini dipakai).
+ * Hanya satu proses yang boleh menulis ke satu folder segment.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "segment")
+public class SegmentStorageEngine implements StorageEngine {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentStorageEngine.class);
+
+    static final int MAGIC = 0x54524C47; // "TRLG"
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    // magic(4) + type(1) + panjang nama(2) + storedAt(8) + panjang data(8), lalu nama & data
+    static final int HEADER_BYTES = 23;
+    // Segment di-mmap utuh, jadi satu segment (dan satu blob) tidak boleh melewati batas ByteBuffer
+    static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE;
+    static final long MAX_BLOB_BYTES = MAX_SEGMENT_BYTES - HEADER_BYTES - 0xFFFF;
+    // Segment lama baru dihapus setelah jeda ini: respons sendfile yang sedang berjalan masih memakainya
+    static final Duration RETIRE_DELAY = Duration.ofMinutes(1);
+
+    record Location(int segment, long recordStart, long dataOffset, long length, long storedAt) {
+        long recordBytes() {
+            return dataOffset - recordStart + length;
+        }
+    }
+
+    private final Path dir;
+    private final long maxSegmentBytes;
+    private final double compactRatio;
+    private final FilesystemStorageEngine legacy;
+    private final FilesystemStorageEngine extracted;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    // Hanya satu penulis; pembaca tidak pernah mengunci
+    private final Object writeLock = new Object();
+    private Segment active;
+
+    private final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "segment-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    public SegmentStorageEngine(@Value("${app.upload.dir:./uploads}") String uploadDir,
+                                @Value("${app.storage.segment.dir:${app.upload.dir:./uploads}/segments}") String segmentDir,
+                                @Value("${app.storage.segment.max-size:1GB}") DataSize maxSegmentSize,
+                                @Value("${app.storage.segment.compact-ratio:0.5}") double compactRatio) throws IOException {
+        this.dir = Files.createDirectories(Paths.get(segmentDir).toAbsolutePath().normalize());
+        this.maxSegmentBytes = Math.min(MAX_SEGMENT_BYTES, maxSegmentSize.toBytes());
+        this.compactRatio = compactRatio;
+        this.legacy = new FilesystemStorageEngine(uploadDir);
+        this.extracted = new FilesystemStorageEngine(dir.resolve("extracted").toString());
+        load();
+        maybeCompact();
+    }
+
+    @Override
+    public void put(String name, Path source) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            long length = in.size();
+            if (length > MAX_BLOB_BYTES) throw new IOException("Blob terlalu besar untuk segment: " + name);
+            synchronized (writeLock) {
+                Location location = append(PUT, name, in, 0, length, System.currentTimeMillis());
+                release(index.put(name, location));
+            }
+        }
+        Files.deleteIfExists(source);
+        extracted.delete(name);
+    }
+
+    @Override
+    public Blob locate(String name) throws IOException {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Location location = index.get(name);
+            if (location == null) return legacy.locate(name);
+            Segment segment = segments.get(location.segment());
+            // null: segment baru saja dipadatkan, lokasi di index sudah pindah
+            if (segment != null) {
+                return new Blob(segment.data, location.dataOffset(), location.length(), location.storedAt());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public InputStream open(String name) throws IOException {
+        ByteBuffer buffer = buffer(name);
+        if (buffer == null) return legacy.open(name);
+        return new BufferInputStream(buffer);
+    }
+
+    // Isi blob langsung dari segment yang di-mmap (read-only, di luar heap); null jika tidak ada di segment
+    ByteBuffer buffer(String name) throws IOException {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Location location = index.get(name);
+            if (location == null) return null;
+            Segment segment = segments.get(location.segment());
+            if (segment != null) return segment.slice(location.dataOffset(), location.length());
+        }
+        return null;
+    }
+
+    @Override
+    public boolean delete(String name) throws IOException {
+        boolean deleted = false;
+        synchronized (writeLock) {
+            Location location = index.get(name);
+            if (location != null) {
+                // Tombstone: setelah restart blob ini tetap terhapus walau record PUT-nya masih ada
+                append(DELETE, name, null, 0, 0, System.currentTimeMillis());
+                release(index.remove(name));
+                deleted = true;
+            }
+        }
+        extracted.delete(name);
+        deleted |= legacy.delete(name);
+        if (deleted) maybeCompact();
+        return deleted;
+    }
+
+    // Hanya di memori: dipakai untuk masa tenggang hapus, tidak perlu bertahan setelah restart
+    @Override
+    public void touch(String name) throws IOException {
+        Location location = index.get(name);
+        if (location == null) {
+            legacy.touch(name);
+            return;
+        }
+        index.replace(name, location, new Location(location.segment(), location.recordStart(),
+                location.dataOffset(), location.length(), System.currentTimeMillis()));
+    }
+
+    // Salinan file biasa di folder extracted/, dibuat saat pertama diminta
+    @Override
+    public Path path(String name) throws IOException {
+        ByteBuffer buffer = buffer(name);
+        if (buffer == null) return legacy.path(name);
+        Path target = extracted.path(name);
+        if (Files.isRegularFile(target)) return target;
+
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(tempDir(), "extract-", ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) out.write(buffer);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return target;
+    }
+
+    // Nama di segment (salinan index saat ini) lalu upload lama di app.upload.dir
+    @Override
+    public Stream<String> names() throws IOException {
+        return Stream.concat(List.copyOf(index.keySet()).stream(), legacy.names());
+    }
+
+    @Override
+    public Path tempDir() throws IOException {
+        return Files.createDirectories(dir.resolve("tmp"));
+    }
+
+    // --- Metrik ---
+    public int getSegmentCount() { return segments.size(); }
+    public int getBlobCount() { return index.size(); }
+
+    public long getGarbageBytes() {
+        return segments.values().stream().mapToLong(segment -> segment.garbage.get()).sum();
+    }
+
+    @PreDestroy
+    public void close() {
+        compactor.shutdownNow();
+        for (Segment segment : segments.values()) segment.close();
+    }
+
+    // --- Tulis ---
+
+    // Satu record di akhir segment aktif; data disalin dari source (transferFrom, tanpa lewat heap).
+    // Dipanggil dengan writeLock.
+    private Location append(byte type, String name, FileChannel source, long sourceOffset, long length,
+                            long storedAt) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > 0xFFFF) throw new IOException("Nama blob terlalu panjang");
+        long headerBytes = HEADER_BYTES + nameBytes.length;
+        Segment segment = writable(headerBytes + length);
+        long start = segment.size;
+
+        ByteBuffer header = ByteBuffer.allocate((int) headerBytes);
+        header.putInt(MAGIC).put(type).putShort((short) nameBytes.length).putLong(storedAt).putLong(length)
+                .put(nameBytes).flip();
+        while (header.hasRemaining()) segment.channel.write(header, start + header.position());
+        if (length > 0) copy(source, sourceOffset, length, segment.channel, start + headerBytes);
+        segment.channel.force(false);
+        segment.size = start + headerBytes + length;
+        segment.appendIndex(type, nameBytes, start, length, storedAt);
+        return new Location(segment.id, start, start + headerBytes, length, storedAt);
+    }
+
+    private static void copy(FileChannel source, long sourceOffset, long length, FileChannel target, long position)
+            throws IOException {
+        source.position(sourceOffset);
+        long copied = 0;
+        while (copied < length) {
+            long n = target.transferFrom(source, position + copied, length - copied);
+            if (n <= 0) throw new EOFException("Sumber blob lebih pendek dari yang diharapkan");
+            copied += n;
+        }
+    }
+
+    // Segment aktif, atau segment baru jika record tidak muat lagi
+    private Segment writable(long recordBytes) throws IOException {
+        if (active == null || (active.size > 0 && active.size + recordBytes > maxSegmentBytes)) {
+            int id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            active = Segment.open(dir, id);
+            segments.put(id, active);
+        }
+        return active;
+    }
+
+    // Record lama (ditimpa/dihapus) menjadi data mati di segment-nya
+    private void release(Location old) {
+        if (old == null) return;
+        Segment segment = segments.get(old.segment());
+        if (segment != null) segment.garbage.addAndGet(old.recordBytes());
+    }
+
+    // --- Start: index dari .idx, sisa segment yang belum ter-index dipindai ---
+
+    private void load() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.matches("segment-\\d{8}\\.dat"))
+                    .forEach(name -> ids.add(Integer.parseInt(name.substring(8, 16))));
+        }
+        ids.sort(null);
+        for (int i = 0; i < ids.size(); i++) {
+            Segment segment = Segment.open(dir, ids.get(i));
+            segments.put(segment.id, segment);
+            long indexed = readIndex(segment);
+            scan(segment, indexed, i == ids.size() - 1);
+        }
+        if (!segments.isEmpty()) {
+            Segment last = segments.lastEntry().getValue();
+            if (last.size < maxSegmentBytes) active = last;
+        }
+        logger.info("Segment storage: {} blob di {} segment ({} byte data mati)",
+                index.size(), segments.size(), getGarbageBytes());
+    }
+
+    // Posisi akhir record terakhir yang tercatat di .idx; entri rusak/terpotong di akhir dibuang
+    private long readIndex(Segment segment) throws IOException {
+        if (!Files.exists(segment.idx)) return 0;
+        long end = 0;
+        long valid = 0;
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.idx)))) {
+            while (true) {
+                byte type = in.readByte();
+                byte[] name = new byte[in.readUnsignedShort()];
+                in.readFully(name);
+                long start = in.readLong();
+                long length = in.readLong();
+                long storedAt = in.readLong();
+                long dataOffset = start + HEADER_BYTES + name.length;
+                if ((type != PUT && type != DELETE) || dataOffset + length > segment.size) break;
+
+                apply(segment, type, new String(name, StandardCharsets.UTF_8), start, dataOffset, length, storedAt);
+                position += 1 + 2 + name.length + 24;
+                valid = position;
+                end = dataOffset + length;
+            }
+        } catch (EOFException e) {
+            // Akhir file (atau entri terakhir terpotong)
+        }
+        segment.truncateIndex(valid);
+        return end;
+    }
+
+    // Record setelah posisi from yang belum ada di .idx (mis. crash sebelum .idx ditulis)
+    private void scan(Segment segment, long from, boolean last) throws IOException {
+        long position = from;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position < segment.size) {
+            header.clear();
+            boolean valid = position + HEADER_BYTES <= segment.size && readFully(segment.channel, header, position);
+            byte type = 0;
+            int nameLength = 0;
+            long storedAt = 0;
+            long length = 0;
+            if (valid) {
+                header.flip();
+                valid = header.getInt() == MAGIC;
+                type = header.get();
+                nameLength = Short.toUnsignedInt(header.getShort());
+                storedAt = header.getLong();
+                length = header.getLong();
+                valid &= (type == PUT || type == DELETE) && length >= 0
+                        && position + HEADER_BYTES + nameLength + length <= segment.size;
+            }
+            if (!valid) {
+                if (last) {
+                    // Tulisan terakhir tidak selesai (crash): dipotong agar append berikutnya bersih
+                    logger.warn("Memotong {} di byte {} (record tidak lengkap)", segment.data.getFileName(), position);
+                    segment.channel.truncate(position);
+                    segment.size = position;
+                } else {
+                    logger.warn("Record rusak di {} byte {}; sisa segment dilewati", segment.data.getFileName(), position);
+                }
+                return;
+            }
+            ByteBuffer nameBuffer = ByteBuffer.allocate(nameLength);
+            readFully(segment.channel, nameBuffer, position + HEADER_BYTES);
+            byte[] name = nameBuffer.array();
+            long dataOffset = position + HEADER_BYTES + nameLength;
+            apply(segment, type, new String(name, StandardCharsets.UTF_8), position, dataOffset, length, storedAt);
+            segment.appendIndex(type, name, position, length, storedAt);
+            position = dataOffset + length;
+        }
+    }
+
+    private void apply(Segment segment, byte type, String name, long start, long dataOffset, long length, long storedAt) {
+        if (type == PUT) {
+            release(index.put(name, new Location(segment.id, start, dataOffset, length, storedAt)));
+        } else {
+            release(index.remove(name));
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) return false;
+        }
+        return true;
+    }
+
+    // --- Kompaksi ---
+
+    private void maybeCompact() {
+        if (compacting.get() || candidates().isEmpty()) return;
+        if (compacting.compareAndSet(false, true)) compactor.execute(this::compactAll);
+    }
+
+    // Segment tertutup (bukan yang sedang ditulis) dengan porsi data mati >= compact-ratio
+    private List<Segment> candidates() {
+        Segment current;
+        synchronized (writeLock) {
+            current = active;
+        }
+        List<Segment> result = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment != current && segment.size > 0
+                    && segment.garbage.get() >= compactRatio * segment.size) result.add(segment);
+        }
+        return result;
+    }
+
+    void compactAll() {
+        try {
+            for (Segment segment : candidates()) compact(segment);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Kompaksi segment gagal: {}", e.getMessage());
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    // Blob yang masih hidup disalin ke segment aktif, lalu segment lama dihapus setelah RETIRE_DELAY.
+    // Segment hanya dilepas jika pemindaian sampai tepat di akhir segment dan tidak ada entri index yang
+    // masih menunjuk ke sana; record rusak atau terpotong membatalkan kompaksi dan segment tetap disimpan.
+    private void compact(Segment segment) throws IOException {
+        long reclaimed = segment.size;
+        long position = 0;
+        try (FileChannel source = FileChannel.open(segment.data, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (position + HEADER_BYTES <= segment.size) {
+                header.clear();
+                if (!readFully(source, header, position)) break;
+                header.flip();
+                if (header.getInt() != MAGIC) break;
+                byte type = header.get();
+                int nameLength = Short.toUnsignedInt(header.getShort());
+                long storedAt = header.getLong();
+                long length = header.getLong();
+                long dataOffset = position + HEADER_BYTES + nameLength;
+                if ((type != PUT && type != DELETE) || length < 0 || dataOffset + length > segment.size) break;
+                ByteBuffer nameBuffer = ByteBuffer.allocate(nameLength);
+                if (!readFully(source, nameBuffer, position + HEADER_BYTES)) break;
+                String name = new String(nameBuffer.array(), StandardCharsets.UTF_8);
+
+                synchronized (writeLock) {
+                    Location current = index.get(name);
+                    if (type == PUT && current != null && current.segment() == segment.id
+                            && current.recordStart() == position) {
+                        index.put(name, append(PUT, name, source, dataOffset, length, current.storedAt()));
+                    } else if (type == DELETE && current == null && segments.firstKey() < segment.id) {
+                        // PUT-nya mungkin masih ada di segment yang lebih lama
+                        append(DELETE, name, null, 0, 0, storedAt);
+                    }
+                }
+                position = dataOffset + length;
+            }
+        }
+        if (position != segment.size) {
+            logger.warn("Kompaksi {} dibatalkan: record rusak di byte {}; segment disimpan",
+                    segment.data.getFileName(), position);
+            return;
+        }
+        synchronized (writeLock) {
+            if (referenced(segment.id)) {
+                logger.warn("Kompaksi {} dibatalkan: masih ada blob yang menunjuk ke segment ini",
+                        segment.data.getFileName());
+                return;
+            }
+            segments.remove(segment.id);
+        }
+        compactor.schedule(segment::retire, RETIRE_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Segment {} dipadatkan, {} byte dibebaskan", segment.data.getFileName(), reclaimed);
+    }
+
+    private boolean referenced(int segmentId) {
+        for (Location location : index.values()) {
+            if (location.segment() == segmentId) return true;
+        }
+        return false;
+    }
+
+    // --- Segment ---
+
+    static final class Segment {
+        final int id;
+        final Path data;
+        final Path idx;
+        final FileChannel channel;
+        final AtomicLong garbage = new AtomicLong();
+        volatile long size;
+        private FileChannel idxChannel;
+        private volatile MappedByteBuffer mapped;
+
+        private Segment(int id, Path data, Path idx, FileChannel channel) throws IOException {
+            this.id = id;
+            this.data = data;
+            this.idx = idx;
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        static Segment open(Path dir, int id) throws IOException {
+            String base = String.format("segment-%08d", id);
+            Path data = dir.resolve(base + ".dat");
+            FileChannel channel = FileChannel.open(data, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(id, data, dir.resolve(base + ".idx"), channel);
+        }
+
+        ByteBuffer slice(long offset, long length) throws IOException {
+            MappedByteBuffer buffer = mapped;
+            if (buffer == null || buffer.capacity() < offset + length) buffer = remap(offset + length);
+            return buffer.slice((int) offset, (int) length);
+        }
+
+        // Segment aktif terus bertambah; mapping diperbesar saat ada blob di luar jangkauannya
+        private synchronized MappedByteBuffer remap(long required) throws IOException {
+            if (mapped == null || mapped.capacity() < required) {
+                if (required > size) throw new NoSuchFileException(data + " @" + required);
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return mapped;
+        }
+
+        synchronized void appendIndex(byte type, byte[] name, long start, long length, long storedAt) throws IOException {
+            if (idxChannel == null) {
+                idxChannel = FileChannel.open(idx, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            ByteBuffer entry = ByteBuffer.allocate(1 + 2 + name.length + 24);
+            entry.put(type).putShort((short) name.length).put(name).putLong(start).putLong(length).putLong(storedAt).flip();
+            while (entry.hasRemaining()) idxChannel.write(entry);
+        }
+
+        synchronized void truncateIndex(long size) throws IOException {
+            if (!Files.exists(idx) || Files.size(idx) == size) return;
+            try (FileChannel channel = FileChannel.open(idx, StandardOpenOption.WRITE)) {
+                channel.truncate(size);
+            }
+        }
+
+        synchronized void close() {
+            try {
+                channel.close();
+                if (idxChannel != null) idxChannel.close();
+            } catch (IOException e) {
+                // Ditutup saat shutdown; tidak ada yang perlu dipulihkan
+            }
+        }
+
+        void retire() {
+            close();
+            try {
+                Files.deleteIfExists(data);
+                Files.deleteIfExists(idx);
+            } catch (IOException e) {
+                logger.warn("Gagal menghapus segment lama {}: {}", data.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    // InputStream di atas ByteBuffer (mmap), tanpa menyalin isi blob ke heap sekaligus
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
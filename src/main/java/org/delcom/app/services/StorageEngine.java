@@ -0,0 +1,52 @@
+package org.delcom.app.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Tempat isi file upload disimpan, dipakai FileStorageService. Dipilih lewat properti
+ * app.storage.engine: "filesystem" (default, satu file per upload), "segment" (blob
+ * ditambahkan ke file segment besar dengan index offset), atau "s3" (bucket S3/MinIO bersama
+ * untuk banyak node web, dengan cache lokal).
+ */
+public interface StorageEngine {
+
+    // Lokasi isi blob: byte [offset, offset + length) di file. File utuh untuk engine filesystem,
+    // potongan file segment untuk engine segment; bisa langsung dikirim dengan sendfile/transferTo.
+    record Blob(Path file, long offset, long length, long lastModified) {
+        public boolean wholeFile() {
+            return offset == 0;
+        }
+    }
+
+    // Memindahkan file sementara yang sudah lengkap menjadi blob bernama name (menimpa jika ada).
+    // File sementara harus berada di tempDir().
+    void put(String name, Path source) throws IOException;
+
+    // null jika tidak ada
+    Blob locate(String name) throws IOException;
+
+    // Ukuran & lastModified terbaru dari penyimpanan utama tanpa mengambil isinya (file pada Blob
+    // boleh null); dipakai untuk keputusan hapus. Default: sama dengan locate.
+    default Blob stat(String name) throws IOException {
+        return locate(name);
+    }
+
+    InputStream open(String name) throws IOException;
+
+    boolean delete(String name) throws IOException;
+
+    // Menandai blob baru dipakai lagi (lastModified = sekarang)
+    void touch(String name) throws IOException;
+
+    // File biasa berisi blob, untuk kode yang butuh Path
+    Path path(String name) throws IOException;
+
+    // Semua nama blob yang tersimpan (tanpa file sementara), untuk pembersihan berkala; stream harus ditutup
+    Stream<String> names() throws IOException;
+
+    // Folder file sementara, di filesystem yang sama agar put bisa memindahkan secara atomik
+    Path tempDir() throws IOException;
+}
@@ -0,0 +1,145 @@
+package org.delcom.app.services;
+
+import org.delcom.app.dto.DestinationTotal;
+import org.delcom.app.dto.SpendPoint;
+import org.delcom.app.dto.SpendingAnalytics;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Analitik pengeluaran: total per periode (date_trunc) dengan total kumulatif (window function),
+ * histogram rating, dan destinasi teratas. Semua agregasi dikerjakan database; hasilnya
+ * diperkecil di server (top-N + "Lainnya", LTTB untuk deret waktu panjang) agar chart
+ * tidak menerima lebih banyak titik dari yang bisa digambar.
+ */
+@Service
+public class TravelLogAnalyticsService {
+    public static final List<String> GRANULARITIES = List.of("day", "week", "month", "year");
+    public static final String DEFAULT_GRANULARITY = "month";
+    public static final int DEFAULT_MAX_POINTS = 120;
+    public static final int MAX_POINTS = 1000;
+    public static final int DEFAULT_TOP_DESTINATIONS = 8;
+    public static final int MAX_TOP_DESTINATIONS = 50;
+    public static final String OTHERS = "Lainnya";
+
+    // %s hanya diisi dari GRANULARITIES (bukan input mentah)
+    static final String SPENDING_SQL = "SELECT bucket, total, logs, "
+            + "SUM(total) OVER (ORDER BY bucket ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW) AS running_total "
+            + "FROM (SELECT date_trunc('%1$s', created_at) AS bucket, COALESCE(SUM(total_cost), 0) AS total, COUNT(*) AS logs "
+            + "FROM travel_logs WHERE user_id = ? GROUP BY date_trunc('%1$s', created_at)) b "
+            + "ORDER BY bucket";
+
+    static final String RATINGS_SQL = "SELECT rating, COUNT(*) AS logs FROM travel_logs "
+            + "WHERE user_id = ? AND rating IS NOT NULL GROUP BY rating";
+
+    // Dari tabel ringkasan travel_log_stats; peringkat > N digabung menjadi satu baris (destination NULL)
+    static final String TOP_DESTINATIONS_SQL = "SELECT label AS destination, SUM(total_cost) AS total "
+            + "FROM (SELECT CASE WHEN rnk <= ? THEN destination END AS label, total_cost, rnk "
+            + "FROM (SELECT destination, total_cost, ROW_NUMBER() OVER (ORDER BY total_cost DESC, destination) AS rnk "
+            + "FROM travel_log_stats WHERE user_id = ?) s) r "
+            + "GROUP BY label ORDER BY MIN(rnk)";
+
+    private static final RowMapper<SpendPoint> SPEND_POINT = (rs, rowNum) -> new SpendPoint(
+            rs.getTimestamp("bucket").toLocalDateTime().toLocalDate(),
+            rs.getLong("total"), rs.getLong("logs"), rs.getLong("running_total"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TravelLogCache cache;
+
+    public TravelLogAnalyticsService(JdbcTemplate jdbcTemplate, TravelLogCache cache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = cache;
+    }
+
+    public SpendingAnalytics getSpending(UUID userId, String granularity, int maxPoints, int topDestinations) {
+        if (!GRANULARITIES.contains(granularity)) throw new IllegalArgumentException("Granularity tidak dikenal: " + granularity);
+        return cache.get(TravelLogCache.key(userId, "analytics", granularity, String.valueOf(topDestinations), maxPoints),
+                () -> {
+                    List<SpendPoint> series = getSeries(userId, granularity);
+                    List<SpendPoint> yearly = granularity.equals("year") ? series : getSeries(userId, "year");
+                    return new SpendingAnalytics(granularity, downsample(series, maxPoints), series.size(), yearly,
+                            getRatings(userId), getTopDestinations(userId, topDestinations));
+                });
+    }
+
+    // Dipakai juga oleh chart halaman utama
+    public List<DestinationTotal> getTopDestinations(UUID userId, int limit) {
+        return cache.get(TravelLogCache.key(userId, "top-destinations", null, null, limit),
+                () -> jdbcTemplate.query(TOP_DESTINATIONS_SQL, (rs, rowNum) -> {
+                    String destination = rs.getString("destination");
+                    return new DestinationTotal(destination != null ? destination : OTHERS, rs.getLong("total"));
+                }, limit, userId));
+    }
+
+    private List<SpendPoint> getSeries(UUID userId, String granularity) {
+        return jdbcTemplate.query(SPENDING_SQL.formatted(granularity), SPEND_POINT, userId);
+    }
+
+    // Rating 1..5 selalu ada (0 jika kosong) agar sumbu histogram tetap
+    private Map<Integer, Long> getRatings(UUID userId) {
+        Map<Integer, Long> ratings = new LinkedHashMap<>();
+        for (int rating = 1; rating <= 5; rating++) ratings.put(rating, 0L);
+        jdbcTemplate.query(RATINGS_SQL, rs -> {
+            ratings.put(rs.getInt("rating"), rs.getLong("logs"));
+        }, userId);
+        return ratings;
+    }
+
+    // Largest-Triangle-Three-Buckets: titik pertama & terakhir dipertahankan, sisanya dibagi ke
+    // (threshold - 2) bucket dan dari tiap bucket dipilih titik yang membentuk segitiga terbesar
+    // dengan titik terpilih sebelumnya dan rata-rata bucket berikutnya. runningTotal titik terpilih
+    // tetap akurat karena nilainya kumulatif.
+    static List<SpendPoint> downsample(List<SpendPoint> points, int threshold) {
+        int size = points.size();
+        if (threshold >= size || threshold < 3) return points;
+
+        List<SpendPoint> sampled = new ArrayList<>(threshold);
+        double every = (double) (size - 2) / (threshold - 2);
+        int selected = 0;
+        sampled.add(points.get(0));
+
+        for (int i = 0; i < threshold - 2; i++) {
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x(points.get(j));
+                avgY += points.get(j).getTotal();
+            }
+            avgX /= avgEnd - avgStart;
+            avgY /= avgEnd - avgStart;
+
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double ax = x(points.get(selected));
+            double ay = points.get(selected).getTotal();
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                SpendPoint point = points.get(j);
+                double area = Math.abs((ax - avgX) * (point.getTotal() - ay) - (ax - x(point)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled.add(points.get(next));
+            selected = next;
+        }
+
+        sampled.add(points.get(size - 1));
+        return sampled;
+    }
+
+    private static double x(SpendPoint point) {
+        return point.getPeriod().toEpochDay();
+    }
+}
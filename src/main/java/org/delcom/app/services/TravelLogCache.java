@@ -0,0 +1,142 @@
+package org.delcom.app.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache hasil baca halaman utama (halaman jurnal, grand total, data chart) per user dan keyword.
+ * Dibatasi jumlah entri (LRU) dan umur entri (TTL). save/delete menaikkan versi stripe user
+ * sehingga semua entri lama user itu tidak terpakai lagi; hasil query yang dimulai sebelum
+ * invalidasi juga tidak disimpan.
+ */
+@Component
+public class TravelLogCache {
+    private static final int VERSION_STRIPES = 1024;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    // Access-order = LRU; dijaga dengan synchronized (entries)
+    private final LinkedHashMap<Key, Entry> entries;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public TravelLogCache(@Value("${app.cache.logs.max-entries:10000}") int maxEntries,
+                          @Value("${app.cache.logs.ttl:60s}") Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    TravelLogCache(int maxEntries, Duration ttl, LongSupplier ticker) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= TravelLogCache.this.maxEntries) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    public record Key(UUID userId, String kind, String keyword, String cursor, int size) {}
+
+    public static Key key(UUID userId, String kind, String keyword, String cursor, int size) {
+        return new Key(userId, kind, normalize(keyword), cursor, size);
+    }
+
+    public static Key key(UUID userId, String kind, String keyword) {
+        return key(userId, kind, keyword, null, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        if (maxEntries <= 0) return loader.get();
+
+        int stripe = stripe(key.userId());
+        long now = ticker.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.version() == versions.get(stripe) && now - entry.loadedAt() < ttlNanos) {
+                    hits.increment();
+                    return (T) entry.value();
+                }
+                entries.remove(key);
+            }
+        }
+
+        misses.increment();
+        long version = versions.get(stripe);
+        T value = loader.get();
+        if (value != null) {
+            synchronized (entries) {
+                if (versions.get(stripe) == version) entries.put(key, new Entry(value, version, now));
+            }
+        }
+        return value;
+    }
+
+    // Dipanggil saat data user berubah: sekarang, dan sekali lagi setelah commit agar
+    // pembaca yang sempat memuat data sebelum commit tidak meninggalkan entri basi
+    public void invalidate(UUID userId) {
+        int stripe = stripe(userId);
+        versions.incrementAndGet(stripe);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.incrementAndGet(stripe);
+                }
+            });
+        }
+    }
+
+    // --- Metrik cache ---
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    static String normalize(String keyword) {
+        if (keyword == null || keyword.isBlank()) return "";
+        return keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static int stripe(UUID userId) {
+        return Math.floorMod(Objects.hashCode(userId), VERSION_STRIPES);
+    }
+
+    private record Entry(Object value, long version, long loadedAt) {}
+}
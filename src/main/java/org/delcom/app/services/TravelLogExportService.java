@@ -0,0 +1,124 @@
+package org.delcom.app.services;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Ekspor seluruh jurnal user sebagai NDJSON atau CSV. Baris dibaca lewat cursor database
+ * (Stream + fetch size) dan langsung ditulis ke output, lalu di-detach dari persistence context,
+ * sehingga memori tetap konstan berapapun jumlah jurnalnya.
+ */
+@Service
+public class TravelLogExportService {
+    // Sama dengan fetch size query stream: flush setiap satu batch agar byte pertama cepat terkirim
+    static final int FLUSH_EVERY = 500;
+
+    static final String[] CSV_HEADER = {
+            "id", "title", "destination", "description", "image_path", "total_cost", "rating", "created_at", "updated_at"
+    };
+
+    private final TravelLogRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public TravelLogExportService(TravelLogRepository repository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    // Satu objek JSON per baris; ditulis langsung dengan JsonGenerator tanpa membuat Map/DTO
+    @Transactional(readOnly = true)
+    public long writeNdjson(UUID userId, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+
+        long count = 0;
+        try (Stream<TravelLog> logs = repository.streamByUserId(userId)) {
+            Iterator<TravelLog> it = logs.iterator();
+            while (it.hasNext()) {
+                TravelLog log = it.next();
+                json.writeStartObject();
+                json.writeStringField("id", String.valueOf(log.getId()));
+                json.writeStringField("title", log.getTitle());
+                json.writeStringField("destination", log.getDestination());
+                json.writeStringField("description", log.getDescription());
+                json.writeStringField("imagePath", log.getImagePath());
+                json.writeNumberField("totalCost", log.getTotalCost());
+                if (log.getRating() != null) json.writeNumberField("rating", log.getRating());
+                else json.writeNullField("rating");
+                json.writeStringField("createdAt", format(log.getCreatedAt()));
+                json.writeStringField("updatedAt", format(log.getUpdatedAt()));
+                json.writeEndObject();
+                json.writeRaw('\n');
+
+                entityManager.detach(log);
+                if (++count % FLUSH_EVERY == 0) json.flush();
+            }
+        }
+        json.flush();
+        return count;
+    }
+
+    @Transactional(readOnly = true)
+    public long writeCsv(UUID userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvRow(writer, CSV_HEADER);
+        writer.flush();
+
+        long count = 0;
+        try (Stream<TravelLog> logs = repository.streamByUserId(userId)) {
+            Iterator<TravelLog> it = logs.iterator();
+            while (it.hasNext()) {
+                TravelLog log = it.next();
+                writeCsvRow(writer, new String[] {
+                        String.valueOf(log.getId()), log.getTitle(), log.getDestination(), log.getDescription(),
+                        log.getImagePath(),
+                        Long.toString(log.getTotalCost()),
+                        log.getRating() != null ? log.getRating().toString() : null,
+                        format(log.getCreatedAt()), format(log.getUpdatedAt())
+                });
+
+                entityManager.detach(log);
+                if (++count % FLUSH_EVERY == 0) writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    // RFC 4180: nilai berisi koma, kutip, atau baris baru dibungkus kutip ganda
+    static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            String value = values[i];
+            if (value == null) continue;
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String format(LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,250 @@
+package org.delcom.app.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.delcom.app.dto.TravelLogForm;
+import org.delcom.app.dto.TravelLogImportResult;
+import org.delcom.app.utils.CsvReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Import massal jurnal dari CSV atau NDJSON. Input dibaca per baris (streaming), divalidasi dengan
+ * aturan TravelLogForm, lalu di-insert dengan JDBC batch per CHUNK_SIZE baris dalam satu transaksi
+ * per chunk. UUID dibuat di Java sehingga batch tidak perlu menunggu id dari database; dengan
+ * reWriteBatchedInserts driver PostgreSQL menggabungkannya menjadi INSERT multi-baris.
+ */
+@Service
+public class TravelLogImportService {
+    static final int CHUNK_SIZE = 1000;
+
+    static final String INSERT_SQL = "INSERT INTO travel_logs "
+            + "(id, user_id, title, destination, destination_id, description, image_path, total_cost, rating, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TravelLogStatsService statsService;
+    private final TravelLogSearchBackend searchBackend;
+    private final DestinationSuggestService destinationSuggest;
+    private final TravelLogCache cache;
+    private final DestinationService destinations;
+    private final long maxRows;
+
+    public TravelLogImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  Validator validator, ObjectMapper objectMapper,
+                                  TravelLogStatsService statsService, TravelLogSearchBackend searchBackend,
+                                  DestinationSuggestService destinationSuggest, TravelLogCache cache,
+                                  DestinationService destinations,
+                                  @Value("${app.import.max-rows:100000}") long maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.statsService = statsService;
+        this.searchBackend = searchBackend;
+        this.destinationSuggest = destinationSuggest;
+        this.cache = cache;
+        this.destinations = destinations;
+        this.maxRows = maxRows;
+    }
+
+    // Baris pertama adalah header: title, destination, description, total_cost/totalCost, rating
+    public TravelLogImportResult importCsv(UUID userId, InputStream in) throws IOException {
+        try (Batch batch = new Batch(userId);
+             CsvReader csv = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<String> header = csv.readRecord();
+            if (header == null) throw new IllegalArgumentException("File CSV kosong");
+            Map<String, Integer> columns = columnIndex(header);
+            if (!columns.containsKey("title") || !columns.containsKey("destination")) {
+                throw new IllegalArgumentException("Header CSV wajib memuat kolom title dan destination");
+            }
+
+            long row = 0;
+            while (true) {
+                List<String> record;
+                try {
+                    record = csv.readRecord();
+                } catch (CsvReader.RecordTooLongException e) {
+                    // Record sudah dilewati; baris berikutnya tetap diproses
+                    if (!batch.hasRoom(++row)) break;
+                    batch.result.addError(row, e.getMessage());
+                    continue;
+                } catch (CsvReader.UnterminatedQuoteException e) {
+                    // Sisa file terbaca sebagai satu nilai; baris yang sudah diproses tetap diimpor
+                    if (batch.hasRoom(++row)) batch.result.addError(row, e.getMessage());
+                    break;
+                }
+                if (record == null) break;
+                if (record.size() == 1 && record.get(0).isBlank()) continue; // baris kosong
+                if (!batch.hasRoom(++row)) break;
+                try {
+                    TravelLogForm form = new TravelLogForm();
+                    form.setTitle(column(record, columns, "title"));
+                    form.setDestination(column(record, columns, "destination"));
+                    form.setDescription(column(record, columns, "description"));
+                    form.setTotalCost(parseRupiah(column(record, columns, "totalcost"), "total_cost"));
+                    form.setRating(parseInteger(column(record, columns, "rating"), "rating"));
+                    batch.add(row, form);
+                } catch (IllegalArgumentException e) {
+                    batch.result.addError(row, e.getMessage());
+                }
+            }
+            batch.flush();
+            return batch.result;
+        }
+    }
+
+    // Satu objek JSON per baris; field mengikuti TravelLogForm (totalCost atau total_cost)
+    public TravelLogImportResult importNdjson(UUID userId, InputStream in) throws IOException {
+        try (Batch batch = new Batch(userId);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024)) {
+            long row = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                if (!batch.hasRoom(++row)) break;
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (!node.isObject()) throw new IllegalArgumentException("Baris bukan objek JSON");
+                    TravelLogForm form = new TravelLogForm();
+                    form.setTitle(text(node, "title"));
+                    form.setDestination(text(node, "destination"));
+                    form.setDescription(text(node, "description"));
+                    String cost = text(node, node.has("totalCost") ? "totalCost" : "total_cost");
+                    form.setTotalCost(parseRupiah(cost, "totalCost"));
+                    form.setRating(parseInteger(text(node, "rating"), "rating"));
+                    batch.add(row, form);
+                } catch (IOException e) {
+                    batch.result.addError(row, "JSON tidak valid");
+                } catch (IllegalArgumentException e) {
+                    batch.result.addError(row, e.getMessage());
+                }
+            }
+            batch.flush();
+            return batch.result;
+        }
+    }
+
+    // Menampung baris valid lalu menulisnya per chunk. close() selalu dipanggil (try-with-resources):
+    // chunk yang sudah di-commit tetap dihitung ke statistik & index walau chunk berikutnya atau
+    // pembacaan input gagal.
+    private class Batch implements AutoCloseable {
+        private final UUID userId;
+        private final TravelLogImportResult result = new TravelLogImportResult();
+        private final List<Object[]> pending = new ArrayList<>(CHUNK_SIZE);
+        private final List<String> pendingDestinations = new ArrayList<>(CHUNK_SIZE);
+
+        Batch(UUID userId) {
+            this.userId = userId;
+        }
+
+        // Dipanggil sebelum memproses baris ke-row; false berarti import berhenti di baris itu
+        boolean hasRoom(long row) {
+            if (row <= maxRows) return true;
+            result.addError(row, "Import dihentikan: maksimal " + maxRows + " baris per file");
+            return false;
+        }
+
+        void add(long row, TravelLogForm form) {
+            Set<ConstraintViolation<TravelLogForm>> violations = validator.validate(form);
+            if (!violations.isEmpty()) {
+                List<String> messages = new ArrayList<>();
+                for (ConstraintViolation<TravelLogForm> violation : violations) messages.add(violation.getMessage());
+                Collections.sort(messages);
+                result.addError(row, String.join("; ", messages));
+                return;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            String destination = form.getDestination().trim();
+            pending.add(new Object[] {
+                    UUID.randomUUID(), userId, form.getTitle().trim(), destination, destinations.intern(destination),
+                    form.getDescription(), "default.jpg", form.getTotalCost(), form.getRating(), now, now
+            });
+            pendingDestinations.add(destination);
+            if (pending.size() >= CHUNK_SIZE) flush();
+        }
+
+        void flush() {
+            if (pending.isEmpty()) return;
+            // Saran destinasi dicatat di dalam transaksi agar seed trie yang berjalan bersamaan tahu
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, pending);
+                for (String destination : pendingDestinations) destinationSuggest.record(userId, destination);
+            });
+            result.addImported(pending.size());
+            pending.clear();
+            pendingDestinations.clear();
+        }
+
+        @Override
+        public void close() {
+            if (result.getImported() > 0) {
+                // Statistik & index dihitung ulang sekali, bukan per baris
+                statsService.rebuildUser(userId);
+                searchBackend.onBulkChange(userId);
+                cache.invalidate(userId);
+            }
+        }
+    }
+
+    // Nama kolom dinormalisasi: "Total Cost", "total_cost", "totalCost" -> "totalcost"
+    private static Map<String, Integer> columnIndex(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(name, i);
+        }
+        return columns;
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) return null;
+        return record.get(index);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    // Biaya disimpan dalam rupiah utuh; "150000" dan "150000.00" diterima, "150000.5" ditolak
+    private static Long parseRupiah(String value, String field) {
+        if (value == null || value.isBlank()) return null;
+        BigDecimal parsed;
+        try {
+            parsed = new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " bukan angka: " + value);
+        }
+        try {
+            return parsed.longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(field + " harus rupiah utuh tanpa pecahan: " + value);
+        }
+    }
+
+    private static Integer parseInteger(String value, String field) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " bukan bilangan bulat: " + value);
+        }
+    }
+}
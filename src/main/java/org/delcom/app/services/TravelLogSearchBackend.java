@@ -0,0 +1,30 @@
+package org.delcom.app.services;
+
+import org.delcom.app.dto.TravelLogCursor;
+import org.delcom.app.dto.TravelLogSummary;
+import org.delcom.app.entities.TravelLog;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mesin pencarian jurnal yang dipakai TravelLogService untuk query dengan keyword.
+ * Dipilih lewat properti app.search.backend: "database" (default) atau "memory".
+ */
+public interface TravelLogSearchBackend {
+    List<TravelLog> search(UUID userId, String keyword);
+
+    // Maksimal limit ringkasan setelah cursor (boleh null). Urutan (createdAt DESC, id DESC), atau
+    // (rank DESC, id DESC) jika ringkasan membawa rank; cursor berikutnya dibuat dari baris terakhir.
+    List<TravelLogSummary> searchPage(UUID userId, String keyword, TravelLogCursor after, int limit);
+
+    long sumTotalCost(UUID userId, String keyword);
+
+    // Dipanggil setelah log disimpan / dihapus agar index eksternal tetap sinkron
+    default void onSaved(TravelLog log) {}
+
+    default void onDeleted(TravelLog log) {}
+
+    // Dipanggil setelah perubahan massal (import/hapus massal) yang sudah di-commit
+    default void onBulkChange(UUID userId) {}
+}
@@ -1,37 +1,255 @@
 package org.delcom.app.services;
 
+import org.delcom.app.dto.DestinationCount;
+import org.delcom.app.dto.TravelLogCursor;
+import org.delcom.app.dto.TravelLogFieldsPage;
+import org.delcom.app.dto.TravelLogPage;
+import org.delcom.app.dto.TravelLogSummary;
+import org.delcom.app.dto.TravelLogVersion;
 import org.delcom.app.entities.TravelLog;
+import org.delcom.app.entities.TravelLogStat;
 import org.delcom.app.repositories.TravelLogRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 public class TravelLogService {
+    public static final int PAGE_SIZE = 12;
+
     private final TravelLogRepository repository;
+    private final TravelLogStatsService statsService;
+    private final TravelLogSearchBackend searchBackend;
+    private final DestinationSuggestService destinationSuggest;
+    private final TravelLogCache cache;
+    private final FileStorageService fileStorage;
+    private final DestinationService destinations;
 
-    public TravelLogService(TravelLogRepository repository) {
+    public TravelLogService(TravelLogRepository repository, TravelLogStatsService statsService,
+                            TravelLogSearchBackend searchBackend, DestinationSuggestService destinationSuggest,
+                            TravelLogCache cache, FileStorageService fileStorage, DestinationService destinations) {
         this.repository = repository;
+        this.statsService = statsService;
+        this.searchBackend = searchBackend;
+        this.destinationSuggest = destinationSuggest;
+        this.cache = cache;
+        this.fileStorage = fileStorage;
+        this.destinations = destinations;
     }
 
     public List<TravelLog> getAll(UUID userId, String keyword) {
-        if (keyword != null && !keyword.isBlank()) return repository.search(userId, keyword);
+        if (keyword != null && !keyword.isBlank()) return searchBackend.search(userId, keyword);
         return repository.findByUserIdOrderByCreatedAtDesc(userId);
     }
 
+    // Ambil satu halaman jurnal dengan keyset (createdAt, id), bukan OFFSET,
+    // sehingga halaman ke-100 sama cepatnya dengan halaman pertama. Hasil full-text search
+    // memakai keyset (rank, id) sehingga urutannya tetap berdasarkan relevansi.
+    // Isinya ringkasan (TravelLogSummary); entity lengkap hanya dimuat di halaman detail.
+    public TravelLogPage getPage(UUID userId, String keyword, String cursor, int size) {
+        return cache.get(TravelLogCache.key(userId, "page", keyword, cursor, size),
+                () -> loadPage(userId, keyword, cursor, size));
+    }
+
+    private TravelLogPage loadPage(UUID userId, String keyword, String cursor, int size) {
+        TravelLogCursor after = TravelLogCursor.decode(cursor);
+        boolean searching = keyword != null && !keyword.isBlank();
+        Limit limit = Limit.of(size + 1); // +1 baris untuk mendeteksi halaman berikutnya
+
+        List<TravelLogSummary> rows;
+        if (searching) {
+            rows = searchBackend.searchPage(userId, keyword, after, size + 1);
+        } else {
+            rows = after == null
+                    ? repository.findFirstPage(userId, limit)
+                    : repository.findPageAfter(userId, after.getCreatedAt(), after.getId(), limit);
+        }
+
+        if (rows.size() <= size) return new TravelLogPage(List.copyOf(rows), null);
+
+        List<TravelLogSummary> items = List.copyOf(rows.subList(0, size));
+        TravelLogSummary last = items.get(size - 1);
+        return new TravelLogPage(items, new TravelLogCursor(last.getCreatedAt(), last.getId(), last.getRank()).encode());
+    }
+
+    // Halaman REST API dengan kolom pilihan (sparse fieldset): hanya kolom itu yang di-SELECT.
+    // Nilai null tidak ikut dikirim agar respons tetap ringkas.
+    public TravelLogFieldsPage getFieldsPage(UUID userId, List<String> fields, String cursor, int size) {
+        TravelLogCursor after = TravelLogCursor.decode(cursor);
+        List<Map<String, Object>> rows = repository.findFieldsPage(userId, fields,
+                after != null ? after.getCreatedAt() : null, after != null ? after.getId() : null, size + 1);
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            Map<String, Object> last = rows.get(size - 1);
+            nextCursor = new TravelLogCursor((LocalDateTime) last.get("createdAt"), (UUID) last.get("id")).encode();
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) items.add(compact(row, fields));
+        return new TravelLogFieldsPage(items, nextCursor);
+    }
+
+    public Map<String, Object> getFieldsById(UUID userId, UUID id, List<String> fields) {
+        Map<String, Object> row = repository.findFieldsById(userId, id, fields);
+        return row != null ? compact(row, fields) : null;
+    }
+
+    // id selalu dikirim; createdAt hanya jika diminta (selalu di-SELECT untuk cursor)
+    private static Map<String, Object> compact(Map<String, Object> row, List<String> fields) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        row.forEach((field, value) -> {
+            if (value == null) return;
+            if (field.equals("createdAt") && !fields.contains("createdAt")) return;
+            item.put(field, value);
+        });
+        return item;
+    }
+
+    // Tanpa keyword: jumlahkan ringkasan travel_log_stats (satu baris per destinasi)
+    public long getGrandTotal(UUID userId, String keyword) {
+        return cache.get(TravelLogCache.key(userId, "total", keyword), () -> {
+            if (keyword != null && !keyword.isBlank()) return searchBackend.sumTotalCost(userId, keyword);
+            long total = 0;
+            for (TravelLogStat stat : statsService.getStats(userId)) total = Math.addExact(total, stat.getTotalCost());
+            return total;
+        });
+    }
+
+    // Versi data untuk ETag; sengaja tidak di-cache karena dipakai untuk validasi
+    public TravelLogVersion getVersion(UUID userId) {
+        return repository.findVersionByUserId(userId);
+    }
+
+    public LocalDateTime getUpdatedAt(UUID userId, UUID id) {
+        return repository.findUpdatedAtByUserIdAndId(userId, id).orElse(null);
+    }
+
     public TravelLog getById(UUID userId, UUID id) {
         return repository.findByUserIdAndId(userId, id).orElse(null);
     }
 
     @Transactional
     public TravelLog save(TravelLog log) {
-        return repository.save(log);
+        boolean known = log.isPersistedStateKnown();
+        String previousDestination = log.getPersistedDestination();
+        Long previousDestinationId = log.getPersistedDestinationId();
+        String previousImage = log.getPersistedImagePath();
+
+        log.setDestinationId(destinations.intern(log.getDestination()));
+        statsService.onSaved(log);
+        TravelLog saved = repository.save(log);
+        saved.markPersistedState();
+        searchBackend.onSaved(saved);
+        cache.invalidate(saved.getUserId());
+
+        if (!known || !Objects.equals(previousDestinationId, saved.getDestinationId())) {
+            UUID userId = saved.getUserId();
+            String destination = saved.getDestination();
+            if (known) destinationSuggest.forget(userId, previousDestination);
+            destinationSuggest.record(userId, destination);
+        }
+        if (known && previousImage != null && !previousImage.equals(saved.getImagePath())) {
+            releaseCoversAfterCommit(Collections.singletonList(previousImage));
+        }
+        return saved;
     }
 
     @Transactional
     public void delete(UUID userId, UUID id) {
         TravelLog log = getById(userId, id);
-        if(log != null) repository.delete(log);
+        if(log != null) {
+            statsService.onDeleted(log);
+            repository.delete(log);
+            searchBackend.onDeleted(log);
+            cache.invalidate(userId);
+            String destination = log.getPersistedDestination();
+            destinationSuggest.forget(userId, destination);
+            releaseCoversAfterCommit(Collections.singletonList(log.getImagePath()));
+        }
+    }
+
+    // Hapus banyak jurnal dengan satu DELETE ... WHERE id IN (...); id milik user lain diabaikan.
+    // Statistik & index dihitung ulang sekali untuk user itu, bukan per baris.
+    @Transactional
+    public int deleteAll(UUID userId, Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty()) return 0;
+        Collection<UUID> unique = new LinkedHashSet<>(ids);
+
+        List<DestinationCount> destinations = repository.countByDestinationForIds(userId, unique);
+        List<String> covers = repository.findImagePathsByUserIdAndIdIn(userId, unique);
+        int deleted = repository.deleteByUserIdAndIdIn(userId, unique);
+        if (deleted == 0) return 0;
+
+        statsService.rebuildUser(userId);
+        searchBackend.onBulkChange(userId);
+        cache.invalidate(userId);
+        for (DestinationCount count : destinations) destinationSuggest.forget(userId, count.getDestination(), count.getCount());
+        releaseCoversAfterCommit(covers);
+        return deleted;
+    }
+
+    // Ganti nama destinasi di semua jurnal user dengan satu UPDATE. Dicocokkan lewat destination_id,
+    // jadi semua varian penulisan ("Jogja", "jogja ") ikut diganti.
+    @Transactional
+    public int renameDestination(UUID userId, String from, String to) {
+        Long fromId = destinations.findId(from);
+        if (fromId == null) return 0;
+        String target = to.trim();
+        Long toId = destinations.intern(target);
+
+        int updated = repository.renameDestination(userId, fromId, target, toId, LocalDateTime.now());
+        if (updated == 0) return 0;
+
+        statsService.rebuildUser(userId);
+        searchBackend.onBulkChange(userId);
+        cache.invalidate(userId);
+        destinationSuggest.forget(userId, from.trim(), updated);
+        destinationSuggest.record(userId, target, updated);
+        return updated;
+    }
+
+    // File cover dilepas setelah commit (rollback tidak meninggalkan jurnal tanpa gambar). File yang sama
+    // bisa dirujuk banyak jurnal (content-addressed), jadi hanya yang tidak dirujuk lagi yang dihapus,
+    // async oleh FileStorageService.
+    private void releaseCoversAfterCommit(List<String> covers) {
+        List<String> files = covers.stream()
+                .filter(cover -> cover != null && !FileStorageService.DEFAULT_IMAGE.equals(cover))
+                .distinct()
+                .toList();
+        if (!files.isEmpty()) afterCommit(() -> deleteUnreferenced(files));
+    }
+
+    // Pelepasan file cover hanya setelah commit; tanpa transaksi langsung
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void deleteUnreferenced(List<String> files) {
+        List<String> referenced = repository.findReferencedImagePaths(files);
+        List<String> unreferenced = files.stream().filter(file -> !referenced.contains(file)).toList();
+        if (!unreferenced.isEmpty()) fileStorage.deleteFiles(unreferenced);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package org.delcom.app.services;
+
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.entities.TravelLogStat;
+import org.delcom.app.repositories.TravelLogStatRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Service
+public class TravelLogStatsService {
+    private final TravelLogStatRepository statRepository;
+
+    public TravelLogStatsService(TravelLogStatRepository statRepository) {
+        this.statRepository = statRepository;
+    }
+
+    public List<TravelLogStat> getStats(UUID userId) {
+        return statRepository.findByUserIdOrderByTotalCostDesc(userId);
+    }
+
+    // Dipanggil sebelum log disimpan (dalam transaksi yang sama dengan save), setelah destinationId diisi.
+    // Baris statistik dikunci per destination_id, jadi "Bali" -> "bali" tidak memindahkan biaya.
+    @Transactional
+    public void onSaved(TravelLog log) {
+        if (log.isPersistedStateKnown()) {
+            boolean unchanged = Objects.equals(log.getPersistedDestinationId(), log.getDestinationId())
+                    && log.getPersistedTotalCost() == log.getTotalCost();
+            if (unchanged) return;
+            applyDelta(log.getUserId(), log.getPersistedDestinationId(), null, -log.getPersistedTotalCost(), -1L);
+        }
+        applyDelta(log.getUserId(), log.getDestinationId(), log.getDestination(), log.getTotalCost(), 1L);
+    }
+
+    @Transactional
+    public void onDeleted(TravelLog log) {
+        Long destinationId = log.isPersistedStateKnown() ? log.getPersistedDestinationId() : log.getDestinationId();
+        long cost = log.isPersistedStateKnown() ? log.getPersistedTotalCost() : log.getTotalCost();
+        applyDelta(log.getUserId(), destinationId, null, -cost, -1L);
+    }
+
+    // Hitung ulang seluruh tabel travel_log_stats dari travel_logs
+    @Transactional
+    public int rebuild() {
+        statRepository.deleteAllStats();
+        return statRepository.insertAggregates();
+    }
+
+    @Transactional
+    public void rebuildUser(UUID userId) {
+        statRepository.deleteByUserId(userId);
+        statRepository.insertAggregatesByUserId(userId);
+    }
+
+    // Ringkasan lama tanpa destination_id (dibuat sebelum tabel destinations) perlu dibangun ulang
+    public boolean needsRebuild() {
+        return statRepository.existsByDestinationIdIsNull();
+    }
+
+    // label hanya dipakai saat baris baru dibuat (count positif)
+    private void applyDelta(UUID userId, Long destinationId, String label, long cost, Long count) {
+        if (destinationId == null) return;
+        if (count > 0) {
+            statRepository.upsertDelta(userId, destinationId, DestinationService.displayName(label), cost, count);
+        } else {
+            statRepository.applyDelta(userId, destinationId, cost, count);
+            statRepository.deleteIfEmpty(userId, destinationId);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.delcom.app.services;
+
+import org.delcom.app.repositories.TravelLogRepository;
+import org.delcom.app.utils.ImageVariantUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Pembersihan berkala file upload yatim (mark-and-sweep): file cover lama yang referensinya hilang
+ * karena gagal simpan, crash, atau sebelum pelepasan cover otomatis ada. Fase mark men-stream semua
+ * image_path dari travel_logs ke set hash 64-bit (8 byte per nama); fase sweep menelusuri semua file
+ * upload dan menghapus yang tidak dirujuk dan lebih tua dari app.storage.gc.grace. Laju penelusuran
+ * dibatasi app.storage.gc.max-files-per-second agar I/O disk tidak mengganggu request.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.gc.enabled", havingValue = "true", matchIfMissing = true)
+public class UploadGarbageCollector {
+    private static final Logger logger = LoggerFactory.getLogger(UploadGarbageCollector.class);
+
+    // Kandidat dicek ulang ke database per batch sebelum dihapus
+    static final int BATCH_SIZE = 500;
+
+    public record Result(long scanned, long deleted, long reclaimedBytes, long durationMillis) {}
+
+    private final TravelLogRepository repository;
+    private final FileStorageService fileStorage;
+    private final TransactionTemplate readOnly;
+    private final Duration grace;
+    private final int maxFilesPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Result lastResult;
+
+    public UploadGarbageCollector(TravelLogRepository repository, FileStorageService fileStorage,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.storage.gc.grace:24h}") Duration grace,
+                                  @Value("${app.storage.gc.max-files-per-second:500}") int maxFilesPerSecond) {
+        this.repository = repository;
+        this.fileStorage = fileStorage;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        // Tidak boleh lebih pendek dari masa tenggang unggahan ulang (lihat FileStorageService.deleteFiles)
+        this.grace = grace.compareTo(FileStorageService.REUSE_GRACE) < 0 ? FileStorageService.REUSE_GRACE : grace;
+        this.maxFilesPerSecond = Math.max(1, maxFilesPerSecond);
+    }
+
+    @Scheduled(cron = "${app.storage.gc.cron:0 30 3 * * *}")
+    public void scheduledCollect() {
+        try {
+            collect();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Pembersihan upload gagal: {}", e.getMessage());
+        }
+    }
+
+    // null jika pembersihan lain masih berjalan
+    public Result collect() throws IOException {
+        if (!running.compareAndSet(false, true)) return null;
+        try {
+            long start = System.currentTimeMillis();
+            // Batas umur diambil sebelum mark: file yang disimpan setelah titik ini tidak pernah disentuh
+            long cutoff = start - grace.toMillis();
+            ReferenceSet referenced = mark();
+            Result result = sweep(referenced, cutoff, start);
+            lastResult = result;
+            logger.info("Pembersihan upload: {} file diperiksa, {} dihapus, {} byte dibebaskan dalam {} ms",
+                    result.scanned(), result.deleted(), result.reclaimedBytes(), result.durationMillis());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Result getLastResult() { return lastResult; }
+
+    // Nama cover & varian-nya yang dirujuk jurnal mana pun
+    private ReferenceSet mark() {
+        return readOnly.execute(status -> {
+            ReferenceSet set = new ReferenceSet();
+            set.add(FileStorageService.DEFAULT_IMAGE);
+            try (Stream<String> paths = repository.streamImagePaths()) {
+                paths.forEach(path -> {
+                    set.add(path);
+                    for (String variant : ImageVariantUtil.NAMES) set.add(ImageVariantUtil.fileName(path, variant));
+                });
+            }
+            set.freeze();
+            return set;
+        });
+    }
+
+    private Result sweep(ReferenceSet referenced, long cutoff, long start) throws IOException {
+        Tally tally = new Tally();
+        long sweepStart = System.currentTimeMillis();
+        List<String> batch = new ArrayList<>();
+        try (Stream<String> names = fileStorage.listFiles()) {
+            Iterator<String> it = names.iterator();
+            while (it.hasNext()) {
+                String name = it.next();
+                throttle(++tally.scanned, sweepStart);
+                if (referenced.contains(name)) continue;
+                StorageEngine.Blob blob = fileStorage.stat(name);
+                if (blob == null || blob.lastModified() > cutoff) continue;
+                batch.add(name);
+                if (batch.size() >= BATCH_SIZE) delete(batch, cutoff, tally);
+            }
+        }
+        delete(batch, cutoff, tally);
+        return new Result(tally.scanned, tally.deleted, tally.reclaimed, System.currentTimeMillis() - start);
+    }
+
+    // Cek ulang ke database: cover yang baru dirujuk setelah fase mark tetap disimpan. Tepat sebelum
+    // dihapus file di-stat lagi: unggahan ulang isi yang sama (touch) setelah file masuk batch menyimpannya.
+    private void delete(List<String> batch, long cutoff, Tally tally) throws IOException {
+        if (batch.isEmpty()) return;
+        Set<String> stillReferenced = new HashSet<>(repository.findReferencedImagePaths(batch));
+        for (String name : batch) {
+            if (stillReferenced.contains(name)) continue;
+            StorageEngine.Blob current = fileStorage.stat(name);
+            if (current == null || current.lastModified() > cutoff) continue;
+            if (fileStorage.deleteFile(name)) {
+                tally.deleted++;
+                tally.reclaimed += current.length();
+            }
+        }
+        batch.clear();
+    }
+
+    // Menahan laju penelusuran ke maxFilesPerSecond
+    private void throttle(long scanned, long start) throws IOException {
+        long due = start + scanned * 1000 / maxFilesPerSecond;
+        long wait = due - System.currentTimeMillis();
+        if (wait <= 0) return;
+        try {
+            Thread.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Pembersihan upload dibatalkan");
+        }
+    }
+
+    private static final class Tally {
+        long scanned;
+        long deleted;
+        long reclaimed;
+    }
+
+    // Set nama sebagai hash 64-bit terurut (8 byte per nama). Tabrakan hash hanya membuat file yatim
+    // tetap disimpan, tidak pernah membuat file yang dirujuk terhapus.
+    static final class ReferenceSet {
+        private long[] hashes = new long[1024];
+        private int size;
+
+        void add(String name) {
+            if (size == hashes.length) hashes = Arrays.copyOf(hashes, size * 2);
+            hashes[size++] = hash(name);
+        }
+
+        void freeze() {
+            Arrays.sort(hashes, 0, size);
+        }
+
+        boolean contains(String name) {
+            return Arrays.binarySearch(hashes, 0, size, hash(name)) >= 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        // FNV-1a 64-bit lalu finalizer MurmurHash3 agar bit tersebar rata
+        static long hash(String name) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < name.length(); i++) {
+                h ^= name.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.delcom.app.utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Pembaca CSV (RFC 4180) per record, tanpa memuat seluruh file: mendukung kutip ganda,
+// "" sebagai kutip di dalam nilai, dan baris baru di dalam nilai yang dikutip.
+// Panjang satu nilai dan satu record dibatasi agar file rusak (mis. kutip yang tidak ditutup)
+// tidak menumpuk di memori; record yang kelebihan dilewati sampai akhir lalu dilaporkan.
+public class CsvReader implements Closeable {
+    public static final int DEFAULT_MAX_FIELD_LENGTH = 64 * 1024;
+    public static final int DEFAULT_MAX_RECORD_LENGTH = 256 * 1024;
+
+    // Record melebihi batas; sudah dibaca sampai akhir sehingga readRecord berikutnya melanjutkan
+    public static class RecordTooLongException extends IllegalArgumentException {
+        public RecordTooLongException(String message) {
+            super(message);
+        }
+    }
+
+    // Kutip tidak ditutup sampai akhir file; tidak ada record lagi setelahnya
+    public static class UnterminatedQuoteException extends IllegalArgumentException {
+        public UnterminatedQuoteException(String message) {
+            super(message);
+        }
+    }
+
+    private final Reader reader;
+    private final int maxFieldLength;
+    private final int maxRecordLength;
+
+    public CsvReader(Reader reader) {
+        this(reader, DEFAULT_MAX_FIELD_LENGTH, DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    public CsvReader(Reader reader, int maxFieldLength, int maxRecordLength) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader, 64 * 1024);
+        this.maxFieldLength = maxFieldLength;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    // null jika sudah akhir file
+    public List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        long length = 0;
+        String tooLong = null;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new UnterminatedQuoteException("Tanda kutip pada CSV tidak ditutup");
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+                length++;
+                if (tooLong == null) tooLong = append(field, (char) c, length);
+            } else if (c == -1 || c == '\n') {
+                if (tooLong != null) throw new RecordTooLongException(tooLong);
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                length++;
+                if (tooLong == null) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c != '\r') {
+                length++;
+                if (tooLong == null) tooLong = append(field, (char) c, length);
+            }
+            c = reader.read();
+        }
+    }
+
+    // null jika masih dalam batas; selain itu pesan error, dan isi record tidak disimpan lagi
+    private String append(StringBuilder field, char c, long recordLength) {
+        if (recordLength > maxRecordLength) return "Baris CSV melebihi " + maxRecordLength + " karakter";
+        if (field.length() >= maxFieldLength) return "Nilai CSV melebihi " + maxFieldLength + " karakter";
+        field.append(c);
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,21 @@
+package org.delcom.app.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+import org.springframework.http.CacheControl;
+import org.springframework.util.DigestUtils;
+
+// Validator HTTP (ETag) untuk conditional request: hash dari bagian-bagian yang menentukan isi respons
+public class ETagUtil {
+    // Boleh disimpan browser, tapi selalu divalidasi ulang ke server (If-None-Match)
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETagUtil() {}
+
+    public static String weak(Object... parts) {
+        StringJoiner joiner = new StringJoiner("|");
+        for (Object part : parts) joiner.add(String.valueOf(part));
+        return "W/\"" + DigestUtils.md5DigestAsHex(joiner.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
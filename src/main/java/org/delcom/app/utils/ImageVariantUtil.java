@@ -0,0 +1,37 @@
+package org.delcom.app.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Penamaan varian gambar cover: <hash>.png -> <hash>_grid.jpg (nama lama: cover_<id>_grid.jpg). Varian yang sudah jadi
+// dicatat di travel_logs.image_variants ("detail,grid"); selama belum ada, view memakai file asli.
+public class ImageVariantUtil {
+    public static final String GRID = "grid";
+    public static final String DETAIL = "detail";
+
+    // Urut dari terbesar: varian kecil diturunkan dari hasil varian sebelumnya
+    public static final List<String> NAMES = List.of(DETAIL, GRID);
+
+    private ImageVariantUtil() {}
+
+    // Sisi terpanjang (px) tiap varian
+    public static int maxSize(String variant) {
+        return switch (variant) {
+            case DETAIL -> 1280;
+            case GRID -> 480;
+            default -> throw new IllegalArgumentException("Varian tidak dikenal: " + variant);
+        };
+    }
+
+    public static String fileName(String imagePath, String variant) {
+        int dot = imagePath.lastIndexOf('.');
+        String base = dot > 0 ? imagePath.substring(0, dot) : imagePath;
+        return base + "_" + variant + ".jpg";
+    }
+
+    // File yang dipakai view: varian jika sudah tercatat, selain itu file asli
+    public static String resolve(String imagePath, String variants, String variant) {
+        if (imagePath == null || variants == null || variants.isEmpty()) return imagePath;
+        return Arrays.asList(variants.split(",")).contains(variant) ? fileName(imagePath, variant) : imagePath;
+    }
+}
@@ -1,34 +1,60 @@
 package org.delcom.app.views;
 
+import org.delcom.app.dto.DestinationTotal;
 import org.delcom.app.dto.TravelLogForm;
+import org.delcom.app.dto.TravelLogPage;
+import org.delcom.app.dto.TravelLogVersion;
 import org.delcom.app.entities.TravelLog;
 import org.delcom.app.entities.User;
+import org.delcom.app.services.DestinationSuggestService;
+import org.delcom.app.services.TravelLogAnalyticsService;
 import org.delcom.app.services.FileStorageService;
+import org.delcom.app.services.ImageServingService;
+import org.delcom.app.services.ImageVariantService;
 import org.delcom.app.services.TravelLogService;
+import org.delcom.app.utils.ETagUtil;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
 
-import java.nio.file.Path;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
 import java.util.UUID;
 import java.util.List; // Wajib ada untuk List<TravelLog>
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Controller
 public class TravelLogController {
 
     private final TravelLogService service;
     private final FileStorageService fileService;
-
-    public TravelLogController(TravelLogService service, FileStorageService fileService) {
+    private final DestinationSuggestService destinationSuggestService;
+    private final TravelLogAnalyticsService analyticsService;
+    private final ImageVariantService imageVariants;
+    private final ImageServingService imageServing;
+
+    // Batang chart destinasi di halaman utama; sisanya digabung menjadi "Lainnya"
+    private static final int CHART_DESTINATIONS = 10;
+
+    public TravelLogController(TravelLogService service, FileStorageService fileService,
+                               DestinationSuggestService destinationSuggestService,
+                               TravelLogAnalyticsService analyticsService, ImageVariantService imageVariants,
+                               ImageServingService imageServing) {
         this.service = service;
         this.fileService = fileService;
+        this.destinationSuggestService = destinationSuggestService;
+        this.analyticsService = analyticsService;
+        this.imageVariants = imageVariants;
+        this.imageServing = imageServing;
     }
 
     private User getAuthUser() {
@@ -37,33 +63,52 @@ public class TravelLogController {
         return null;
     }
 
+    // Halaman berisi flash message hanya tampil sekali, jadi tidak boleh di-cache browser
+    private boolean hasFlashMessage(ServletWebRequest webRequest) {
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(webRequest.getRequest());
+        return flash != null && !flash.isEmpty();
+    }
+
+    // Pasang ETag (+ Last-Modified jika ada); true berarti respons 304 sudah dikirim
+    private boolean checkNotModified(ServletWebRequest webRequest, String etag, long lastModified) {
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, ETagUtil.REVALIDATE.getHeaderValue());
+        }
+        return lastModified < 0 ? webRequest.checkNotModified(etag) : webRequest.checkNotModified(etag, lastModified);
+    }
+
     // --- HALAMAN UTAMA (HOME) ---
     @GetMapping("/")
-    public String home(Model model, @RequestParam(required = false) String search) {
+    public String home(Model model, @RequestParam(required = false) String search,
+                       @RequestParam(required = false) String cursor, ServletWebRequest webRequest) {
         User user = getAuthUser();
         if (user == null) return "redirect:/auth/login";
 
-        // 1. Ambil Data Logs ke dalam variabel List
-        List<TravelLog> logs = service.getAll(user.getId(), search);
+        // 0. Conditional request: cek ETag (satu query kecil) sebelum memuat data & render template
+        if (!hasFlashMessage(webRequest)) {
+            TravelLogVersion version = service.getVersion(user.getId());
+            String etag = ETagUtil.weak(user.getId(), user.getUpdatedAt(), version.getLastModified(),
+                    version.getCount(), search, cursor, webRequest.getSessionId());
+            if (checkNotModified(webRequest, etag, -1)) return null;
+        }
+
+        // 1. Ambil satu halaman Logs (keyset pagination)
+        TravelLogPage page = service.getPage(user.getId(), search, cursor, TravelLogService.PAGE_SIZE);
 
         // 2. Kirim data ke HTML
         model.addAttribute("auth", user);
-        model.addAttribute("logs", logs);
+        model.addAttribute("logs", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
         model.addAttribute("logForm", new TravelLogForm());
-        
+
         // --- LOGIKA HITUNG TOTAL BIAYA (GRAND TOTAL) ---
-        double grandTotal = logs.stream()
-                                .mapToDouble(TravelLog::getTotalCost)
-                                .sum();
-        model.addAttribute("grandTotal", grandTotal);
+        model.addAttribute("grandTotal", service.getGrandTotal(user.getId(), search));
         // -----------------------------------------------
 
-        // Data untuk Chart (Total Biaya per Destinasi)
-        Map<String, Double> chartData = service.getAll(user.getId(), "").stream()
-            .collect(Collectors.groupingBy(TravelLog::getDestination, 
-                     Collectors.summingDouble(TravelLog::getTotalCost)));
-        model.addAttribute("chartDataLabels", chartData.keySet());
-        model.addAttribute("chartDataValues", chartData.values());
+        // Data untuk Chart (Total Biaya per Destinasi): top-N dari database, sisanya "Lainnya"
+        List<DestinationTotal> chartData = analyticsService.getTopDestinations(user.getId(), CHART_DESTINATIONS);
+        model.addAttribute("chartDataLabels", chartData.stream().map(DestinationTotal::getDestination).toList());
+        model.addAttribute("chartDataValues", chartData.stream().map(DestinationTotal::getTotalCost).toList());
 
         return "pages/home";
     }
@@ -74,17 +119,19 @@ public class TravelLogController {
         User user = getAuthUser();
         try {
             TravelLog log = new TravelLog(user.getId(), form.getTitle(), form.getDestination(), 
-                                          form.getDescription(), form.getTotalCost(), form.getRating());
+                                          form.getDescription(), form.getTotalCost() != null ? form.getTotalCost() : 0L, form.getRating());
             
             // Simpan Gambar jika ada
             if (form.getImageFile() != null && !form.getImageFile().isEmpty()) {
-                String filename = fileService.storeFile(form.getImageFile(), UUID.randomUUID());
+                String filename = fileService.storeFile(form.getImageFile());
                 log.setImagePath(filename);
             } else {
                 log.setImagePath("default.jpg"); // Gambar placeholder
             }
 
-            service.save(log);
+            TravelLog saved = service.save(log);
+            // Varian kecil (grid/detail) dibuat di background setelah jurnal tersimpan
+            imageVariants.generate(user.getId(), saved.getId(), saved.getImagePath());
             ra.addFlashAttribute("success", "Jurnal berhasil disimpan!");
         } catch (Exception e) {
             ra.addFlashAttribute("error", "Gagal menyimpan: " + e.getMessage());
@@ -94,8 +141,21 @@ public class TravelLogController {
 
     // --- DETAIL DATA ---
     @GetMapping("/logs/{id}")
-    public String detail(@PathVariable UUID id, Model model) {
+    public String detail(@PathVariable UUID id, Model model, ServletWebRequest webRequest) {
         User user = getAuthUser();
+
+        // Conditional request: cukup baca updated_at jurnal sebelum memuat entity lengkap
+        if (!hasFlashMessage(webRequest)) {
+            LocalDateTime updatedAt = service.getUpdatedAt(user.getId(), id);
+            if (updatedAt == null) return "redirect:/";
+            String etag = ETagUtil.weak(user.getId(), user.getUpdatedAt(), id, updatedAt, webRequest.getSessionId());
+            LocalDateTime lastModified = user.getUpdatedAt() != null && user.getUpdatedAt().isAfter(updatedAt)
+                    ? user.getUpdatedAt() : updatedAt;
+            if (checkNotModified(webRequest, etag, lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())) {
+                return null;
+            }
+        }
+
         TravelLog log = service.getById(user.getId(), id);
         if (log == null) return "redirect:/";
         
@@ -116,9 +176,10 @@ public class TravelLogController {
         try {
             TravelLog log = service.getById(user.getId(), form.getId());
             if (form.getImageFile() != null && !form.getImageFile().isEmpty()) {
-                String filename = fileService.storeFile(form.getImageFile(), log.getId());
+                String filename = fileService.storeFile(form.getImageFile());
                 log.setImagePath(filename);
                 service.save(log);
+                imageVariants.generate(user.getId(), log.getId(), filename);
                 ra.addFlashAttribute("success", "Foto berhasil diperbarui!");
             }
         } catch (Exception e) {
@@ -136,16 +197,29 @@ public class TravelLogController {
         return "redirect:/";
     }
 
+    // --- AUTOCOMPLETE DESTINASI (untuk form di halaman web, pakai sesi login) ---
+    @GetMapping("/destinations/suggest")
+    @ResponseBody
+    public List<String> suggestDestinations(@RequestParam(name = "q", required = false) String query) {
+        User user = getAuthUser();
+        if (user == null) return List.of();
+        return destinationSuggestService.suggest(user.getId(), query, DestinationSuggestService.DEFAULT_LIMIT);
+    }
+
     // --- SERVE GAMBAR ---
+    // ?w= (lebar px) & ?q= (kualitas JPEG 30-95): di-resize saat pertama diminta lalu diambil dari cache disk.
+    // ?v= (versi dari ImageServingService.url) membuat respons boleh di-cache permanen oleh browser.
     @GetMapping("/images/{filename:.+}")
-    @ResponseBody
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
+    public void serveFile(@PathVariable String filename,
+                          @RequestParam(name = "w", required = false) Integer width,
+                          @RequestParam(name = "q", required = false) Integer quality,
+                          @RequestParam(name = "v", required = false) String version,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
-            Path file = fileService.loadFile(filename);
-            Resource resource = new UrlResource(file.toUri());
-            return ResponseEntity.ok().body(resource);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            imageServing.serve(filename, width, quality, version, request, response);
+        } catch (IOException e) {
+            // Klien yang memutus koneksi di tengah transfer juga berakhir di sini; cukup diabaikan
+            if (!response.isCommitted()) response.sendError(HttpServletResponse.SC_NOT_FOUND);
         }
     }
-}
\ No newline at end of file
+}
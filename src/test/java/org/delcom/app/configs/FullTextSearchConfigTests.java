@@ -0,0 +1,91 @@
+package org.delcom.app.configs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FullTextSearchConfigTests {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private FullTextSearchConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new FullTextSearchConfig(jdbcTemplate);
+        config.engine = "fts";
+        config.tsConfig = "indonesian";
+    }
+
+    @SuppressWarnings("unchecked")
+    private void databaseIs(String product) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(product);
+    }
+
+    @Test
+    @DisplayName("PostgreSQL: Kolom tsvector & index GIN dibuat lalu FTS aktif")
+    void testPostgresEnablesFullText() {
+        databaseIs("PostgreSQL");
+
+        config.run(new DefaultApplicationArguments());
+
+        assertTrue(config.isEnabled());
+        assertEquals("indonesian", config.getTsConfig());
+        verify(jdbcTemplate).execute(argThat((String sql) -> sql.contains("search_vector tsvector")
+                && sql.contains("'indonesian'::regconfig") && sql.contains("description")));
+        verify(jdbcTemplate).execute(argThat((String sql) -> sql.contains("USING GIN (search_vector)")));
+    }
+
+    @Test
+    @DisplayName("H2: Tetap memakai LIKE")
+    void testH2FallsBack() {
+        databaseIs("H2");
+
+        config.run(new DefaultApplicationArguments());
+
+        assertFalse(config.isEnabled());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("Engine like / konfigurasi tidak valid: Tidak menyentuh database")
+    void testDisabledByProperties() {
+        config.engine = "like";
+        config.run(new DefaultApplicationArguments());
+        assertFalse(config.isEnabled());
+
+        config.engine = "fts";
+        config.tsConfig = "indonesian'; DROP TABLE users; --";
+        config.run(new DefaultApplicationArguments());
+        assertFalse(config.isEnabled());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("DDL gagal: FTS tidak aktif, aplikasi tetap jalan")
+    void testDdlFailure() {
+        databaseIs("PostgreSQL");
+        doThrow(new DataAccessResourceFailureException("permission denied")).when(jdbcTemplate).execute(anyString());
+
+        config.run(new DefaultApplicationArguments());
+
+        assertFalse(config.isEnabled());
+    }
+}
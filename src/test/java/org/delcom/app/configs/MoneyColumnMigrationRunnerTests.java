@@ -0,0 +1,91 @@
+package org.delcom.app.configs;
+
+import org.delcom.app.services.TravelLogStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MoneyColumnMigrationRunnerTests {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TravelLogStatsService statsService;
+
+    private MoneyColumnMigrationRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new MoneyColumnMigrationRunner(jdbcTemplate, transactionManager, statsService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void databaseIs(String product) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(product);
+    }
+
+    private void columnType(String table, String type) {
+        when(jdbcTemplate.queryForList(MoneyColumnMigrationRunner.COLUMN_TYPE_SQL, String.class, table))
+                .thenReturn(type != null ? List.of(type) : List.of());
+    }
+
+    @Test
+    @DisplayName("PostgreSQL: Kolom double precision diubah ke bigint lalu statistik dihitung ulang")
+    void testMigratesDoubleColumns() {
+        databaseIs("PostgreSQL");
+        columnType("travel_logs", "double precision");
+        columnType("travel_log_stats", "double precision");
+
+        runner.afterPropertiesSet();
+
+        verify(jdbcTemplate).update("UPDATE travel_logs SET total_cost = 0 WHERE total_cost IS NULL");
+        verify(jdbcTemplate).execute(argThat((String sql) -> sql.startsWith("ALTER TABLE travel_logs ")
+                && sql.contains("TYPE bigint USING ROUND(total_cost)::bigint") && sql.contains("SET NOT NULL")));
+        verify(jdbcTemplate).execute(argThat((String sql) -> sql.startsWith("ALTER TABLE travel_log_stats ")));
+        verify(statsService).rebuild();
+    }
+
+    @Test
+    @DisplayName("PostgreSQL: Kolom yang sudah bigint tidak disentuh")
+    void testAlreadyMigrated() {
+        databaseIs("PostgreSQL");
+        columnType("travel_logs", "bigint");
+        columnType("travel_log_stats", null);
+
+        runner.afterPropertiesSet();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(statsService, never()).rebuild();
+    }
+
+    @Test
+    @DisplayName("H2: Tidak ada migrasi")
+    void testH2Skipped() {
+        databaseIs("H2");
+
+        runner.afterPropertiesSet();
+
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any(Object[].class));
+        verifyNoInteractions(statsService);
+    }
+}
@@ -0,0 +1,79 @@
+package org.delcom.app.controllers;
+
+import org.delcom.app.configs.ApiResponse;
+import org.delcom.app.configs.AuthContext;
+import org.delcom.app.dto.SpendingAnalytics;
+import org.delcom.app.entities.User;
+import org.delcom.app.services.TravelLogAnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AnalyticsControllerTests {
+
+    @Mock private TravelLogAnalyticsService analyticsService;
+    @Mock private AuthContext authContext;
+
+    @InjectMocks private AnalyticsController analyticsController;
+
+    private final User mockUser = new User("Tester", "tester@mail.com", "secret");
+
+    @BeforeEach
+    void setUp() {
+        mockUser.setId(UUID.randomUUID());
+        ReflectionTestUtils.setField(analyticsController, "authContext", authContext);
+    }
+
+    @Test
+    void spending_Unauthorized() {
+        when(authContext.isAuthenticated()).thenReturn(false);
+
+        ResponseEntity<ApiResponse<SpendingAnalytics>> response = analyticsController.spending("month", 120, 8);
+
+        assertEquals(401, response.getStatusCode().value());
+        verify(analyticsService, never()).getSpending(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void spending_InvalidGranularity() {
+        when(authContext.isAuthenticated()).thenReturn(true);
+        when(authContext.getAuthUser()).thenReturn(mockUser);
+
+        assertEquals(400, analyticsController.spending("hour", 120, 8).getStatusCode().value());
+        verify(analyticsService, never()).getSpending(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void spending_SuccessWithClampedParameters() {
+        when(authContext.isAuthenticated()).thenReturn(true);
+        when(authContext.getAuthUser()).thenReturn(mockUser);
+        SpendingAnalytics analytics = new SpendingAnalytics("week", List.of(), 0, List.of(), Map.of(), List.of());
+        when(analyticsService.getSpending(any(), any(), anyInt(), anyInt())).thenReturn(analytics);
+
+        ResponseEntity<ApiResponse<SpendingAnalytics>> response = analyticsController.spending("WEEK", 100000, 0);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(analytics, response.getBody().getData());
+        verify(analyticsService).getSpending(mockUser.getId(), "week", TravelLogAnalyticsService.MAX_POINTS, 1);
+
+        analyticsController.spending("day", 1, 500);
+        verify(analyticsService).getSpending(mockUser.getId(), "day", 3, TravelLogAnalyticsService.MAX_TOP_DESTINATIONS);
+    }
+}
@@ -0,0 +1,64 @@
+package org.delcom.app.controllers;
+
+import org.delcom.app.configs.ApiResponse;
+import org.delcom.app.configs.AuthContext;
+import org.delcom.app.entities.User;
+import org.delcom.app.services.DestinationSuggestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DestinationControllerTests {
+
+    @Mock private DestinationSuggestService destinationSuggestService;
+    @Mock private AuthContext authContext;
+
+    @InjectMocks private DestinationController destinationController;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(destinationController, "authContext", authContext);
+    }
+
+    @Test
+    void suggest_Unauthorized() {
+        when(authContext.isAuthenticated()).thenReturn(false);
+
+        ResponseEntity<ApiResponse<Map<String, List<String>>>> response = destinationController.suggest("ba", 8);
+
+        assertEquals(401, response.getStatusCode().value());
+        verify(destinationSuggestService, never()).suggest(any(), any(), anyInt());
+    }
+
+    @Test
+    void suggest_Success() {
+        User user = new User("Test User", "test@example.com", "secret");
+        user.setId(UUID.randomUUID());
+        when(authContext.isAuthenticated()).thenReturn(true);
+        when(authContext.getAuthUser()).thenReturn(user);
+        when(destinationSuggestService.suggest(user.getId(), "ba", 5)).thenReturn(List.of("Bandung", "Bali"));
+
+        ResponseEntity<ApiResponse<Map<String, List<String>>>> response = destinationController.suggest("ba", 5);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("success", response.getBody().getStatus());
+        assertEquals(List.of("Bandung", "Bali"), response.getBody().getData().get("suggestions"));
+    }
+}
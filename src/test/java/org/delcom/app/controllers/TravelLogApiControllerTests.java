@@ -0,0 +1,332 @@
+package org.delcom.app.controllers;
+
+import org.delcom.app.configs.AuthContext;
+import org.delcom.app.entities.User;
+import org.delcom.app.dto.TravelLogImportResult;
+import org.delcom.app.services.DestinationService;
+import org.delcom.app.services.DestinationSuggestService;
+import org.delcom.app.services.TravelLogCache;
+import org.delcom.app.services.TravelLogExportService;
+import org.delcom.app.services.TravelLogImportService;
+import org.delcom.app.services.TravelLogSearchBackend;
+import org.delcom.app.services.TravelLogService;
+import org.delcom.app.services.TravelLogStatsService;
+import org.delcom.app.dto.DestinationRenameForm;
+import org.delcom.app.dto.TravelLogBatchDeleteForm;
+import org.delcom.app.dto.TravelLogFieldsPage;
+import org.delcom.app.dto.TravelLogForm;
+import org.delcom.app.entities.TravelLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TravelLogApiControllerTests {
+
+    @Mock private TravelLogService travelLogService;
+    @Mock private TravelLogExportService exportService;
+    @Mock private TravelLogImportService importService;
+    @Mock private AuthContext authContext;
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private TravelLogApiController controller;
+
+    private User mockUser;
+
+    @BeforeEach
+    void setUp() {
+        controller = new TravelLogApiController(travelLogService, exportService, importService, VALIDATOR);
+        ReflectionTestUtils.setField(controller, "authContext", authContext);
+
+        mockUser = new User("Test User", "test@example.com", "secret");
+        mockUser.setId(UUID.randomUUID());
+    }
+
+    private void authenticated() {
+        when(authContext.isAuthenticated()).thenReturn(true);
+        when(authContext.getAuthUser()).thenReturn(mockUser);
+    }
+
+    @Test
+    void export_Unauthorized() {
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.export("ndjson").getStatusCode().value());
+    }
+
+    @Test
+    void export_InvalidFormat() {
+        authenticated();
+        assertEquals(400, controller.export("xml").getStatusCode().value());
+    }
+
+    @Test
+    void export_Ndjson() throws Exception {
+        authenticated();
+
+        ResponseEntity<?> response = controller.export("ndjson");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(TravelLogApiController.NDJSON, response.getHeaders().getContentType());
+        assertTrue(response.getHeaders().getFirst("Content-Disposition").contains("travel-logs.ndjson"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        verify(exportService).writeNdjson(mockUser.getId(), out);
+        verify(exportService, never()).writeCsv(any(), any());
+    }
+
+    @Test
+    void export_Csv() throws Exception {
+        authenticated();
+
+        ResponseEntity<?> response = controller.export("CSV");
+
+        assertEquals(TravelLogApiController.CSV, response.getHeaders().getContentType());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(out);
+        verify(exportService).writeCsv(mockUser.getId(), out);
+    }
+
+    @Test
+    void import_Unauthorized() throws Exception {
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.importLogs("csv", null, InputStream.nullInputStream()).getStatusCode().value());
+    }
+
+    @Test
+    void import_UnknownFormat() throws Exception {
+        authenticated();
+        assertEquals(400, controller.importLogs(null, "application/json", InputStream.nullInputStream()).getStatusCode().value());
+        assertEquals(400, controller.importLogs(null, null, InputStream.nullInputStream()).getStatusCode().value());
+    }
+
+    @Test
+    void import_CsvFromContentType() throws Exception {
+        authenticated();
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        TravelLogImportResult result = new TravelLogImportResult();
+        result.addImported(2);
+        result.addError(3, "Judul wajib diisi");
+        when(importService.importCsv(mockUser.getId(), body)).thenReturn(result);
+
+        var response = controller.importLogs(null, "text/csv; charset=UTF-8", body);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("Mengimpor 2 jurnal, 1 baris gagal", response.getBody().getMessage());
+        assertSame(result, response.getBody().getData());
+    }
+
+    @Test
+    void import_NdjsonAndBadHeader() throws Exception {
+        authenticated();
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        when(importService.importNdjson(mockUser.getId(), body)).thenReturn(new TravelLogImportResult());
+        when(importService.importCsv(mockUser.getId(), body)).thenThrow(new IllegalArgumentException("File CSV kosong"));
+
+        assertEquals("Berhasil mengimpor 0 jurnal", controller.importLogs(null, "application/x-ndjson", body).getBody().getMessage());
+        var bad = controller.importLogs("CSV", null, body);
+        assertEquals(400, bad.getStatusCode().value());
+        assertEquals("File CSV kosong", bad.getBody().getMessage());
+    }
+
+    @Test
+    void import_UnterminatedQuoteKeepsReport() throws Exception {
+        authenticated();
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[1]);
+        TravelLogImportService realImport = new TravelLogImportService(jdbcTemplate, mock(PlatformTransactionManager.class),
+                VALIDATOR, new ObjectMapper(), mock(TravelLogStatsService.class), mock(TravelLogSearchBackend.class),
+                mock(DestinationSuggestService.class), mock(TravelLogCache.class), mock(DestinationService.class), 100);
+        controller = new TravelLogApiController(travelLogService, exportService, realImport, VALIDATOR);
+        ReflectionTestUtils.setField(controller, "authContext", authContext);
+        InputStream body = new ByteArrayInputStream("title,destination,total_cost\nA,Bali,1\nB,\"Bali,1\n".getBytes(StandardCharsets.UTF_8));
+
+        var response = controller.importLogs("csv", null, body);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("Mengimpor 1 jurnal, 1 baris gagal", response.getBody().getMessage());
+        TravelLogImportResult result = (TravelLogImportResult) response.getBody().getData();
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals("Tanda kutip pada CSV tidak ditutup", result.getErrors().get(0).getMessage());
+    }
+
+    // ========================================================================
+    // CRUD
+    // ========================================================================
+    private TravelLogForm form(String title, Long cost) {
+        TravelLogForm form = new TravelLogForm();
+        form.setTitle(title);
+        form.setDestination("Bali");
+        form.setTotalCost(cost);
+        form.setRating(5);
+        return form;
+    }
+
+    @Test
+    void getLogs_DefaultAndCustomFields() {
+        authenticated();
+        TravelLogFieldsPage page = new TravelLogFieldsPage(List.of(Map.of("id", UUID.randomUUID())), "next");
+        when(travelLogService.getFieldsPage(eq(mockUser.getId()), anyList(), any(), anyInt())).thenReturn(page);
+
+        var response = controller.getLogs(null, 500, null);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("next", response.getBody().getData().get("nextCursor"));
+        verify(travelLogService).getFieldsPage(mockUser.getId(), TravelLogApiController.DEFAULT_FIELDS, null, TravelLogApiController.MAX_LIMIT);
+
+        controller.getLogs("abc", 0, " title, totalCost,title ,");
+        verify(travelLogService).getFieldsPage(mockUser.getId(), List.of("title", "totalCost"), "abc", 1);
+    }
+
+    @Test
+    void getLogs_InvalidFieldOrUnauthorized() {
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.getLogs(null, 20, null).getStatusCode().value());
+
+        authenticated();
+        assertEquals(400, controller.getLogs(null, 20, "title,password").getStatusCode().value());
+        verify(travelLogService, never()).getFieldsPage(any(), anyList(), any(), anyInt());
+    }
+
+    @Test
+    void getLog_FoundAndNotFound() {
+        UUID id = UUID.randomUUID();
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.getLog(id, null).getStatusCode().value());
+
+        authenticated();
+        when(travelLogService.getFieldsById(eq(mockUser.getId()), eq(id), anyList())).thenReturn(Map.of("id", id));
+        assertEquals(200, controller.getLog(id, null).getStatusCode().value());
+        verify(travelLogService).getFieldsById(mockUser.getId(), id, org.delcom.app.repositories.TravelLogRepositoryCustom.SELECTABLE_FIELDS);
+
+        UUID missing = UUID.randomUUID();
+        when(travelLogService.getFieldsById(eq(mockUser.getId()), eq(missing), anyList())).thenReturn(null);
+        assertEquals(404, controller.getLog(missing, "title").getStatusCode().value());
+        assertEquals(400, controller.getLog(id, "bogus").getStatusCode().value());
+    }
+
+    @Test
+    void createLog_ValidatesAndSaves() {
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.createLog(form("A", 1L)).getStatusCode().value());
+
+        authenticated();
+        var invalid = controller.createLog(form(" ", -5L));
+        assertEquals(400, invalid.getStatusCode().value());
+        assertEquals("Judul wajib diisi", invalid.getBody().getMessage());
+        assertEquals(400, controller.createLog(null).getStatusCode().value());
+
+        UUID newId = UUID.randomUUID();
+        when(travelLogService.save(any(TravelLog.class))).thenAnswer(inv -> {
+            TravelLog log = inv.getArgument(0);
+            log.setId(newId);
+            return log;
+        });
+        var created = controller.createLog(form("Pantai", 100L));
+        assertEquals(200, created.getStatusCode().value());
+        assertEquals(newId, created.getBody().getData().get("id"));
+        verify(travelLogService).save(argThat(log -> log.getUserId().equals(mockUser.getId())
+                && "default.jpg".equals(log.getImagePath())));
+    }
+
+    @Test
+    void updateLog_NotFoundInvalidAndSuccess() {
+        UUID id = UUID.randomUUID();
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.updateLog(id, form("A", 1L)).getStatusCode().value());
+
+        authenticated();
+        assertEquals(400, controller.updateLog(id, form("A", null)).getStatusCode().value());
+        assertEquals(404, controller.updateLog(id, form("A", 1L)).getStatusCode().value());
+
+        TravelLog existing = new TravelLog(mockUser.getId(), "Lama", "Solo", "", 1L, 3);
+        when(travelLogService.getById(mockUser.getId(), id)).thenReturn(existing);
+        assertEquals(200, controller.updateLog(id, form("Baru", 9L)).getStatusCode().value());
+        assertEquals("Baru", existing.getTitle());
+        assertEquals("Bali", existing.getDestination());
+        assertEquals(9L, existing.getTotalCost());
+        verify(travelLogService).save(existing);
+    }
+
+    @Test
+    void deleteLog_NotFoundAndSuccess() {
+        UUID id = UUID.randomUUID();
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.deleteLog(id).getStatusCode().value());
+
+        authenticated();
+        assertEquals(404, controller.deleteLog(id).getStatusCode().value());
+        verify(travelLogService, never()).delete(any(), any());
+
+        when(travelLogService.getById(mockUser.getId(), id)).thenReturn(new TravelLog());
+        assertEquals(200, controller.deleteLog(id).getStatusCode().value());
+        verify(travelLogService).delete(mockUser.getId(), id);
+    }
+
+    // ========================================================================
+    // OPERASI MASSAL
+    // ========================================================================
+    @Test
+    void deleteLogs_ValidatesAndDeletes() {
+        TravelLogBatchDeleteForm form = new TravelLogBatchDeleteForm();
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.deleteLogs(form).getStatusCode().value());
+
+        authenticated();
+        assertEquals(400, controller.deleteLogs(form).getStatusCode().value());
+        form.setIds(java.util.Collections.nCopies(TravelLogBatchDeleteForm.MAX_IDS + 1, UUID.randomUUID()));
+        assertEquals(400, controller.deleteLogs(form).getStatusCode().value());
+        verify(travelLogService, never()).deleteAll(any(), anyList());
+
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        form.setIds(ids);
+        when(travelLogService.deleteAll(mockUser.getId(), ids)).thenReturn(2);
+        var response = controller.deleteLogs(form);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(2, response.getBody().getData().get("deleted"));
+    }
+
+    @Test
+    void renameDestination_ValidatesAndUpdates() {
+        DestinationRenameForm form = new DestinationRenameForm();
+        form.setFrom("Jogja");
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.renameDestination(form).getStatusCode().value());
+
+        authenticated();
+        var invalid = controller.renameDestination(form);
+        assertEquals(400, invalid.getStatusCode().value());
+        assertEquals("Destinasi baru wajib diisi", invalid.getBody().getMessage());
+
+        form.setTo("Yogyakarta");
+        when(travelLogService.renameDestination(mockUser.getId(), "Jogja", "Yogyakarta")).thenReturn(4);
+        var response = controller.renameDestination(form);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(4, response.getBody().getData().get("updated"));
+    }
+}
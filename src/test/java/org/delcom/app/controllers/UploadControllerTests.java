@@ -0,0 +1,180 @@
+package org.delcom.app.controllers;
+
+import org.delcom.app.configs.AuthContext;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.entities.User;
+import org.delcom.app.services.ImageVariantService;
+import org.delcom.app.services.ResumableUploadService;
+import org.delcom.app.services.TravelLogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UploadControllerTests {
+
+    @Mock private ResumableUploadService uploads;
+    @Mock private TravelLogService travelLogService;
+    @Mock private ImageVariantService imageVariants;
+    @Mock private AuthContext authContext;
+
+    private UploadController controller;
+    private User mockUser;
+    private TravelLog log;
+    private final InputStream body = new ByteArrayInputStream(new byte[10]);
+
+    @BeforeEach
+    void setUp() {
+        controller = new UploadController(uploads, travelLogService, imageVariants);
+        ReflectionTestUtils.setField(controller, "authContext", authContext);
+
+        mockUser = new User("Test User", "test@example.com", "secret");
+        mockUser.setId(UUID.randomUUID());
+        when(authContext.isAuthenticated()).thenReturn(true);
+        when(authContext.getAuthUser()).thenReturn(mockUser);
+
+        log = new TravelLog(mockUser.getId(), "Bali", "Bali", "desc", 0L, 5);
+        log.setId(UUID.randomUUID());
+        when(travelLogService.getById(mockUser.getId(), log.getId())).thenReturn(log);
+        when(uploads.getMaxSize()).thenReturn(1000L);
+    }
+
+    private static String b64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ResumableUploadService.Upload upload(long offset, String storedAs) {
+        return new ResumableUploadService.Upload("abc", mockUser.getId(), log.getId(), "pantai.jpg", 100, offset, storedAs);
+    }
+
+    @Test
+    void create_Unauthorized() throws Exception {
+        when(authContext.isAuthenticated()).thenReturn(false);
+        assertEquals(401, controller.create("1.0.0", 100L, "logId " + b64(log.getId().toString())).getStatusCode().value());
+    }
+
+    @Test
+    void create_Success() throws Exception {
+        when(uploads.create(mockUser.getId(), log.getId(), "pantai.jpg", 100)).thenReturn(upload(0, null));
+
+        ResponseEntity<?> response = controller.create("1.0.0", 100L,
+                "logId " + b64(log.getId().toString()) + ",filename " + b64("pantai.jpg"));
+
+        assertEquals(201, response.getStatusCode().value());
+        assertEquals("/api/uploads/abc", response.getHeaders().getFirst(HttpHeaders.LOCATION));
+        assertEquals("1.0.0", response.getHeaders().getFirst(UploadController.TUS_RESUMABLE));
+    }
+
+    @Test
+    void create_Invalid() throws Exception {
+        assertEquals(400, controller.create("1.0.0", null, "logId " + b64(log.getId().toString())).getStatusCode().value());
+        assertEquals(400, controller.create("1.0.0", 100L, "filename " + b64("a.jpg")).getStatusCode().value());
+        assertEquals(400, controller.create("1.0.0", 100L, "logId %%%").getStatusCode().value());
+        assertEquals(413, controller.create("1.0.0", 5000L, "logId " + b64(log.getId().toString())).getStatusCode().value());
+        assertEquals(404, controller.create("1.0.0", 100L, "logId " + b64(UUID.randomUUID().toString())).getStatusCode().value());
+        assertEquals(412, controller.create("0.2.2", 100L, "logId " + b64(log.getId().toString())).getStatusCode().value());
+        verify(uploads, never()).create(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void create_Limits() throws Exception {
+        String metadata = "logId " + b64(log.getId().toString());
+        when(uploads.create(any(), any(), any(), eq(100L)))
+                .thenThrow(new ResumableUploadService.TooManySessionsException("Maksimal 5 upload yang belum selesai"));
+        when(uploads.create(any(), any(), any(), eq(200L)))
+                .thenThrow(new ResumableUploadService.CapacityExceededException("Kapasitas upload server sedang penuh"));
+
+        assertEquals(429, controller.create("1.0.0", 100L, metadata).getStatusCode().value());
+        assertEquals(413, controller.create("1.0.0", 200L, metadata).getStatusCode().value());
+    }
+
+    @Test
+    void offset_Success() throws Exception {
+        when(uploads.get(mockUser.getId(), "abc")).thenReturn(upload(40, null));
+
+        ResponseEntity<?> response = controller.offset("abc", "1.0.0");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("40", response.getHeaders().getFirst(UploadController.UPLOAD_OFFSET));
+        assertEquals("100", response.getHeaders().getFirst(UploadController.UPLOAD_LENGTH));
+        assertEquals("no-store", response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL));
+        assertEquals(404, controller.offset("xyz", "1.0.0").getStatusCode().value());
+    }
+
+    @Test
+    void append_Partial() throws Exception {
+        when(uploads.append(mockUser.getId(), "abc", 0L, body)).thenReturn(upload(10, null));
+
+        ResponseEntity<?> response = controller.append("abc", "1.0.0", UploadController.OFFSET_OCTET_STREAM, 0L, body);
+
+        assertEquals(204, response.getStatusCode().value());
+        assertEquals("10", response.getHeaders().getFirst(UploadController.UPLOAD_OFFSET));
+        verify(travelLogService, never()).save(any());
+    }
+
+    @Test
+    void append_CompleteAttachesCover() throws Exception {
+        when(uploads.append(mockUser.getId(), "abc", 90L, body)).thenReturn(upload(100, "hash.jpg"));
+
+        ResponseEntity<?> response = controller.append("abc", "1.0.0", UploadController.OFFSET_OCTET_STREAM, 90L, body);
+
+        assertEquals(204, response.getStatusCode().value());
+        assertEquals("hash.jpg", log.getImagePath());
+        verify(travelLogService).save(log);
+        verify(imageVariants).generate(mockUser.getId(), log.getId(), "hash.jpg");
+    }
+
+    @Test
+    void append_Errors() throws Exception {
+        assertEquals(415, controller.append("abc", "1.0.0", "image/jpeg", 0L, body).getStatusCode().value());
+        assertEquals(400, controller.append("abc", "1.0.0", UploadController.OFFSET_OCTET_STREAM, null, body).getStatusCode().value());
+
+        when(uploads.append(any(), eq("abc"), eq(5L), any()))
+                .thenThrow(new ResumableUploadService.ConflictException("Offset tidak cocok"));
+        assertEquals(409, controller.append("abc", "1.0.0", UploadController.OFFSET_OCTET_STREAM, 5L, body).getStatusCode().value());
+
+        when(uploads.append(any(), eq("abc"), eq(0L), any())).thenThrow(new IllegalArgumentException("kelebihan"));
+        assertEquals(413, controller.append("abc", "1.0.0", UploadController.OFFSET_OCTET_STREAM, 0L, body).getStatusCode().value());
+
+        assertEquals(404, controller.append("xyz", "1.0.0", UploadController.OFFSET_OCTET_STREAM, 0L, body).getStatusCode().value());
+    }
+
+    @Test
+    void cancel_And_Options() throws Exception {
+        when(uploads.delete(mockUser.getId(), "abc")).thenReturn(true);
+
+        assertEquals(204, controller.cancel("abc", "1.0.0").getStatusCode().value());
+        assertEquals(404, controller.cancel("xyz", "1.0.0").getStatusCode().value());
+
+        ResponseEntity<Void> options = controller.options();
+        assertEquals("creation,termination", options.getHeaders().getFirst("Tus-Extension"));
+        assertEquals("1000", options.getHeaders().getFirst("Tus-Max-Size"));
+    }
+
+    @Test
+    void parseMetadata() {
+        Map<String, String> meta = UploadController.parseMetadata("logId " + b64("x") + ", empty");
+        assertEquals("x", meta.get("logId"));
+        assertEquals("", meta.get("empty"));
+        assertNull(UploadController.parseMetadata("a !!"));
+    }
+}
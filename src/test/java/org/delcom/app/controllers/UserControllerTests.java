@@ -20,11 +20,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -186,6 +187,23 @@ class UserControllerTests {
         assertEquals(200, userController.getUserInfo().getStatusCode().value());
     }
 
+    @Test
+    void testGetUserInfo_ValidatorHeaders() {
+        when(authContext.isAuthenticated()).thenReturn(true);
+        when(authContext.getAuthUser()).thenReturn(mockUser);
+
+        ResponseEntity<?> first = userController.getUserInfo();
+        assertNotNull(first.getHeaders().getETag());
+        assertEquals("no-cache, private", first.getHeaders().getCacheControl());
+        assertEquals(-1, first.getHeaders().getLastModified());
+
+        // ETag berubah setelah profil diperbarui
+        ReflectionTestUtils.setField(mockUser, "updatedAt", LocalDateTime.now());
+        ResponseEntity<?> second = userController.getUserInfo();
+        assertNotEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertTrue(second.getHeaders().getLastModified() > 0);
+    }
+
     // ========================================================================
     // 4. UPDATE USER TESTS (Menutup Branch Validasi & Unauthorized)
     // ========================================================================
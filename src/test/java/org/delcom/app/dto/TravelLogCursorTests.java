@@ -0,0 +1,45 @@
+package org.delcom.app.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TravelLogCursorTests {
+
+    @Test
+    @DisplayName("Encode lalu Decode menghasilkan posisi yang sama")
+    void testRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 17, 8, 30, 0, 123456000);
+        UUID id = UUID.randomUUID();
+
+        TravelLogCursor decoded = TravelLogCursor.decode(new TravelLogCursor(createdAt, id).encode());
+
+        assertNotNull(decoded);
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(id, decoded.getId());
+        assertNull(decoded.getRank());
+    }
+
+    @Test
+    @DisplayName("Cursor hasil full-text search membawa rank tanpa kehilangan presisi")
+    void testRoundTripWithRank() {
+        float rank = 0.0607927f;
+        TravelLogCursor decoded = TravelLogCursor.decode(new TravelLogCursor(LocalDateTime.now(), UUID.randomUUID(), rank).encode());
+
+        assertNotNull(decoded);
+        assertEquals(rank, decoded.getRank());
+    }
+
+    @Test
+    @DisplayName("Decode cursor kosong atau rusak menghasilkan null")
+    void testDecodeInvalid() {
+        assertNull(TravelLogCursor.decode(null));
+        assertNull(TravelLogCursor.decode("  "));
+        assertNull(TravelLogCursor.decode("%%%"));
+        assertNull(TravelLogCursor.decode("dGFucGEtcGVtaXNhaA")); // "tanpa-pemisah"
+    }
+}
@@ -22,7 +22,7 @@ class TravelLogFormTests {
         String title = "Liburan Musim Panas";
         String destination = "Raja Ampat";
         String description = "Pemandangan bawah laut yang indah";
-        Double totalCost = 15000000.0;
+        Long totalCost = 15000000L;
         Integer rating = 5;
         
         // Mock MultipartFile (karena interface)
@@ -0,0 +1,33 @@
+package org.delcom.app.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TravelLogSummaryTests {
+
+    private TravelLogSummary summary(String excerpt) {
+        return new TravelLogSummary(UUID.randomUUID(), "Trip", "Bali", excerpt, "a.jpg", null, 100L, 4, LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Excerpt: Cerita pendek tidak diubah")
+    void testShortExcerpt() {
+        assertEquals("Pantai indah", summary("Pantai indah").getExcerpt());
+        assertNull(summary(null).getExcerpt());
+    }
+
+    @Test
+    @DisplayName("Excerpt: Cerita lebih panjang dari batas diberi elipsis")
+    void testLongExcerpt() {
+        String excerpt = summary("a".repeat(TravelLogSummary.EXCERPT_LENGTH + 1)).getExcerpt();
+
+        assertEquals(TravelLogSummary.EXCERPT_LENGTH + 1, excerpt.length());
+        assertTrue(excerpt.endsWith("…"));
+        assertEquals("a".repeat(TravelLogSummary.EXCERPT_LENGTH), summary("a".repeat(TravelLogSummary.EXCERPT_LENGTH)).getExcerpt());
+    }
+}
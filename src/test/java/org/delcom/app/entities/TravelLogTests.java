@@ -18,7 +18,7 @@ class TravelLogTests {
         String title = "Liburan Keluarga";
         String destination = "Yogyakarta";
         String description = "Jalan-jalan ke Malioboro";
-        Double totalCost = 2500000.0;
+        Long totalCost = 2500000L;
         Integer rating = 5;
 
         // Act
@@ -47,9 +47,10 @@ class TravelLogTests {
         log.setUserId(userId);
         log.setTitle("Trip Solo");
         log.setDestination("Solo");
+        log.setDestinationId(7L);
         log.setDescription("Kuliner enak");
         log.setImagePath(imagePath);
-        log.setTotalCost(150000.0);
+        log.setTotalCost(150000L);
         log.setRating(4);
 
         // Assert
@@ -57,9 +58,10 @@ class TravelLogTests {
         assertEquals(userId, log.getUserId());
         assertEquals("Trip Solo", log.getTitle());
         assertEquals("Solo", log.getDestination());
+        assertEquals(7L, log.getDestinationId());
         assertEquals("Kuliner enak", log.getDescription());
         assertEquals(imagePath, log.getImagePath());
-        assertEquals(150000.0, log.getTotalCost());
+        assertEquals(150000L, log.getTotalCost());
         assertEquals(4, log.getRating());
     }
 
@@ -106,4 +108,20 @@ class TravelLogTests {
         log.onUpdate();
         assertEquals(createdAt, log.getCreatedAt(), "CreatedAt tidak boleh berubah saat onUpdate");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test markPersistedState (@PostLoad) menyimpan destinasi & id kanonik")
+    void testMarkPersistedState() {
+        TravelLog log = new TravelLog(UUID.randomUUID(), "Trip", "Bali", "", 100L, 5);
+        log.setDestinationId(3L);
+
+        log.markPersistedState();
+        log.setDestination("Lombok");
+        log.setDestinationId(4L);
+
+        assertTrue(log.isPersistedStateKnown());
+        assertEquals("Bali", log.getPersistedDestination());
+        assertEquals(3L, log.getPersistedDestinationId());
+        assertEquals(100L, log.getPersistedTotalCost());
+    }
+}
@@ -0,0 +1,107 @@
+package org.delcom.app.repositories;
+
+import org.delcom.app.configs.FullTextSearchConfig;
+import org.delcom.app.dto.DestinationCount;
+import org.delcom.app.dto.RankedId;
+import org.delcom.app.dto.TravelLogSummary;
+import org.delcom.app.entities.TravelLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(FullTextSearchConfig.class)
+class TravelLogRepositoryTests extends PostgresRepositoryTest {
+
+    @Autowired private TravelLogRepository repository;
+    @Autowired private FullTextSearchConfig fullTextSearch;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // Kolom search_vector & index GIN dibuat seperti saat aplikasi start
+        fullTextSearch.run(null);
+        assertTrue(fullTextSearch.isEnabled());
+    }
+
+    private TravelLog log(UUID owner, String title, String description, long cost) {
+        return repository.save(new TravelLog(owner, title, "Bali", description, cost, 5));
+    }
+
+    @Test
+    @DisplayName("Keyset: Halaman berikutnya melanjutkan tepat setelah (createdAt, id) baris terakhir")
+    void testKeysetPages() {
+        for (int i = 0; i < 5; i++) log(userId, "Trip " + i, "cerita", 10L);
+        log(UUID.randomUUID(), "Trip lain", "cerita", 10L);
+        repository.flush();
+
+        List<TravelLogSummary> first = repository.findFirstPage(userId, Limit.of(3));
+        TravelLogSummary last = first.get(2);
+        List<TravelLogSummary> second = repository.findPageAfter(userId, last.getCreatedAt(), last.getId(), Limit.of(3));
+
+        assertEquals(3, first.size());
+        assertEquals(2, second.size());
+        List<UUID> all = new ArrayList<>();
+        first.forEach(summary -> all.add(summary.getId()));
+        second.forEach(summary -> all.add(summary.getId()));
+        assertEquals(5, all.stream().distinct().count());
+    }
+
+    @Test
+    @DisplayName("FTS: Halaman diurutkan berdasarkan relevansi, keyset (rank, id) tidak melompati atau mengulang baris")
+    void testFullTextPagesByRank() {
+        // Paling lama tetapi paling relevan (kata kunci di judul berbobot A)
+        TravelLog best = log(userId, "Pantai Kuta", "Pantai pasir putih dan pantai berombak", 100L);
+        for (int i = 0; i < 4; i++) log(userId, "Trip " + i, "Sore hari kami ke pantai", 10L);
+        log(userId, "Kuliner", "Makan nasi liwet", 999L);
+        log(UUID.randomUUID(), "Pantai", "pantai", 999L);
+        repository.flush();
+
+        String config = fullTextSearch.getTsConfig();
+        List<RankedId> all = new ArrayList<>(repository.fullTextSearchFirstPage(userId, config, "pantai", 2));
+        while (true) {
+            RankedId last = all.get(all.size() - 1);
+            List<RankedId> next = repository.fullTextSearchPageAfter(userId, config, "pantai", last.getRank(), last.getId(), 2);
+            if (next.isEmpty()) break;
+            all.addAll(next);
+        }
+
+        assertEquals(5, all.size());
+        assertEquals(5, all.stream().map(RankedId::getId).distinct().count());
+        assertEquals(best.getId(), all.get(0).getId());
+        // Rank sama (empat jurnal dengan teks serupa) diurutkan dengan id; PostgreSQL membandingkan uuid
+        // per byte tanpa tanda, sama dengan urutan teks hex (bukan UUID.compareTo)
+        List<RankedId> expected = new ArrayList<>(all);
+        expected.sort(Comparator.comparing(RankedId::getRank).reversed()
+                .thenComparing(row -> row.getId().toString(), Comparator.reverseOrder()));
+        assertEquals(expected.stream().map(RankedId::getId).toList(), all.stream().map(RankedId::getId).toList());
+
+        assertEquals(140L, repository.fullTextSumTotalCost(userId, config, "pantai"));
+        assertEquals(best.getId(), repository.fullTextSearch(userId, config, "pantai").get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Autocomplete: Hitungan destinasi hanya dari jurnal user itu, penulisan terbanyak lebih dulu")
+    void testCountByDestinationForUser() {
+        repository.save(new TravelLog(userId, "a", "bali", "", 1L, 5));
+        repository.save(new TravelLog(userId, "b", "Bali", "", 1L, 5));
+        repository.save(new TravelLog(userId, "c", "Bali", "", 1L, 5));
+        repository.save(new TravelLog(UUID.randomUUID(), "d", "Rumah Pak Budi", "", 1L, 5));
+        repository.flush();
+
+        List<DestinationCount> counts = repository.countByDestinationForUser(userId);
+
+        assertEquals(List.of("Bali", "bali"), counts.stream().map(DestinationCount::getDestination).toList());
+        assertEquals(List.of(2L, 1L), counts.stream().map(DestinationCount::getCount).toList());
+    }
+}
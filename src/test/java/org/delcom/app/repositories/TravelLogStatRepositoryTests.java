@@ -0,0 +1,95 @@
+package org.delcom.app.repositories;
+
+import org.delcom.app.entities.Destination;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.entities.TravelLogStat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TravelLogStatRepositoryTests extends PostgresRepositoryTest {
+
+    @Autowired private TravelLogStatRepository statRepository;
+    @Autowired private TravelLogRepository logRepository;
+    @Autowired private DestinationRepository destinationRepository;
+
+    private final UUID userId = UUID.randomUUID();
+    private Long bali;
+    private Long solo;
+
+    @BeforeEach
+    void setUp() {
+        bali = destinationRepository.save(new Destination("bali", "Bali")).getId();
+        solo = destinationRepository.save(new Destination("solo", "Solo")).getId();
+    }
+
+    private void log(UUID owner, String destination, Long destinationId, long cost) {
+        TravelLog log = new TravelLog(owner, "Liburan", destination, "desc", cost, 5);
+        log.setDestinationId(destinationId);
+        logRepository.save(log);
+    }
+
+    @Test
+    @DisplayName("Upsert: Baris dibuat pada penulisan pertama, penulisan berikutnya menambah")
+    void testUpsertDelta() {
+        statRepository.upsertDelta(userId, bali, "Bali", 100L, 1L);
+        statRepository.upsertDelta(userId, bali, "Bali", 250L, 1L);
+
+        List<TravelLogStat> stats = statRepository.findByUserIdOrderByTotalCostDesc(userId);
+        assertEquals(1, stats.size());
+        assertEquals(350L, stats.get(0).getTotalCost());
+        assertEquals(2L, stats.get(0).getLogCount());
+
+        // Pengurangan sampai nol menghapus baris
+        assertEquals(1, statRepository.applyDelta(userId, bali, -350L, -2L));
+        statRepository.deleteIfEmpty(userId, bali);
+        assertTrue(statRepository.findByUserIdOrderByTotalCostDesc(userId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Rebuild: Agregasi per user menimpa baris yang sudah ada, user lain tidak tersentuh")
+    void testInsertAggregatesByUserId() {
+        UUID other = UUID.randomUUID();
+        log(userId, "bali", bali, 100L);
+        log(userId, "bali", bali, 50L);
+        log(userId, "Solo", solo, 30L);
+        log(other, "Bali", bali, 999L);
+        logRepository.flush();
+        // Baris lama yang sudah tidak sesuai ditimpa, bukan ditolak unique constraint
+        statRepository.upsertDelta(userId, bali, "Bali", 1L, 1L);
+
+        statRepository.insertAggregatesByUserId(userId);
+
+        List<TravelLogStat> stats = statRepository.findByUserIdOrderByTotalCostDesc(userId);
+        assertEquals(2, stats.size());
+        // Label dari penulisan user sendiri yang paling sering, bukan nama global destinasi
+        assertEquals("bali", stats.get(0).getDestination());
+        assertEquals(150L, stats.get(0).getTotalCost());
+        assertEquals(2L, stats.get(0).getLogCount());
+        assertEquals(30L, stats.get(1).getTotalCost());
+        assertTrue(statRepository.findByUserIdOrderByTotalCostDesc(other).isEmpty());
+
+        statRepository.deleteAllStats();
+        assertEquals(3, statRepository.insertAggregates());
+        assertEquals(999L, statRepository.findByUserIdOrderByTotalCostDesc(other).get(0).getTotalCost());
+        assertEquals("Bali", statRepository.findByUserIdOrderByTotalCostDesc(other).get(0).getDestination());
+    }
+
+    @Test
+    @DisplayName("Destinasi: Insert ganda untuk canonical_key yang sama tidak error dan tidak membatalkan transaksi")
+    void testInsertIfAbsent() {
+        assertEquals(1, destinationRepository.insertIfAbsent("lombok", "Lombok", LocalDateTime.now()));
+        assertEquals(0, destinationRepository.insertIfAbsent("lombok", "LOMBOK", LocalDateTime.now()));
+        assertEquals(0, destinationRepository.insertIfAbsent("bali", "BALI", LocalDateTime.now()));
+
+        assertEquals("Lombok", destinationRepository.findByCanonicalKey("lombok").orElseThrow().getName());
+        assertEquals(bali, destinationRepository.findByCanonicalKey("bali").orElseThrow().getId());
+    }
+}
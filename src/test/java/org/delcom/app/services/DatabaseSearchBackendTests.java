@@ -0,0 +1,110 @@
+package org.delcom.app.services;
+
+import org.delcom.app.configs.FullTextSearchConfig;
+import org.delcom.app.dto.RankedId;
+import org.delcom.app.dto.TravelLogCursor;
+import org.delcom.app.dto.TravelLogSummary;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DatabaseSearchBackendTests {
+
+    @Mock
+    private TravelLogRepository repository;
+
+    @Mock
+    private FullTextSearchConfig fullTextSearch;
+
+    @InjectMocks
+    private DatabaseSearchBackend backend;
+
+    private final UUID userId = UUID.randomUUID();
+    private final TravelLogCursor cursor = new TravelLogCursor(LocalDateTime.now(), UUID.randomUUID());
+
+    private TravelLogSummary summary(UUID id) {
+        return new TravelLogSummary(id, "Trip", "Bali", "", null, null, 0L, 5, LocalDateTime.now());
+    }
+
+    private static RankedId rankedId(UUID id, float rank) {
+        return new RankedId() {
+            @Override public UUID getId() { return id; }
+            @Override public float getRank() { return rank; }
+        };
+    }
+
+    private void fullTextEnabled() {
+        when(fullTextSearch.isEnabled()).thenReturn(true);
+        when(fullTextSearch.getTsConfig()).thenReturn("indonesian");
+    }
+
+    @Test
+    @DisplayName("LIKE: Search, halaman dan total memakai query LIKE")
+    void testLikeFallback() {
+        List<TravelLog> rows = List.of(new TravelLog());
+        List<TravelLogSummary> summaries = List.of(summary(UUID.randomUUID()));
+        when(repository.search(userId, "Bali")).thenReturn(rows);
+        when(repository.searchFirstPage(userId, "Bali", Limit.of(4))).thenReturn(summaries);
+        when(repository.searchPageAfter(userId, "Bali", cursor.getCreatedAt(), cursor.getId(), Limit.of(4))).thenReturn(summaries);
+        when(repository.sumTotalCostByKeyword(userId, "Bali")).thenReturn(700L);
+
+        assertEquals(rows, backend.search(userId, "Bali"));
+        assertEquals(summaries, backend.searchPage(userId, "Bali", null, 4));
+        assertEquals(summaries, backend.searchPage(userId, "Bali", cursor, 4));
+        assertEquals(700L, backend.sumTotalCost(userId, "Bali"));
+        verify(repository, never()).fullTextSearch(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("LIKE: Tanpa jurnal yang cocok totalnya nol (COALESCE di query)")
+    void testLikeTotalEmpty() {
+        when(repository.sumTotalCostByKeyword(userId, "x")).thenReturn(0L);
+
+        assertEquals(0L, backend.sumTotalCost(userId, "x"));
+    }
+
+    @Test
+    @DisplayName("FTS: Search, halaman dan total memakai query full-text")
+    void testFullText() {
+        fullTextEnabled();
+        List<TravelLog> rows = List.of(new TravelLog());
+        UUID best = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        TravelLogCursor ranked = new TravelLogCursor(LocalDateTime.now(), other, 0.5f);
+        when(repository.fullTextSearch(userId, "indonesian", "pantai")).thenReturn(rows);
+        when(repository.fullTextSearchFirstPage(userId, "indonesian", "pantai", 4))
+                .thenReturn(List.of(rankedId(best, 0.9f), rankedId(other, 0.5f)));
+        when(repository.fullTextSearchPageAfter(userId, "indonesian", "pantai", 0.5f, other, 4)).thenReturn(List.of());
+        // Urutan dari database tidak dijamin sama dengan urutan id
+        when(repository.findSummariesByIdIn(userId, List.of(best, other))).thenReturn(List.of(summary(other), summary(best)));
+        when(repository.fullTextSumTotalCost(userId, "indonesian", "pantai")).thenReturn(900L);
+
+        assertEquals(rows, backend.search(userId, "pantai"));
+        List<TravelLogSummary> page = backend.searchPage(userId, "pantai", null, 4);
+        assertEquals(List.of(best, other), page.stream().map(TravelLogSummary::getId).toList());
+        assertEquals(List.of(0.9f, 0.5f), page.stream().map(TravelLogSummary::getRank).toList());
+        assertTrue(backend.searchPage(userId, "pantai", ranked, 4).isEmpty());
+        // Cursor tanpa rank (urutan waktu) dimulai lagi dari hasil paling relevan
+        assertEquals(2, backend.searchPage(userId, "pantai", cursor, 4).size());
+        assertEquals(900L, backend.sumTotalCost(userId, "pantai"));
+        verify(repository, never()).search(any(), any());
+        verify(repository, never()).sumTotalCostByKeyword(any(), any());
+    }
+}
@@ -0,0 +1,144 @@
+package org.delcom.app.services;
+
+import org.delcom.app.entities.Destination;
+import org.delcom.app.repositories.DestinationRepository;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DestinationServiceTests {
+
+    @Mock private DestinationRepository repository;
+    @Mock private TravelLogRepository logRepository;
+
+    private DestinationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DestinationService(repository, logRepository);
+    }
+
+    private static Destination destination(long id, String key, String name) {
+        Destination destination = new Destination(key, name);
+        destination.setId(id);
+        return destination;
+    }
+
+    @Test
+    @DisplayName("CanonicalKey: Trim, spasi tunggal, huruf kecil")
+    void testCanonicalKey() {
+        assertEquals("pantai kuta", DestinationService.canonicalKey("  Pantai \t KUTA "));
+        assertEquals("", DestinationService.canonicalKey(null));
+        assertEquals("", DestinationService.canonicalKey("   "));
+        assertEquals("Pantai Kuta", DestinationService.displayName("  Pantai \t Kuta "));
+    }
+
+    @Test
+    @DisplayName("Intern: Varian penulisan berbagi satu id dan hanya sekali ke database")
+    void testInternCached() {
+        when(repository.findByCanonicalKey("bali")).thenReturn(Optional.of(destination(1, "bali", "Bali")));
+
+        assertEquals(1L, service.intern("Bali"));
+        assertEquals(1L, service.intern("bali "));
+        assertEquals(1L, service.intern(" BALI"));
+        assertNull(service.intern(" "));
+
+        verify(repository, times(1)).findByCanonicalKey(anyString());
+        verify(repository, never()).insertIfAbsent(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Intern: Destinasi baru di-insert (ON CONFLICT DO NOTHING) dengan nama yang dirapikan")
+    void testInternInsertsNewDestination() {
+        when(repository.findByCanonicalKey("pantai kuta"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(destination(5, "pantai kuta", "Pantai Kuta")));
+        when(repository.insertIfAbsent(eq("pantai kuta"), eq("Pantai Kuta"), any())).thenReturn(1);
+
+        assertEquals(5L, service.intern("  Pantai   Kuta "));
+        // Tanpa transaksi baris sudah ter-commit, jadi langsung di-cache
+        assertEquals(5L, service.intern("pantai kuta"));
+        verify(repository, times(2)).findByCanonicalKey(anyString());
+    }
+
+    @Test
+    @DisplayName("Intern: Kalah balapan insert (0 baris) -> id milik pemenang dibaca ulang")
+    void testInternRace() {
+        when(repository.findByCanonicalKey("solo"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(destination(9, "solo", "Solo")));
+        when(repository.insertIfAbsent(eq("solo"), eq("solo"), any())).thenReturn(0);
+
+        assertEquals(9L, service.intern("solo"));
+    }
+
+    @Test
+    @DisplayName("Intern: Id yang baru dibuat di dalam transaksi baru di-cache setelah commit")
+    void testInternCachedAfterCommit() {
+        when(repository.findByCanonicalKey("solo"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(destination(9, "solo", "Solo")));
+        when(repository.insertIfAbsent(eq("solo"), eq("solo"), any())).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(9L, service.intern("solo"));
+            // Transaksi bisa saja rollback: belum di-cache, jadi dibaca lagi dari database
+            assertEquals(9L, service.intern("solo"));
+            verify(repository, times(3)).findByCanonicalKey("solo");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(9L, service.intern("solo"));
+            verify(repository, times(3)).findByCanonicalKey("solo");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("FindId: Tidak membuat baris baru")
+    void testFindId() {
+        when(repository.findByCanonicalKey(anyString())).thenReturn(Optional.empty());
+        when(repository.findByCanonicalKey("malang")).thenReturn(Optional.of(destination(3, "malang", "Malang")));
+
+        assertNull(service.findId("Tidak Ada"));
+        assertNull(service.findId(null));
+        assertEquals(3L, service.findId("MALANG"));
+        assertEquals(3L, service.findId("malang"));
+
+        verify(repository, never()).insertIfAbsent(any(), any(), any());
+        verify(repository, times(2)).findByCanonicalKey(anyString());
+    }
+
+    @Test
+    @DisplayName("Backfill: Setiap teks destinasi lama dihubungkan ke id kanonik")
+    void testBackfill() {
+        when(logRepository.findUnlinkedDestinations()).thenReturn(List.of("Bali", "bali ", "Solo"));
+        when(repository.findByCanonicalKey("bali")).thenReturn(Optional.of(destination(1, "bali", "Bali")));
+        when(repository.findByCanonicalKey("solo")).thenReturn(Optional.of(destination(2, "solo", "Solo")));
+        when(logRepository.linkDestination(anyString(), anyLong())).thenReturn(10);
+
+        assertEquals(30, service.backfill());
+
+        verify(logRepository).linkDestination("Bali", 1L);
+        verify(logRepository).linkDestination("bali ", 1L);
+        verify(logRepository).linkDestination("Solo", 2L);
+    }
+}
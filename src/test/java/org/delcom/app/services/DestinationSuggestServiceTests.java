@@ -0,0 +1,199 @@
+package org.delcom.app.services;
+
+import org.delcom.app.dto.DestinationCount;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DestinationSuggestServiceTests {
+
+    @Mock
+    private TravelLogRepository repository;
+
+    private DestinationSuggestService service;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(repository.countByDestinationForUser(userId)).thenReturn(List.of(
+                new DestinationCount("Bali", 5L),
+                new DestinationCount("Bandung", 9L),
+                new DestinationCount("Banyuwangi", 2L),
+                new DestinationCount("Solo", 3L)));
+        service = new DestinationSuggestService(repository, 100);
+    }
+
+    @Test
+    @DisplayName("Suggest: Urut berdasarkan jumlah jurnal, prefix tidak peka huruf besar")
+    void testSuggestOrderedByWeight() {
+        assertEquals(List.of("Bandung", "Bali", "Banyuwangi"), service.suggest(userId, "ba", 8));
+        assertEquals(List.of("Bandung", "Banyuwangi"), service.suggest(userId, "  BAN ", 8));
+        assertEquals(List.of("Bandung"), service.suggest(userId, "b", 1));
+        assertTrue(service.suggest(userId, "x", 8).isEmpty());
+        assertTrue(service.suggest(userId, " ", 8).isEmpty());
+        assertTrue(service.suggest(userId, null, 8).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Suggest: Seeding dari database hanya sekali")
+    void testSeedOnce() {
+        service.suggest(userId, "b", 8);
+        service.suggest(userId, "s", 8);
+        verify(repository, times(1)).countByDestinationForUser(userId);
+    }
+
+    @Test
+    @DisplayName("Record/Forget: Bobot berubah dan node kosong dibuang")
+    void testRecordAndForget() {
+        service.record(userId, "Bali"); // belum di-seed, diabaikan karena akan terbaca dari database
+        service.suggest(userId, "b", 8);
+
+        service.record(userId, "Lombok");
+        assertEquals(List.of("Lombok"), service.suggest(userId, "lo", 8));
+
+        for (int i = 0; i < 5; i++) service.record(userId, "Bali");
+        assertEquals("Bali", service.suggest(userId, "b", 8).get(0));
+
+        service.forget(userId, "Lombok");
+        assertTrue(service.suggest(userId, "l", 8).isEmpty());
+        service.forget(userId, "Tidak Ada");
+        assertEquals(3, service.suggest(userId, "ba", 8).size());
+    }
+
+    @Test
+    @DisplayName("Record/Forget: Varian jumlah untuk operasi massal")
+    void testRecordAndForgetCount() {
+        service.suggest(userId, "a", 1);
+        service.record(userId, "Jogja", 3);
+        service.record(userId, "Jakarta", 2);
+        assertEquals(List.of("Jogja", "Jakarta"), service.suggest(userId, "j", 8));
+
+        service.forget(userId, "Jogja", 2);
+        assertEquals(List.of("Jakarta", "Jogja"), service.suggest(userId, "j", 8));
+        service.forget(userId, "Jogja", 5);
+        service.record(userId, "Jakarta", 0);
+        assertEquals(List.of("Jakarta"), service.suggest(userId, "j", 8));
+    }
+
+    @Test
+    @DisplayName("Suggest: Limit dibatasi MAX_LIMIT")
+    void testLimitCapped() {
+        service.suggest(userId, "a", 1);
+        for (int i = 0; i < 30; i++) service.record(userId, "Kota " + i);
+        assertEquals(DestinationSuggestService.MAX_LIMIT, service.suggest(userId, "kota", 100).size());
+        assertTrue(service.suggest(userId, "kota", 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Suggest: Setiap user hanya melihat destinasi dari jurnalnya sendiri")
+    void testPerUserIsolation() {
+        UUID other = UUID.randomUUID();
+        when(repository.countByDestinationForUser(other)).thenReturn(List.of(new DestinationCount("Rumah Pak Budi", 1L)));
+
+        assertEquals(List.of("Rumah Pak Budi"), service.suggest(other, "ru", 8));
+        assertTrue(service.suggest(userId, "ru", 8).isEmpty());
+
+        service.record(userId, "Raja Ampat");
+        assertTrue(service.suggest(other, "raja", 8).isEmpty());
+        assertTrue(service.suggest(null, "ba", 8).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Evict: Trie user yang paling lama tidak dipakai dibuang lalu dibangun ulang dari database")
+    void testEvictLeastRecentlyUsed() {
+        service = new DestinationSuggestService(repository, 1);
+        UUID other = UUID.randomUUID();
+        when(repository.countByDestinationForUser(other)).thenReturn(List.of());
+
+        service.suggest(userId, "b", 8);
+        service.suggest(other, "b", 8);
+        assertEquals(1, service.cachedUsers());
+
+        // Trie yang sudah dibuang tidak diperbarui; isinya dibaca lagi dari database
+        service.record(userId, "Bogor");
+        assertEquals(List.of("Bandung", "Bali", "Banyuwangi"), service.suggest(userId, "b", 8));
+        verify(repository, times(2)).countByDestinationForUser(userId);
+    }
+
+    @Test
+    @DisplayName("Transaksi: Trie diperbarui setelah commit, tidak saat rollback")
+    void testAppliedAfterCommit() {
+        service.suggest(userId, "b", 8);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.record(userId, "Lombok");
+            assertTrue(service.suggest(userId, "lo", 8).isEmpty());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(service.suggest(userId, "lo", 8).isEmpty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.record(userId, "Lombok");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of("Lombok"), service.suggest(userId, "lo", 8));
+    }
+
+    @Test
+    @DisplayName("Seed: Perubahan yang selesai selama query seed tidak hilang (seed diulang)")
+    void testChangeDuringSeedNotLost() {
+        // Query seed membaca data lama, lalu transaksi lain commit sebelum seed dipasang
+        when(repository.countByDestinationForUser(userId))
+                .thenAnswer(inv -> {
+                    service.record(userId, "Lombok");
+                    return List.of(new DestinationCount("Bali", 5L));
+                })
+                .thenReturn(List.of(new DestinationCount("Bali", 5L), new DestinationCount("Lombok", 1L)));
+
+        assertTrue(service.suggest(userId, "lo", 8).isEmpty());
+        assertEquals(List.of("Lombok"), service.suggest(userId, "lo", 8));
+        assertEquals(List.of("Lombok"), service.suggest(userId, "lo", 8));
+        verify(repository, times(2)).countByDestinationForUser(userId);
+    }
+
+    @Test
+    @DisplayName("Seed: Perubahan yang sudah ter-commit tetapi hook-nya belum jalan tidak dihitung dua kali")
+    void testCommittedBeforeHookNotDoubleCounted() {
+        // Data di database sudah memuat +3 Bali dari transaksi yang hook after-commit-nya belum jalan
+        when(repository.countByDestinationForUser(userId)).thenReturn(List.of(
+                new DestinationCount("Bali", 8L), new DestinationCount("Bandung", 9L)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.record(userId, "Bali", 3);
+            assertEquals(List.of("Bandung", "Bali"), service.suggest(userId, "ba", 8));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Seed pertama tidak di-cache, jadi hook tidak menambah 3 lagi ke bobot 8
+        assertEquals(List.of("Bandung", "Bali"), service.suggest(userId, "ba", 8));
+        verify(repository, times(2)).countByDestinationForUser(userId);
+    }
+}
@@ -5,17 +5,23 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
+import org.delcom.app.utils.ImageVariantUtil;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.UUID;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,76 +37,69 @@ class FileStorageServiceTests {
 
     @BeforeEach
     void setUp() {
-        service = new FileStorageService();
-        // Default: set ke tempDir yang sudah ada
-        service.uploadDir = tempDir.toString();
+        // Default: engine filesystem di tempDir yang sudah ada
+        service = new FileStorageService(new FilesystemStorageEngine(tempDir.toString()), new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)));
+    }
+
+    private static MultipartFile upload(String originalFilename, String content) throws IOException {
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getOriginalFilename()).thenReturn(originalFilename);
+        when(file.getInputStream()).thenAnswer(inv -> new ByteArrayInputStream(content.getBytes()));
+        return file;
+    }
+
+    private static String sha256(String content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes()));
     }
 
-    // --- 1. Test Create Directory (Menutup Baris 23 yang Merah) ---
     @Test
     @DisplayName("Store File: Harus membuat folder baru jika belum ada")
     void testStoreFile_CreatesDirectory() throws IOException {
-        // Arrange
-        // Arahkan uploadDir ke sub-folder yang BELUM ADA
         Path nonExistentPath = tempDir.resolve("folder-baru");
-        service.uploadDir = nonExistentPath.toString();
-
-        UUID id = UUID.randomUUID();
-        MultipartFile file = mock(MultipartFile.class);
-        when(file.getOriginalFilename()).thenReturn("test.jpg");
-        when(file.getInputStream()).thenReturn(new ByteArrayInputStream("data".getBytes()));
+        service = new FileStorageService(new FilesystemStorageEngine(nonExistentPath.toString()), new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)));
 
-        // Act
-        // Ini akan memicu if (!Files.exists(...)) -> Files.createDirectories(...)
-        String result = service.storeFile(file, id);
+        String result = service.storeFile(upload("test.jpg", "data"));
 
-        // Assert
         assertTrue(Files.exists(nonExistentPath), "Folder baru harusnya otomatis dibuat");
         assertTrue(result.endsWith(".jpg"));
     }
 
-    // --- 2. Test Filename Null (Menutup Baris 29 yang Kuning) ---
     @Test
-    @DisplayName("Store File: Filename Null (Edge Case)")
-    void testStoreFile_NullFilename() throws IOException {
-        UUID id = UUID.randomUUID();
-        MultipartFile file = mock(MultipartFile.class);
-        
-        // Simulasikan file tanpa nama (null)
-        when(file.getOriginalFilename()).thenReturn(null);
-        when(file.getInputStream()).thenReturn(new ByteArrayInputStream("data".getBytes()));
-
-        // Act
-        String result = service.storeFile(file, id);
-
-        // Assert
-        // Harusnya tidak error, dan ekstensi kosong
-        assertTrue(result.startsWith("cover_"));
-        assertFalse(result.contains(".")); // Tidak ada titik karena ekstensi kosong
+    @DisplayName("Store File: Nama = SHA-256 isi, disimpan di folder shard ab/cd/")
+    void testStoreFile_ContentAddressed() throws Exception {
+        String hash = sha256("data");
+
+        String result = service.storeFile(upload("Photo.PNG", "data"));
+
+        assertEquals(hash + ".png", result);
+        Path stored = tempDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(result);
+        assertEquals(stored, service.loadFile(result));
+        assertEquals("data", Files.readString(stored));
+        assertTrue(FileStorageService.isContentAddressed(result));
+        assertFalse(FileStorageService.isContentAddressed("cover_1.jpg"));
+        assertEquals(tempDir.resolve("cover_1.jpg"), service.loadFile("cover_1.jpg"));
     }
 
     @Test
-    @DisplayName("Store File: Normal dengan Ekstensi")
-    void testStoreFile_WithExtension() throws IOException {
-        UUID id = UUID.randomUUID();
-        MultipartFile file = mock(MultipartFile.class);
-        when(file.getOriginalFilename()).thenReturn("photo.png");
-        when(file.getInputStream()).thenReturn(new ByteArrayInputStream("data".getBytes()));
-
-        String res = service.storeFile(file, id);
-        assertTrue(res.endsWith(".png"));
+    @DisplayName("Store File: Isi sama disimpan sekali, file sementara tidak tertinggal")
+    void testStoreFile_Deduplicated() throws Exception {
+        String first = service.storeFile(upload("a.jpg", "foto"));
+        String second = service.storeFile(upload("b.jpg", "foto"));
+        String other = service.storeFile(upload("c.jpg", "foto lain"));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
     }
 
     @Test
-    @DisplayName("Store File: File Tanpa Ekstensi (Contoh: README)")
-    void testStoreFile_NoExtension() throws IOException {
-        UUID id = UUID.randomUUID();
-        MultipartFile file = mock(MultipartFile.class);
-        when(file.getOriginalFilename()).thenReturn("README"); // Tidak ada titik
-        when(file.getInputStream()).thenReturn(new ByteArrayInputStream("data".getBytes()));
-
-        String res = service.storeFile(file, id);
-        assertFalse(res.endsWith(".")); 
+    @DisplayName("Store File: Tanpa nama atau ekstensi aneh -> tanpa ekstensi")
+    void testStoreFile_NoExtension() throws Exception {
+        assertEquals(sha256("data"), service.storeFile(upload(null, "data")));
+        assertEquals(sha256("readme"), service.storeFile(upload("README", "readme")));
+        assertEquals(sha256("x"), service.storeFile(upload("x.j/../p", "x")));
     }
 
     @Test
@@ -131,7 +130,7 @@ class FileStorageServiceTests {
                  .thenThrow(new IOException("Disk Error"));
             
             // Kita harus memastikan Paths.get(...) tidak error di dalam try block service
-            // Karena service.deleteFile memanggil Paths.get(uploadDir).resolve(...)
+            // Karena engine.delete memanggil Paths.get(uploadDir).resolve(...)
             // Mock static Files tidak mengganggu Paths.get
             
             boolean res = service.deleteFile("any.txt");
@@ -141,6 +140,58 @@ class FileStorageServiceTests {
         }
     }
 
+    @Test
+    @DisplayName("Delete Files: Hapus massal, gambar default & path di luar folder dilewati")
+    void testDeleteFiles() throws IOException {
+        Files.createFile(tempDir.resolve("cover_a.jpg"));
+        Files.createFile(tempDir.resolve(FileStorageService.DEFAULT_IMAGE));
+        Path outside = Files.createDirectory(tempDir.resolve("lain")).resolve("x.jpg");
+        Files.createFile(outside);
+        service = new FileStorageService(new FilesystemStorageEngine(tempDir.resolve("sub").toString()), new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)));
+        Files.createDirectory(tempDir.resolve("sub"));
+        Files.createFile(tempDir.resolve("sub").resolve("cover_b.jpg"));
+        Files.createFile(tempDir.resolve("sub").resolve(FileStorageService.DEFAULT_IMAGE));
+
+        service.deleteFiles(Arrays.asList("cover_b.jpg", FileStorageService.DEFAULT_IMAGE, "../lain/x.jpg", null, "ghost.jpg"));
+
+        assertFalse(Files.exists(tempDir.resolve("sub").resolve("cover_b.jpg")));
+        assertTrue(Files.exists(tempDir.resolve("sub").resolve(FileStorageService.DEFAULT_IMAGE)));
+        assertTrue(Files.exists(outside));
+    }
+
+    @Test
+    @DisplayName("Delete Files: Varian grid & detail ikut terhapus")
+    void testDeleteFilesRemovesVariants() throws IOException {
+        Files.createFile(tempDir.resolve("cover_a.png"));
+        Files.createFile(tempDir.resolve("cover_a_grid.jpg"));
+        Files.createFile(tempDir.resolve("cover_a_detail.jpg"));
+        Files.createFile(tempDir.resolve("cover_b_grid.jpg"));
+
+        service.deleteFiles(Arrays.asList("cover_a.png"));
+
+        assertFalse(Files.exists(tempDir.resolve("cover_a.png")));
+        assertFalse(Files.exists(tempDir.resolve("cover_a_grid.jpg")));
+        assertFalse(Files.exists(tempDir.resolve("cover_a_detail.jpg")));
+        assertTrue(Files.exists(tempDir.resolve("cover_b_grid.jpg")));
+    }
+
+    @Test
+    @DisplayName("Delete Files: File shard ikut varian terhapus, unggahan ulang yang baru dilewati")
+    void testDeleteFilesContentAddressed() throws Exception {
+        String old = service.storeFile(upload("a.png", "lama"));
+        String fresh = service.storeFile(upload("b.png", "baru"));
+        Path variant = service.loadFile(ImageVariantUtil.fileName(old, ImageVariantUtil.GRID));
+        Files.createFile(variant);
+        long past = System.currentTimeMillis() - FileStorageService.REUSE_GRACE.toMillis() - 1000;
+        Files.setLastModifiedTime(service.loadFile(old), FileTime.fromMillis(past));
+
+        service.deleteFiles(Arrays.asList(old, fresh));
+
+        assertFalse(Files.exists(service.loadFile(old)));
+        assertFalse(Files.exists(variant));
+        assertTrue(Files.exists(service.loadFile(fresh)));
+    }
+
     @Test
     @DisplayName("File Exists & Load")
     void testFileExistsAndLoad() throws IOException {
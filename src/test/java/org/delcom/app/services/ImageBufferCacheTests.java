@@ -0,0 +1,168 @@
+package org.delcom.app.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImageBufferCacheTests {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong now = new AtomicLong();
+    private ImageBufferCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ImageBufferCache(DataSize.ofBytes(100), DataSize.ofBytes(60), now::get);
+    }
+
+    private StorageEngine.Blob blob(String name, int size) throws Exception {
+        Path file = Files.write(tempDir.resolve(name), new byte[size]);
+        return new StorageEngine.Blob(file, 0, size, 1000L);
+    }
+
+    // Diminta sebanyak n kali lalu dimuat (seperti ImageServingService saat cache kosong)
+    private ImageBufferCache.Entry request(String key, StorageEngine.Blob blob, int times) throws Exception {
+        ImageBufferCache.Entry entry = null;
+        for (int i = 0; i < times; i++) {
+            entry = cache.get(key);
+            if (entry == null) entry = cache.load(key, blob, key);
+        }
+        return entry;
+    }
+
+    @Test
+    @DisplayName("Admit: Permintaan pertama tidak disimpan, permintaan kedua masuk ke direct buffer")
+    void testAdmitOnSecondRequest() throws Exception {
+        StorageEngine.Blob blob = blob("a.jpg", 40);
+
+        assertNull(request("a.jpg", blob, 1));
+        ImageBufferCache.Entry entry = request("a.jpg", blob, 1);
+
+        assertNotNull(entry);
+        assertTrue(entry.buffer().isDirect());
+        assertTrue(entry.buffer().isReadOnly());
+        assertEquals(40, entry.buffer().remaining());
+        assertEquals(1000L, entry.lastModified());
+        assertSame(entry, cache.get("a.jpg"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(40, cache.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Load: Blob di tengah file (segment) dibaca dari offset-nya saja")
+    void testLoadFromOffset() throws Exception {
+        Path segment = Files.writeString(tempDir.resolve("segment.dat"), "xxxxHALOyyyy");
+        StorageEngine.Blob blob = new StorageEngine.Blob(segment, 4, 4, 1000L);
+
+        ImageBufferCache.Entry entry = request("halo.jpg", blob, 2);
+
+        ByteBuffer copy = entry.buffer().duplicate();
+        byte[] bytes = new byte[copy.remaining()];
+        copy.get(bytes);
+        assertEquals("HALO", new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @DisplayName("Evict: Gambar populer tidak diusir gambar yang jarang diminta")
+    void testFrequencyAwareEviction() throws Exception {
+        StorageEngine.Blob hot = blob("hot.jpg", 60);
+        StorageEngine.Blob cold = blob("cold.jpg", 60);
+        request("hot.jpg", hot, 5);
+
+        assertNull(request("cold.jpg", cold, 2));
+        assertEquals(1, cache.getRejectionCount());
+        assertNotNull(cache.get("hot.jpg"));
+
+        // Setelah lebih sering diminta daripada yang lama, gambar baru menggantikannya
+        assertNotNull(request("cold.jpg", cold, 6));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(60, cache.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Admit: Kandidat yang kalah dari entri yang harus dibuang ditolak sebelum file dibaca")
+    void testRejectedBeforeRead() throws Exception {
+        request("hot.jpg", blob("hot.jpg", 60), 5);
+        // File tidak ada: jika buffer dialokasikan & file dibaca lebih dulu, load akan gagal
+        StorageEngine.Blob missing = new StorageEngine.Blob(tempDir.resolve("missing.jpg"), 0, 60, 1000L);
+
+        assertNull(request("missing.jpg", missing, 2));
+        assertEquals(1, cache.getRejectionCount());
+        assertEquals(60, cache.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Put: Kandidat yang ditolak saat disimpan tidak membuang entri apa pun")
+    void testRejectedPutKeepsEntries() throws Exception {
+        // Urutan LRU: cold1, hot, cold2 (penuh 100 byte)
+        request("cold1.jpg", blob("cold1.jpg", 30), 2);
+        request("hot.jpg", blob("hot.jpg", 40), 10);
+        request("cold2.jpg", blob("cold2.jpg", 30), 2);
+        for (int i = 0; i < 3; i++) cache.get("new.jpg");
+
+        // Cache berubah selama blob dibaca: untuk 60 byte, cold1 lalu hot harus dibuang
+        ImageBufferCache.Entry entry = new ImageBufferCache.Entry(
+                ByteBuffer.allocateDirect(60).asReadOnlyBuffer(), 1000L, "new.jpg", Long.MAX_VALUE);
+
+        assertFalse(cache.put("new.jpg", entry));
+        assertEquals(1, cache.getRejectionCount());
+        assertEquals(0, cache.getEvictionCount());
+        assertEquals(100, cache.getSizeBytes());
+        assertNotNull(cache.get("cold1.jpg"));
+    }
+
+    @Test
+    @DisplayName("Admit: Gambar lebih besar dari max-entry-size tidak pernah disimpan")
+    void testTooLarge() throws Exception {
+        assertNull(request("big.jpg", blob("big.jpg", 61), 3));
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Expire: Nama biasa kedaluwarsa, nama content-addressed tidak")
+    void testExpiry() throws Exception {
+        String hashed = "b".repeat(64) + ".jpg";
+        request("cover.jpg", blob("cover.jpg", 10), 2);
+        request(hashed, blob(hashed, 10), 2);
+
+        now.addAndGet(ImageBufferCache.REVALIDATE_AFTER.toNanos() + 1);
+
+        assertNull(cache.get("cover.jpg"));
+        assertNotNull(cache.get(hashed));
+        assertEquals(10, cache.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Invalidate: File asli & semua hasil resize-nya dibuang, file lain tetap")
+    void testInvalidate() throws Exception {
+        String resized = ImageBufferCache.key("cover.jpg", 320, null);
+        request("cover.jpg", blob("cover.jpg", 10), 2);
+        request(resized, blob("resized.jpg", 10), 2);
+        request("cover.jpg2", blob("cover.jpg2", 10), 2);
+
+        cache.invalidate("cover.jpg");
+
+        assertNull(cache.get("cover.jpg"));
+        assertNull(cache.get(resized));
+        assertNotNull(cache.get("cover.jpg2"));
+        assertEquals(10, cache.getSizeBytes());
+    }
+}
@@ -0,0 +1,180 @@
+package org.delcom.app.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImageResizeServiceTests {
+
+    @Mock
+    private ImageVariantService images;
+
+    @TempDir
+    Path tempDir;
+
+    private FileStorageService fileStorage;
+    private Path uploads;
+    private Path cacheDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        uploads = Files.createDirectory(tempDir.resolve("uploads"));
+        cacheDir = tempDir.resolve("cache");
+        fileStorage = new FileStorageService(new FilesystemStorageEngine(uploads.toString()), new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)));
+        Files.writeString(uploads.resolve("cover_a.jpg"), "asli");
+        Files.writeString(uploads.resolve("cover_b.jpg"), "asli");
+        Files.writeString(uploads.resolve("cover_c.jpg"), "asli");
+
+        // Hasil resize palsu: 100 byte per file
+        when(images.resize(any(), anyInt(), anyFloat(), any())).thenAnswer(inv -> {
+            Files.write(inv.getArgument(3, Path.class), new byte[100]);
+            return true;
+        });
+    }
+
+    private ImageResizeService service(long maxBytes) throws IOException {
+        return new ImageResizeService(fileStorage, images, cacheDir.toString(), DataSize.ofBytes(maxBytes));
+    }
+
+    @Test
+    @DisplayName("Resize: Miss pertama di-decode, permintaan berikutnya diambil dari cache")
+    void testResizeThenHit() throws Exception {
+        ImageResizeService service = service(10_000);
+
+        Path first = service.resize("cover_a.jpg", 300, null);
+        Path second = service.resize("cover_a.jpg", 310, null);
+
+        assertEquals(first, second);
+        assertTrue(first.getFileName().toString().startsWith("cover_a.jpg.w320.q80."));
+        assertEquals(cacheDir, first.getParent());
+        assertEquals(1, service.getMissCount());
+        assertEquals(1, service.getHitCount());
+        verify(images, times(1)).resize(eq("cover_a.jpg"), eq(320), eq(0.8f), any());
+    }
+
+    @Test
+    @DisplayName("Resize: Nama content-addressed memakai hasil yang sama walau mtime-nya di-touch")
+    void testContentAddressedKeyIgnoresTouch() throws Exception {
+        ImageResizeService service = service(10_000);
+        String hashed = "c".repeat(64) + ".jpg";
+        Path file = uploads.resolve("cc").resolve("cc").resolve(hashed);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "asli");
+
+        Path first = service.resize(hashed, 320, null);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        Path second = service.resize(hashed, 320, null);
+
+        assertEquals(first, second);
+        assertEquals(1, service.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Resize: Cache melebihi batas membuang file yang paling lama tidak diakses")
+    void testLruEviction() throws Exception {
+        ImageResizeService service = service(250);
+
+        Path a = service.resize("cover_a.jpg", 320, null);
+        Path b = service.resize("cover_b.jpg", 320, null);
+        service.resize("cover_a.jpg", 320, null); // a jadi yang terbaru
+        Path c = service.resize("cover_c.jpg", 320, null);
+
+        assertTrue(Files.exists(a));
+        assertFalse(Files.exists(b));
+        assertTrue(Files.exists(c));
+        assertEquals(200, service.getSizeBytes());
+        assertEquals(1, service.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("Restart: Isi direktori cache dipakai lagi, file sementara dibersihkan")
+    void testSurvivesRestart() throws Exception {
+        Path cached = service(10_000).resize("cover_a.jpg", 320, 60);
+        Files.writeString(cacheDir.resolve("variant-123.tmp"), "sisa");
+
+        ImageResizeService restarted = service(10_000);
+
+        assertEquals(cached, restarted.resize("cover_a.jpg", 320, 60));
+        assertEquals(1, restarted.getHitCount());
+        assertEquals(100, restarted.getSizeBytes());
+        assertFalse(Files.exists(cacheDir.resolve("variant-123.tmp")));
+        verify(images, times(1)).resize(any(), anyInt(), anyFloat(), any());
+    }
+
+    @Test
+    @DisplayName("Resize: Permintaan bersamaan untuk ukuran yang sama hanya satu decode")
+    void testConcurrentMissesCoalesced() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            Files.write(inv.getArgument(3, Path.class), new byte[100]);
+            return true;
+        }).when(images).resize(any(), anyInt(), anyFloat(), any());
+        ImageResizeService service = service(10_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<Path> first = executor.submit(() -> service.resize("cover_a.jpg", 480, 80));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Path> second = executor.submit(() -> service.resize("cover_a.jpg", 480, 80));
+            Future<Path> third = executor.submit(() -> service.resize("cover_a.jpg", 470, 80));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertEquals(first.get(), third.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(images, times(1)).resize(any(), anyInt(), anyFloat(), any());
+    }
+
+    @Test
+    @DisplayName("Resize: File hilang, bukan gambar, atau nama berisi path tidak di-resize")
+    void testFallbacks() throws Exception {
+        ImageResizeService service = service(10_000);
+        doReturn(false).when(images).resize(eq("cover_b.jpg"), anyInt(), anyFloat(), any());
+
+        assertNull(service.resize("ghost.jpg", 320, null));
+        assertNull(service.resize("cover_b.jpg", 320, null));
+        assertNull(service.resize("../uploads/cover_a.jpg", 320, null));
+        assertNull(service.resize(".hidden", 320, null));
+        assertEquals(0, service.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Normalisasi: Lebar dibatasi & dibulatkan, kualitas dibatasi")
+    void testNormalize() {
+        assertEquals(ImageResizeService.MIN_WIDTH, ImageResizeService.normalizeWidth(1));
+        assertEquals(ImageResizeService.MAX_WIDTH, ImageResizeService.normalizeWidth(100_000));
+        assertEquals(352, ImageResizeService.normalizeWidth(321));
+        assertEquals(ImageResizeService.DEFAULT_QUALITY, ImageResizeService.normalizeQuality(null));
+        assertEquals(ImageResizeService.MIN_QUALITY, ImageResizeService.normalizeQuality(1));
+        assertEquals(ImageResizeService.MAX_QUALITY, ImageResizeService.normalizeQuality(100));
+    }
+}
@@ -0,0 +1,256 @@
+package org.delcom.app.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImageServingServiceTests {
+
+    @Mock
+    private ImageResizeService imageResize;
+
+    @TempDir
+    Path tempDir;
+
+    private ImageServingService service;
+    private FileStorageService fileStorage;
+    private ImageBufferCache bufferCache;
+    private final long modified = 1_700_000_000_000L;
+    private final String version = Long.toString(modified, 36);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bufferCache = new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256));
+        fileStorage = new FileStorageService(new FilesystemStorageEngine(tempDir.toString()), bufferCache);
+        service = new ImageServingService(fileStorage, imageResize, bufferCache);
+
+        Path cover = Files.writeString(tempDir.resolve("cover_a.png"), "0123456789");
+        Files.setLastModifiedTime(cover, FileTime.fromMillis(modified));
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request, Integer width, String v) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve("cover_a.png", width, null, v, request, response);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Serve: Content-Type dari ekstensi, validator & revalidasi untuk URL tanpa versi")
+    void testServeFull() throws Exception {
+        MockHttpServletResponse response = get(new MockHttpServletRequest("GET", "/images/cover_a.png"), null, null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("image/png", response.getContentType());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("\"" + Long.toHexString(modified) + "-a\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(modified, response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("no-cache, private", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    @DisplayName("Serve: Versi cocok di-cache permanen, versi lama tetap divalidasi ulang")
+    void testImmutableOnlyForCurrentVersion() throws Exception {
+        MockHttpServletResponse current = get(new MockHttpServletRequest("GET", "/images/cover_a.png"), null, version);
+        MockHttpServletResponse stale = get(new MockHttpServletRequest("GET", "/images/cover_a.png"), null, "abc");
+
+        assertEquals("max-age=31536000, private, immutable", current.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("no-cache, private", stale.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("/images/cover_a.png?v=" + version + "&w=480", service.url("cover_a.png", 480));
+        assertEquals("/images/ghost.png", service.url("ghost.png"));
+    }
+
+    @Test
+    @DisplayName("Serve: Nama content-addressed selalu immutable, URL tanpa versi")
+    void testContentAddressedImmutable() throws Exception {
+        String hashed = "a".repeat(64) + ".png";
+        Path file = tempDir.resolve("aa").resolve("aa").resolve(hashed);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "isi");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.serve(hashed, null, null, null, new MockHttpServletRequest("GET", "/images/" + hashed), response);
+
+        assertEquals("isi", response.getContentAsString());
+        assertEquals("max-age=31536000, private, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("/images/" + hashed + "?w=320", service.url(hashed, 320));
+    }
+
+    @Test
+    @DisplayName("Serve: Validator nama content-addressed dari hash, tidak berubah saat mtime di-touch")
+    void testContentAddressedValidatorIgnoresTouch() throws Exception {
+        String hashed = "b".repeat(64) + ".png";
+        Path file = tempDir.resolve("bb").resolve("bb").resolve(hashed);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "isi");
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        service.serve(hashed, null, null, null, new MockHttpServletRequest("GET", "/images/" + hashed), first);
+
+        // Upload duplikat: file yang sama di-touch
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified + 60_000));
+        MockHttpServletRequest revalidate = new MockHttpServletRequest("GET", "/images/" + hashed);
+        revalidate.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        service.serve(hashed, null, null, null, revalidate, second);
+
+        assertEquals("\"" + "b".repeat(64) + "-3\"", first.getHeader(HttpHeaders.ETAG));
+        assertNull(first.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals(304, second.getStatus());
+    }
+
+    @Test
+    @DisplayName("Serve: If-None-Match yang cocok dijawab 304 tanpa isi")
+    void testNotModified() throws Exception {
+        String etag = get(new MockHttpServletRequest("GET", "/images/cover_a.png"), null, null).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/cover_a.png");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        MockHttpServletResponse response = get(request, null, null);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("Range: Satu rentang 206, rentang di luar file 416, If-Range lama dapat file utuh")
+    void testRange() throws Exception {
+        MockHttpServletRequest partial = new MockHttpServletRequest("GET", "/images/cover_a.png");
+        partial.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = get(partial, null, null);
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        MockHttpServletRequest suffix = new MockHttpServletRequest("GET", "/images/cover_a.png");
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        assertEquals("789", get(suffix, null, null).getContentAsString());
+
+        MockHttpServletRequest outside = new MockHttpServletRequest("GET", "/images/cover_a.png");
+        outside.addHeader(HttpHeaders.RANGE, "bytes=10-");
+        response = get(outside, null, null);
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        MockHttpServletRequest changed = new MockHttpServletRequest("GET", "/images/cover_a.png");
+        changed.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        changed.addHeader(HttpHeaders.IF_RANGE, "\"lama\"");
+        response = get(changed, null, null);
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Sendfile: Connector yang mendukung menerima nama file & rentang, isi tidak ditulis")
+    void testSendfile() throws Exception {
+        byte[] large = new byte[(int) ImageServingService.SENDFILE_MIN_BYTES];
+        Path cover = Files.write(tempDir.resolve("cover_a.png"), large);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/cover_a.png");
+        request.setAttribute(ImageServingService.SENDFILE_SUPPORT, Boolean.TRUE);
+
+        MockHttpServletResponse response = get(request, null, null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(cover.toAbsolutePath().toString(), request.getAttribute(ImageServingService.SENDFILE_FILENAME));
+        assertEquals(0L, request.getAttribute(ImageServingService.SENDFILE_START));
+        assertEquals((long) large.length, request.getAttribute(ImageServingService.SENDFILE_END));
+    }
+
+    @Test
+    @DisplayName("Serve: Hasil resize dikirim sebagai JPEG, versi tetap dari file asli")
+    void testServeResized() throws Exception {
+        Path resized = Files.writeString(tempDir.resolve("resized.jpg"), "kecil");
+        when(imageResize.resize(eq("cover_a.png"), eq(320), any())).thenReturn(resized);
+
+        MockHttpServletResponse response = get(new MockHttpServletRequest("GET", "/images/cover_a.png"), 320, version);
+
+        assertEquals("image/jpeg", response.getContentType());
+        assertEquals("kecil", response.getContentAsString());
+        assertEquals("max-age=31536000, private, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    @DisplayName("Serve: Antrean resize penuh menyajikan varian grid (atau file asli) tanpa cache immutable")
+    void testServeBusyFallback() throws Exception {
+        when(imageResize.resize(any(), anyInt(), any())).thenThrow(new ImageVariantService.BusyException("penuh"));
+        Files.writeString(tempDir.resolve("cover_a_grid.jpg"), "grid");
+
+        MockHttpServletResponse small = get(new MockHttpServletRequest("GET", "/images/cover_a.png"), 320, version);
+        MockHttpServletResponse large = get(new MockHttpServletRequest("GET", "/images/cover_a.png"), 1024, version);
+
+        assertEquals("image/jpeg", small.getContentType());
+        assertEquals("grid", small.getContentAsString());
+        assertEquals("no-cache, private", small.getHeader(HttpHeaders.CACHE_CONTROL));
+        // Lebih lebar dari varian grid: file asli
+        assertEquals("image/png", large.getContentType());
+        assertEquals("0123456789", large.getContentAsString());
+        assertEquals("no-cache, private", large.getHeader(HttpHeaders.CACHE_CONTROL));
+        // Pengganti tidak disimpan di buffer memori dengan key ukuran yang diminta
+        assertEquals(0, bufferCache.getSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Memori: Permintaan berulang dijawab dari buffer tanpa membaca file lagi")
+    void testServedFromMemory() throws Exception {
+        get(new MockHttpServletRequest("GET", "/images/cover_a.png"), null, null);
+        get(new MockHttpServletRequest("GET", "/images/cover_a.png"), null, null);
+        Files.delete(tempDir.resolve("cover_a.png"));
+
+        MockHttpServletRequest partial = new MockHttpServletRequest("GET", "/images/cover_a.png");
+        partial.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = get(partial, null, null);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("\"" + Long.toHexString(modified) + "-a\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("image/png", response.getContentType());
+        assertEquals(1, bufferCache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Memori: Hapus lewat FileStorageService ikut membuang salinan di buffer")
+    void testDeleteInvalidatesMemory() throws Exception {
+        get(new MockHttpServletRequest("GET", "/images/cover_a.png"), null, null);
+        get(new MockHttpServletRequest("GET", "/images/cover_a.png"), null, null);
+        assertEquals(10, bufferCache.getSizeBytes());
+
+        assertTrue(fileStorage.deleteFile("cover_a.png"));
+
+        assertEquals(0, bufferCache.getSizeBytes());
+        assertEquals(404, get(new MockHttpServletRequest("GET", "/images/cover_a.png"), null, null).getStatus());
+    }
+
+    @Test
+    @DisplayName("Serve: File hilang atau nama berisi path dijawab 404")
+    void testNotFound() throws Exception {
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        service.serve("ghost.png", null, null, null, new MockHttpServletRequest(), missing);
+        MockHttpServletResponse traversal = new MockHttpServletResponse();
+        service.serve("../secret.txt", null, null, null, new MockHttpServletRequest(), traversal);
+
+        assertEquals(404, missing.getStatus());
+        assertEquals(404, traversal.getStatus());
+        verify(imageResize, never()).resize(any(), anyInt(), any());
+    }
+}
@@ -0,0 +1,160 @@
+package org.delcom.app.services;
+
+import org.delcom.app.repositories.TravelLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImageVariantServiceTests {
+
+    @Mock
+    private TravelLogRepository repository;
+
+    @Mock
+    private TravelLogCache cache;
+
+    @TempDir
+    Path tempDir;
+
+    private ImageVariantService service;
+    private final UUID userId = UUID.randomUUID();
+    private final UUID logId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        FileStorageService fileStorage = new FileStorageService(new FilesystemStorageEngine(tempDir.toString()), new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)));
+        service = new ImageVariantService(fileStorage, repository, cache, 8_000_000, 2, Duration.ofMillis(50));
+    }
+
+    private void writeImage(String filename, int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x += 7) {
+            for (int y = 0; y < height; y++) image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+        }
+        ImageIO.write(image, format, tempDir.resolve(filename).toFile());
+    }
+
+    @Test
+    @DisplayName("Generate: Varian detail & grid ditulis dan dicatat, cache user diinvalidasi")
+    void testGenerate() throws IOException {
+        writeImage("cover_a.png", 4000, 3000, "png");
+        when(repository.updateImageVariants(eq(logId), eq("cover_a.png"), eq("detail,grid"), any())).thenReturn(1);
+
+        service.generate(userId, logId, "cover_a.png");
+
+        BufferedImage detail = ImageIO.read(tempDir.resolve("cover_a_detail.jpg").toFile());
+        BufferedImage grid = ImageIO.read(tempDir.resolve("cover_a_grid.jpg").toFile());
+        assertEquals(1280, detail.getWidth());
+        assertEquals(960, detail.getHeight());
+        assertEquals(480, grid.getWidth());
+        assertEquals(360, grid.getHeight());
+        assertTrue(Files.exists(tempDir.resolve("cover_a.png")));
+        verify(cache).invalidate(userId);
+    }
+
+    @Test
+    @DisplayName("Generate: Foto sudah diganti (update 0 baris) tidak menginvalidasi cache")
+    void testGenerateStale() throws IOException {
+        writeImage("cover_a.jpg", 800, 600, "jpg");
+        when(repository.updateImageVariants(any(), any(), any(), any())).thenReturn(0);
+
+        service.generate(userId, logId, "cover_a.jpg");
+
+        // Gambar kecil tidak diperbesar
+        assertEquals(800, ImageIO.read(tempDir.resolve("cover_a_detail.jpg").toFile()).getWidth());
+        verify(cache, never()).invalidate(any());
+    }
+
+    @Test
+    @DisplayName("Generate: Gambar default, file bukan gambar & file hilang dilewati")
+    void testGenerateSkips() throws IOException {
+        Files.writeString(tempDir.resolve("cover_b.jpg"), "bukan gambar");
+
+        service.generate(userId, logId, FileStorageService.DEFAULT_IMAGE);
+        service.generate(userId, logId, null);
+        service.generate(userId, logId, "cover_b.jpg");
+        service.generate(userId, logId, "ghost.jpg");
+
+        verify(repository, never()).updateImageVariants(any(), any(), any(), any());
+        assertFalse(Files.exists(tempDir.resolve("cover_b_grid.jpg")));
+    }
+
+    @Test
+    @DisplayName("Resize: Slot decode penuh lebih lama dari acquire-timeout menghasilkan BusyException")
+    void testResizeBusy() throws Exception {
+        writeImage("cover_a.png", 800, 600, "png");
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        // Dua generate yang tertahan memakai kedua slot
+        when(repository.updateImageVariants(any(), any(), any(), any())).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 0;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.submit(() -> service.generate(userId, logId, "cover_a.png"));
+            executor.submit(() -> service.generate(userId, logId, "cover_a.png"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Path target = tempDir.resolve("resized.jpg");
+            assertThrows(ImageVariantService.BusyException.class, () -> service.resize("cover_a.png", 320, 0.8f, target));
+            assertFalse(Files.exists(target));
+
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertTrue(service.resize("cover_a.png", 320, 0.8f, target));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Subsampling: Piksel hasil decode dibatasi anggaran memori")
+    void testSubsampling() {
+        assertEquals(1, ImageVariantService.subsampling(2000, 1500, 1280, 1280, 8_000_000));
+        assertEquals(4, ImageVariantService.subsampling(12000, 9000, 1280, 1280, 8_000_000));
+        int step = ImageVariantService.subsampling(30000, 30000, 1280, 1280, 1_000_000);
+        long side = (30000 + step - 1) / step;
+        assertTrue(side * side <= 1_000_000);
+    }
+
+    @Test
+    @DisplayName("Scale: Transparan menjadi putih, sisi terpanjang sesuai batas")
+    void testScale() {
+        BufferedImage transparent = new BufferedImage(1000, 500, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage scaled = ImageVariantService.scale(transparent, 480, 480);
+
+        assertEquals(480, scaled.getWidth());
+        assertEquals(240, scaled.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_RGB, scaled.getType());
+        assertEquals(0xFFFFFF, scaled.getRGB(10, 10) & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,203 @@
+package org.delcom.app.services;
+
+import org.delcom.app.dto.TravelLogCursor;
+import org.delcom.app.dto.TravelLogSummary;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InvertedIndexSearchBackendTests {
+
+    @Mock
+    private TravelLogRepository repository;
+
+    private InvertedIndexSearchBackend backend;
+
+    private final UUID userId = UUID.randomUUID();
+    private final List<TravelLog> stored = new ArrayList<>();
+    private final LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        backend = new InvertedIndexSearchBackend(repository, 1_000);
+        when(repository.findByUserIdOrderByCreatedAtDesc(any())).thenAnswer(inv -> stored.stream()
+                .filter(l -> l.getUserId().equals(inv.getArgument(0))).toList());
+        when(repository.findByUserIdAndIdIn(any(), anyCollection())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(1);
+            return stored.stream().filter(l -> ids.contains(l.getId())).toList();
+        });
+        when(repository.findSummariesByIdIn(any(), anyCollection())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(1);
+            return stored.stream().filter(l -> ids.contains(l.getId()))
+                    .map(l -> new TravelLogSummary(l.getId(), l.getTitle(), l.getDestination(), l.getDescription(),
+                            l.getImagePath(), l.getImageVariants(), l.getTotalCost(), l.getRating(), l.getCreatedAt()))
+                    .toList();
+        });
+    }
+
+    private TravelLog log(UUID owner, int minute, String title, String destination, String description, long cost) {
+        TravelLog log = new TravelLog(owner, title, destination, description, cost, 5);
+        log.setId(UUID.randomUUID());
+        ReflectionTestUtils.setField(log, "createdAt", base.plusMinutes(minute));
+        stored.add(log);
+        return log;
+    }
+
+    private List<String> titles(List<TravelLog> logs) {
+        return logs.stream().map(TravelLog::getTitle).toList();
+    }
+
+    @Test
+    @DisplayName("Search: Prefix dan AND antar term, urut terbaru dulu")
+    void testPrefixAndMultiTerm() {
+        log(userId, 1, "Pantai Kuta", "Bali", "Berenang sore", 100);
+        log(userId, 2, "Pantai Pink", "Lombok", "Snorkeling", 200);
+        log(userId, 3, "Gunung Rinjani", "Lombok", "Mendaki", 300);
+
+        assertEquals(List.of("Pantai Pink", "Pantai Kuta"), titles(backend.search(userId, "pan")));
+        assertEquals(List.of("Pantai Pink"), titles(backend.search(userId, "pantai lomb")));
+        assertEquals(List.of("Gunung Rinjani"), titles(backend.search(userId, "MENDAKI")));
+        assertTrue(backend.search(userId, "pantai mendaki").isEmpty());
+        assertTrue(backend.search(userId, "!!!").isEmpty());
+        assertEquals(300L, backend.sumTotalCost(userId, "lombok gunung"));
+    }
+
+    @Test
+    @DisplayName("Search: Index dibangun sekali lalu dipakai ulang")
+    void testBuiltLazilyOnce() {
+        log(userId, 1, "Pantai Kuta", "Bali", "", 100);
+
+        backend.search(userId, "pantai");
+        backend.search(userId, "kuta");
+        backend.sumTotalCost(userId, "bali");
+
+        verify(repository, times(1)).findByUserIdOrderByCreatedAtDesc(userId);
+        assertEquals(1, backend.cachedUsers());
+    }
+
+    @Test
+    @DisplayName("Index per user: Jurnal user lain tidak ikut")
+    void testShardedPerUser() {
+        UUID other = UUID.randomUUID();
+        log(userId, 1, "Pantai Kuta", "Bali", "", 100);
+        log(other, 2, "Pantai Sanur", "Bali", "", 100);
+
+        assertEquals(List.of("Pantai Kuta"), titles(backend.search(userId, "pantai")));
+        assertEquals(List.of("Pantai Sanur"), titles(backend.search(other, "pantai")));
+    }
+
+    @Test
+    @DisplayName("SearchPage: Keyset cursor di memori")
+    void testSearchPage() {
+        for (int i = 0; i < 5; i++) log(userId, i, "Pantai " + i, "Bali", "", 10);
+
+        List<TravelLogSummary> first = backend.searchPage(userId, "pantai", null, 2);
+        assertEquals(List.of("Pantai 4", "Pantai 3"), first.stream().map(TravelLogSummary::getTitle).toList());
+
+        TravelLogSummary last = first.get(1);
+        List<TravelLogSummary> second = backend.searchPage(userId, "pantai",
+                new TravelLogCursor(last.getCreatedAt(), last.getId()), 2);
+        assertEquals(List.of("Pantai 2", "Pantai 1"), second.stream().map(TravelLogSummary::getTitle).toList());
+    }
+
+    @Test
+    @DisplayName("OnSaved/OnDeleted: Index diperbarui tanpa dibangun ulang")
+    void testIncrementalUpdates() {
+        TravelLog kuta = log(userId, 1, "Pantai Kuta", "Bali", "", 100);
+        backend.search(userId, "pantai");
+
+        TravelLog baru = log(userId, 2, "Pantai Senggigi", "Lombok", "", 50);
+        backend.onSaved(baru);
+        assertEquals(List.of("Pantai Senggigi", "Pantai Kuta"), titles(backend.search(userId, "pantai")));
+
+        // Edit: term lama tidak boleh cocok lagi
+        kuta.setTitle("Pura Uluwatu");
+        backend.onSaved(kuta);
+        assertEquals(List.of("Pantai Senggigi"), titles(backend.search(userId, "pantai")));
+        assertEquals(List.of("Pura Uluwatu"), titles(backend.search(userId, "uluwatu")));
+
+        backend.onDeleted(baru);
+        assertTrue(backend.search(userId, "senggigi").isEmpty());
+
+        verify(repository, times(1)).findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    @Test
+    @DisplayName("OnBulkChange: Index yang dibangun sebelum commit dibuang lagi setelah commit")
+    void testBulkChangeDropsShardAfterCommit() {
+        TravelLog kuta = log(userId, 1, "Pantai Kuta", "Bali", "", 100);
+        backend.search(userId, "pantai");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            kuta.setTitle("Pura Uluwatu");
+            backend.onBulkChange(userId);
+            // Pencarian lain sebelum commit: membaca data lama dan meng-cache index-nya
+            kuta.setTitle("Pantai Kuta");
+            backend.search(userId, "pantai");
+            assertEquals(1, backend.cachedUsers());
+
+            kuta.setTitle("Pura Uluwatu");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, backend.cachedUsers());
+        assertTrue(backend.search(userId, "pantai").isEmpty());
+        assertEquals(List.of("Pura Uluwatu"), titles(backend.search(userId, "uluwatu")));
+    }
+
+    @Test
+    @DisplayName("OnSaved: User yang belum punya index tidak dibangun")
+    void testSaveWithoutIndexIsCheap() {
+        backend.onSaved(log(userId, 1, "Pantai Kuta", "Bali", "", 100));
+
+        assertEquals(0, backend.cachedUsers());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("LRU: Index user yang lama tidak dipakai dibuang saat melewati batas posting")
+    void testEvictsColdUsers() {
+        backend = new InvertedIndexSearchBackend(repository, 10);
+        UUID cold = UUID.randomUUID();
+        UUID hot = UUID.randomUUID();
+        log(cold, 1, "satu dua tiga", "empat", "lima enam", 1);
+        log(hot, 1, "tujuh delapan", "sembilan", "sepuluh sebelas", 1);
+
+        backend.search(cold, "satu");
+        backend.search(hot, "tujuh");
+
+        assertEquals(1, backend.cachedUsers());
+        backend.search(hot, "delapan");
+        verify(repository, times(1)).findByUserIdOrderByCreatedAtDesc(hot);
+    }
+
+    @Test
+    @DisplayName("Tokenize: Huruf kecil, pisah di tanda baca")
+    void testTokenize() {
+        assertEquals(List.of("danau", "toba", "2024"), InvertedIndexSearchBackend.tokenize("Danau-Toba, 2024!"));
+        assertTrue(InvertedIndexSearchBackend.tokenize(null).isEmpty());
+    }
+}
@@ -0,0 +1,230 @@
+package org.delcom.app.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ResumableUploadServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    private FileStorageService fileStorage;
+    private Path uploads;
+    private Path sessions;
+    private final UUID userId = UUID.randomUUID();
+    private final UUID logId = UUID.randomUUID();
+    private final byte[] photo = new byte[200_000];
+
+    @BeforeEach
+    void setUp() throws Exception {
+        uploads = tempDir.resolve("uploads");
+        sessions = tempDir.resolve("sessions");
+        fileStorage = new FileStorageService(new FilesystemStorageEngine(uploads.toString()),
+                new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)));
+        for (int i = 0; i < photo.length; i++) photo[i] = (byte) (i * 31);
+    }
+
+    private ResumableUploadService service() throws IOException {
+        return service(5, DataSize.ofMegabytes(10));
+    }
+
+    private ResumableUploadService service(int maxSessionsPerUser, DataSize maxTotalSize) throws IOException {
+        return new ResumableUploadService(fileStorage, sessions.toString(), DataSize.ofMegabytes(1), Duration.ofHours(24),
+                maxSessionsPerUser, maxTotalSize);
+    }
+
+    private static InputStream chunk(byte[] data, int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(data, from, to));
+    }
+
+    private String expectedName() throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(photo)) + ".jpg";
+    }
+
+    @Test
+    @DisplayName("Upload: Potongan berurutan digabung lalu disimpan dengan nama hash isi")
+    void testChunkedUpload() throws Exception {
+        ResumableUploadService service = service();
+        ResumableUploadService.Upload upload = service.create(userId, logId, "pantai.JPG", photo.length);
+
+        ResumableUploadService.Upload first = service.append(userId, upload.id(), 0, chunk(photo, 0, 70_000));
+        assertEquals(70_000, first.offset());
+        assertFalse(first.complete());
+        assertEquals(70_000, service.get(userId, upload.id()).offset());
+
+        ResumableUploadService.Upload last = service.append(userId, upload.id(), 70_000, chunk(photo, 70_000, photo.length));
+
+        assertTrue(last.complete());
+        assertEquals(logId, last.logId());
+        assertEquals(expectedName(), last.storedAs());
+        assertArrayEquals(photo, fileStorage.openFile(last.storedAs()).readAllBytes());
+        assertNull(service.get(userId, upload.id()));
+        try (var files = Files.list(sessions)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Resume: Koneksi putus di tengah potongan, offset melanjutkan dari byte yang sudah tertulis")
+    void testResumeAfterDisconnect() throws Exception {
+        ResumableUploadService service = service();
+        String id = service.create(userId, logId, "pantai.jpg", photo.length).id();
+
+        // Body berhenti dengan error setelah 50.000 byte
+        InputStream broken = new InputStream() {
+            private final InputStream data = chunk(photo, 0, 50_000);
+
+            @Override
+            public int read() throws IOException {
+                int b = data.read();
+                if (b < 0) throw new IOException("koneksi putus");
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int n = data.read(buffer, off, len);
+                if (n < 0) throw new IOException("koneksi putus");
+                return n;
+            }
+        };
+        assertThrows(IOException.class, () -> service.append(userId, id, 0, broken));
+        long offset = service.get(userId, id).offset();
+        assertEquals(50_000, offset);
+
+        ResumableUploadService.Upload done = service.append(userId, id, offset, chunk(photo, 50_000, photo.length));
+        assertEquals(expectedName(), done.storedAs());
+    }
+
+    @Test
+    @DisplayName("Restart: Sesi dibaca ulang dari disk, hash dihitung ulang dari isi file")
+    void testResumeAfterRestart() throws Exception {
+        String id = service().create(userId, logId, "pantai.jpg", photo.length).id();
+        service().append(userId, id, 0, chunk(photo, 0, 120_000));
+
+        ResumableUploadService restarted = service();
+        assertEquals(120_000, restarted.get(userId, id).offset());
+        ResumableUploadService.Upload done = restarted.append(userId, id, 120_000, chunk(photo, 120_000, photo.length));
+
+        assertEquals(expectedName(), done.storedAs());
+        assertArrayEquals(photo, fileStorage.openFile(done.storedAs()).readAllBytes());
+    }
+
+    @Test
+    @DisplayName("Tolak: Offset salah, potongan melebihi ukuran, ukuran di atas batas, user lain")
+    void testRejections() throws Exception {
+        ResumableUploadService service = service();
+        String id = service.create(userId, logId, "pantai.jpg", 100).id();
+
+        assertThrows(ResumableUploadService.ConflictException.class,
+                () -> service.append(userId, id, 10, chunk(photo, 0, 10)));
+        assertThrows(IllegalArgumentException.class, () -> service.append(userId, id, 0, chunk(photo, 0, 101)));
+        assertEquals(0, service.get(userId, id).offset());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.create(userId, logId, "besar.jpg", DataSize.ofMegabytes(2).toBytes()));
+
+        UUID other = UUID.randomUUID();
+        assertNull(service.get(other, id));
+        assertNull(service.append(other, id, 0, chunk(photo, 0, 10)));
+        assertFalse(service.delete(other, id));
+        assertNull(service.get(userId, "../../etc/passwd"));
+    }
+
+    @Test
+    @DisplayName("Batas: Sesi terbuka per user dan total ukuran yang dipesan dibatasi, juga setelah restart")
+    void testSessionLimits() throws Exception {
+        ResumableUploadService service = service(2, DataSize.ofKilobytes(1000));
+        UUID other = UUID.randomUUID();
+        String first = service.create(userId, logId, "a.jpg", 100).id();
+        service.create(userId, logId, "b.jpg", 100);
+
+        assertThrows(ResumableUploadService.TooManySessionsException.class,
+                () -> service.create(userId, logId, "c.jpg", 100));
+        String large = service.create(other, logId, "besar.jpg", 600_000).id();
+        assertThrows(ResumableUploadService.CapacityExceededException.class,
+                () -> service.create(UUID.randomUUID(), logId, "besar2.jpg", 600_000));
+
+        // Sesi lama di disk ikut dihitung setelah restart
+        ResumableUploadService restarted = service(2, DataSize.ofKilobytes(1000));
+        assertThrows(ResumableUploadService.TooManySessionsException.class,
+                () -> restarted.create(userId, logId, "c.jpg", 100));
+
+        // Sesi yang dibatalkan melepas jatahnya
+        assertTrue(restarted.delete(userId, first));
+        assertTrue(restarted.delete(other, large));
+        assertNotNull(restarted.create(userId, logId, "c.jpg", 100));
+        assertNotNull(restarted.create(UUID.randomUUID(), logId, "besar2.jpg", 600_000));
+    }
+
+    @Test
+    @DisplayName("Hapus & kedaluwarsa: Sesi yang dibatalkan atau lama tidak disentuh dibuang beserta isinya")
+    void testDeleteAndExpire() throws Exception {
+        ResumableUploadService service = service();
+        String cancelled = service.create(userId, logId, "a.jpg", 100).id();
+        String stale = service.create(userId, logId, "b.jpg", 100).id();
+        String fresh = service.create(userId, logId, "c.jpg", 100).id();
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofHours(25).toMillis());
+        Files.setLastModifiedTime(sessions.resolve(stale + ".info"), old);
+        Files.setLastModifiedTime(sessions.resolve(stale + ".part"), old);
+
+        assertTrue(service.delete(userId, cancelled));
+        service.expire();
+
+        assertNull(service.get(userId, cancelled));
+        assertNull(service.get(userId, stale));
+        assertNotNull(service.get(userId, fresh));
+        assertFalse(Files.exists(sessions.resolve(stale + ".part")));
+    }
+
+    @Test
+    @DisplayName("Gagal simpan: Part tetap utuh, sesi masih ada, dan PATCH terakhir bisa diulang")
+    void testRetryAfterStoreFailure() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        fileStorage = new FileStorageService(new FilesystemStorageEngine(uploads.toString()) {
+            @Override
+            public void put(String name, Path source) throws IOException {
+                if (failing.get()) throw new IOException("storage tidak tersedia");
+                super.put(name, source);
+            }
+        }, new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)));
+        ResumableUploadService service = service();
+        String id = service.create(userId, logId, "pantai.jpg", photo.length).id();
+
+        assertThrows(IOException.class, () -> service.append(userId, id, 0, chunk(photo, 0, photo.length)));
+
+        assertEquals(photo.length, service.get(userId, id).offset());
+        assertEquals(photo.length, Files.size(sessions.resolve(id + ".part")));
+
+        failing.set(false);
+        ResumableUploadService.Upload last = service.append(userId, id, photo.length, InputStream.nullInputStream());
+
+        assertTrue(last.complete());
+        assertEquals(expectedName(), last.storedAs());
+        assertArrayEquals(photo, fileStorage.openFile(last.storedAs()).readAllBytes());
+        assertNull(service.get(userId, id));
+    }
+}
@@ -0,0 +1,252 @@
+package org.delcom.app.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentStorageEngineTests {
+
+    @TempDir
+    Path tempDir;
+
+    private SegmentStorageEngine engine;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        engine = open(DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    private SegmentStorageEngine open(DataSize maxSize) throws IOException {
+        return new SegmentStorageEngine(tempDir.toString(), tempDir.resolve("segments").toString(), maxSize, 0.5);
+    }
+
+    private SegmentStorageEngine reopen() throws IOException {
+        engine.close();
+        engine = open(DataSize.ofMegabytes(1));
+        return engine;
+    }
+
+    private void put(String name, String content) throws IOException {
+        Path tmp = Files.createTempFile(engine.tempDir(), "upload-", ".tmp");
+        Files.writeString(tmp, content);
+        engine.put(name, tmp);
+        assertFalse(Files.exists(tmp), "File sementara harus dipindah ke segment");
+    }
+
+    private String read(String name) throws IOException {
+        try (InputStream in = engine.open(name)) {
+            return new String(in.readAllBytes());
+        }
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("segments"))) {
+            return files.filter(file -> file.toString().endsWith(".dat")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Put & Locate: Blob ditulis ke satu segment, lokasi = offset di file segment")
+    void testPutAndLocate() throws IOException {
+        put("cover_a.jpg", "isi A");
+        put("cover_b.jpg", "isi B yang lebih panjang");
+
+        StorageEngine.Blob blob = engine.locate("cover_b.jpg");
+
+        assertEquals("isi A", read("cover_a.jpg"));
+        assertEquals("isi B yang lebih panjang", read("cover_b.jpg"));
+        assertEquals(1, segmentFiles());
+        assertFalse(blob.wholeFile());
+        assertEquals(24, blob.length());
+        try (FileChannel channel = FileChannel.open(blob.file(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) blob.length());
+            channel.read(buffer, blob.offset());
+            assertEquals("isi B yang lebih panjang", new String(buffer.array()));
+        }
+        assertNull(engine.locate("ghost.jpg"));
+    }
+
+    @Test
+    @DisplayName("Path: Blob diekstrak ke file biasa untuk kode yang butuh Path")
+    void testPathExtractsBlob() throws IOException {
+        put("cover_a.jpg", "isi A");
+
+        Path file = engine.path("cover_a.jpg");
+
+        assertEquals("isi A", Files.readString(file));
+        put("cover_a.jpg", "isi baru");
+        assertEquals("isi baru", Files.readString(engine.path("cover_a.jpg")));
+    }
+
+    @Test
+    @DisplayName("Delete: Tombstone tetap berlaku setelah restart")
+    void testDeleteSurvivesRestart() throws IOException {
+        put("cover_a.jpg", "isi A");
+        put("cover_b.jpg", "isi B");
+
+        assertTrue(engine.delete("cover_a.jpg"));
+        assertFalse(engine.delete("cover_a.jpg"));
+        reopen();
+
+        assertNull(engine.locate("cover_a.jpg"));
+        assertEquals("isi B", read("cover_b.jpg"));
+        assertEquals(1, engine.getBlobCount());
+    }
+
+    @Test
+    @DisplayName("Restart: Index dibangun ulang dari segment jika file .idx hilang")
+    void testRebuildsMissingIndex() throws IOException {
+        put("cover_a.jpg", "isi A");
+        put("cover_a.jpg", "isi A versi 2");
+        engine.close();
+        Files.delete(tempDir.resolve("segments").resolve("segment-00000001.idx"));
+
+        engine = open(DataSize.ofMegabytes(1));
+
+        assertEquals("isi A versi 2", read("cover_a.jpg"));
+        assertTrue(engine.getGarbageBytes() > 0, "Versi lama dihitung sebagai data mati");
+        assertTrue(Files.exists(tempDir.resolve("segments").resolve("segment-00000001.idx")));
+    }
+
+    @Test
+    @DisplayName("Restart: Record terakhir yang terpotong dibuang, append berikutnya tetap terbaca")
+    void testTruncatesTornTail() throws IOException {
+        put("cover_a.jpg", "isi A");
+        engine.close();
+        Path segment = tempDir.resolve("segments").resolve("segment-00000001.dat");
+        long intact = Files.size(segment);
+        Files.write(segment, new byte[] {0x54, 0x52, 0x4C}, StandardOpenOption.APPEND);
+
+        engine = open(DataSize.ofMegabytes(1));
+        put("cover_b.jpg", "isi B");
+        reopen();
+
+        assertEquals("isi A", read("cover_a.jpg"));
+        assertEquals("isi B", read("cover_b.jpg"));
+        assertTrue(Files.size(segment) > intact);
+    }
+
+    @Test
+    @DisplayName("Segment: Segment baru dibuat saat segment aktif penuh")
+    void testRollsSegments() throws IOException {
+        engine.close();
+        engine = open(DataSize.ofBytes(100));
+
+        put("cover_a.jpg", "a".repeat(60));
+        put("cover_b.jpg", "b".repeat(60));
+
+        assertEquals(2, engine.getSegmentCount());
+        assertEquals("a".repeat(60), read("cover_a.jpg"));
+        assertEquals("b".repeat(60), read("cover_b.jpg"));
+    }
+
+    @Test
+    @DisplayName("Kompaksi: Blob hidup disalin ke segment aktif, data mati dibuang")
+    void testCompaction() throws IOException {
+        engine.close();
+        engine = open(DataSize.ofBytes(200));
+        put("cover_a.jpg", "a".repeat(60));
+        put("cover_c.jpg", "c".repeat(60));
+        put("cover_b.jpg", "b".repeat(60));
+        Path first = engine.locate("cover_c.jpg").file();
+
+        engine.delete("cover_a.jpg");
+        engine.compactAll();
+
+        assertNotEquals(first, engine.locate("cover_c.jpg").file());
+        assertEquals("c".repeat(60), read("cover_c.jpg"));
+        assertEquals("b".repeat(60), read("cover_b.jpg"));
+        assertNull(engine.locate("cover_a.jpg"));
+        assertEquals(0, engine.getGarbageBytes());
+        reopen();
+        assertEquals("c".repeat(60), read("cover_c.jpg"));
+        assertNull(engine.locate("cover_a.jpg"));
+    }
+
+    @Test
+    @DisplayName("Kompaksi: Record rusak membatalkan kompaksi, segment lama dan blob di dalamnya tetap ada")
+    void testCompactionKeepsCorruptSegment() throws IOException {
+        engine.close();
+        engine = open(DataSize.ofBytes(200));
+        put("cover_a.jpg", "a".repeat(60));
+        put("cover_c.jpg", "c".repeat(60));
+        put("cover_b.jpg", "b".repeat(60));
+        StorageEngine.Blob c = engine.locate("cover_c.jpg");
+        // Magic record cover_c dirusak: pemindaian berhenti sebelum akhir segment
+        long recordStart = c.offset() - SegmentStorageEngine.HEADER_BYTES - "cover_c.jpg".length();
+        try (FileChannel channel = FileChannel.open(c.file(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), recordStart);
+        }
+
+        engine.delete("cover_a.jpg");
+        engine.compactAll();
+
+        assertEquals(c.file(), engine.locate("cover_c.jpg").file());
+        assertTrue(Files.exists(c.file()));
+        assertEquals("c".repeat(60), read("cover_c.jpg"));
+        assertEquals(2, engine.getSegmentCount());
+        assertTrue(engine.getGarbageBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Legacy: Nama yang tidak ada di segment dibaca dari app.upload.dir")
+    void testLegacyFallback() throws IOException {
+        Files.writeString(tempDir.resolve("cover_lama.jpg"), "lama");
+
+        assertEquals("lama", read("cover_lama.jpg"));
+        assertTrue(engine.locate("cover_lama.jpg").wholeFile());
+        assertEquals(tempDir.resolve("cover_lama.jpg"), engine.path("cover_lama.jpg"));
+        assertTrue(engine.delete("cover_lama.jpg"));
+        assertFalse(Files.exists(tempDir.resolve("cover_lama.jpg")));
+    }
+
+    @Test
+    @DisplayName("Names: Blob di segment & upload lama, tanpa file segment atau yang sudah dihapus")
+    void testNames() throws IOException {
+        put("cover_a.jpg", "isi A");
+        put("cover_b.jpg", "isi B");
+        engine.delete("cover_b.jpg");
+        engine.path("cover_a.jpg");
+        Files.writeString(tempDir.resolve("cover_lama.jpg"), "lama");
+
+        try (Stream<String> names = engine.names()) {
+            assertEquals(List.of("cover_a.jpg", "cover_lama.jpg"), names.sorted().toList());
+        }
+    }
+
+    @Test
+    @DisplayName("FileStorageService: Kontrak storeFile/loadFile/deleteFile sama di engine segment")
+    void testFileStorageContract() throws Exception {
+        FileStorageService storage = new FileStorageService(engine, new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)));
+        MockMultipartFile upload = new MockMultipartFile("file", "foto.jpg", "image/jpeg", "foto".getBytes());
+
+        String name = storage.storeFile(upload);
+
+        assertEquals(name, storage.storeFile(upload));
+        assertTrue(storage.fileExists(name));
+        assertEquals("foto", Files.readString(storage.loadFile(name)));
+        assertTrue(storage.deleteFile(name));
+        assertFalse(storage.fileExists(name));
+    }
+}
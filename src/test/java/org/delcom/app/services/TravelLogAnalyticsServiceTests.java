@@ -0,0 +1,134 @@
+package org.delcom.app.services;
+
+import org.delcom.app.dto.DestinationTotal;
+import org.delcom.app.dto.SpendPoint;
+import org.delcom.app.dto.SpendingAnalytics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TravelLogAnalyticsServiceTests {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private TravelLogAnalyticsService service;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        service = new TravelLogAnalyticsService(jdbcTemplate, new TravelLogCache(100, Duration.ofMinutes(1)));
+    }
+
+    private static List<SpendPoint> monthly(int count) {
+        List<SpendPoint> points = new ArrayList<>();
+        long running = 0;
+        for (int i = 0; i < count; i++) {
+            long total = (i % 7) * 100L;
+            running += total;
+            points.add(new SpendPoint(LocalDate.of(2020, 1, 1).plusMonths(i), total, 1, running));
+        }
+        return points;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubQueries(List<SpendPoint> series, List<SpendPoint> yearly) throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            if (sql.equals(TravelLogAnalyticsService.SPENDING_SQL.formatted("year"))) return yearly;
+            if (sql.startsWith("SELECT bucket")) return series;
+            return List.of(new DestinationTotal("Bali", 500L), new DestinationTotal(TravelLogAnalyticsService.OTHERS, 50L));
+        });
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("rating")).thenReturn(5, 3);
+        when(rs.getLong("logs")).thenReturn(4L, 1L);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(eq(TravelLogAnalyticsService.RATINGS_SQL), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Spending: Deret waktu di-downsample, rating 1..5 lengkap, hasil di-cache")
+    void testGetSpending() throws Exception {
+        List<SpendPoint> series = monthly(500);
+        List<SpendPoint> yearly = monthly(3);
+        stubQueries(series, yearly);
+
+        SpendingAnalytics analytics = service.getSpending(userId, "month", 50, 8);
+
+        assertEquals("month", analytics.getGranularity());
+        assertEquals(50, analytics.getSeries().size());
+        assertEquals(500, analytics.getSeriesSize());
+        assertSame(yearly, analytics.getYearly());
+        assertEquals(List.of(1, 2, 3, 4, 5), new ArrayList<>(analytics.getRatings().keySet()));
+        assertEquals(4L, analytics.getRatings().get(5));
+        assertEquals(1L, analytics.getRatings().get(3));
+        assertEquals(0L, analytics.getRatings().get(1));
+        assertEquals(TravelLogAnalyticsService.OTHERS, analytics.getDestinations().get(1).getDestination());
+
+        service.getSpending(userId, "month", 50, 8);
+        verify(jdbcTemplate, times(1)).query(eq(TravelLogAnalyticsService.RATINGS_SQL), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Spending: Granularity di luar daftar ditolak (tidak pernah masuk SQL)")
+    void testGetSpendingRejectsUnknownGranularity() {
+        assertThrows(IllegalArgumentException.class, () -> service.getSpending(userId, "month'); DROP TABLE x; --", 50, 8));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("TopDestinations: Limit diteruskan ke query window function")
+    void testGetTopDestinations() {
+        when(jdbcTemplate.query(eq(TravelLogAnalyticsService.TOP_DESTINATIONS_SQL), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(new DestinationTotal("Bali", 500L)));
+
+        assertEquals(1, service.getTopDestinations(userId, 10).size());
+        verify(jdbcTemplate).query(eq(TravelLogAnalyticsService.TOP_DESTINATIONS_SQL), any(RowMapper.class), eq(10), eq(userId));
+    }
+
+    @Test
+    @DisplayName("LTTB: Titik awal/akhir dipertahankan, urutan waktu terjaga, puncak tidak hilang")
+    void testDownsample() {
+        List<SpendPoint> points = monthly(1000);
+        points.set(503, new SpendPoint(points.get(503).getPeriod(), 99999L, 1, 0));
+
+        List<SpendPoint> sampled = TravelLogAnalyticsService.downsample(points, 100);
+
+        assertEquals(100, sampled.size());
+        assertSame(points.get(0), sampled.get(0));
+        assertSame(points.get(999), sampled.get(99));
+        for (int i = 1; i < sampled.size(); i++) {
+            assertTrue(sampled.get(i).getPeriod().isAfter(sampled.get(i - 1).getPeriod()));
+        }
+        assertTrue(sampled.contains(points.get(503)), "Titik ekstrem harus terpilih");
+
+        List<SpendPoint> small = monthly(10);
+        assertSame(small, TravelLogAnalyticsService.downsample(small, 10));
+        assertSame(small, TravelLogAnalyticsService.downsample(small, 2));
+        assertEquals(3, TravelLogAnalyticsService.downsample(small, 3).size());
+    }
+}
@@ -0,0 +1,116 @@
+package org.delcom.app.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TravelLogCacheTests {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final UUID userId = UUID.randomUUID();
+
+    private TravelLogCache cache(int maxEntries) {
+        return new TravelLogCache(maxEntries, Duration.ofSeconds(60), clock::get);
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    @Test
+    @DisplayName("Get: Hit setelah miss pertama, metrik tercatat")
+    void testHitAndMiss() {
+        TravelLogCache cache = cache(10);
+        TravelLogCache.Key key = TravelLogCache.key(userId, "page", "Bali");
+
+        assertEquals("a", cache.get(key, () -> load("a")));
+        assertEquals("a", cache.get(key, () -> load("b")));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    @DisplayName("TTL: Entri kedaluwarsa dimuat ulang")
+    void testTtl() {
+        TravelLogCache cache = cache(10);
+        TravelLogCache.Key key = TravelLogCache.key(userId, "total", null);
+
+        cache.get(key, () -> load("a"));
+        clock.addAndGet(Duration.ofSeconds(59).toNanos());
+        cache.get(key, () -> load("a"));
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.get(key, () -> load("a"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("LRU: Entri paling lama tidak dipakai dibuang saat penuh")
+    void testLruEviction() {
+        TravelLogCache cache = cache(2);
+        TravelLogCache.Key a = TravelLogCache.key(userId, "page", "a");
+        TravelLogCache.Key b = TravelLogCache.key(userId, "page", "b");
+        TravelLogCache.Key c = TravelLogCache.key(userId, "page", "c");
+
+        cache.get(a, () -> load("a"));
+        cache.get(b, () -> load("b"));
+        cache.get(a, () -> load("a")); // a jadi paling baru dipakai
+        cache.get(c, () -> load("c"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        cache.get(a, () -> load("a"));
+        assertEquals(3, loads.get(), "a masih di cache");
+        cache.get(b, () -> load("b"));
+        assertEquals(4, loads.get(), "b sudah dibuang");
+    }
+
+    @Test
+    @DisplayName("Invalidate: Entri user lama tidak terpakai, termasuk hasil load yang sedang berjalan")
+    void testInvalidate() {
+        TravelLogCache cache = cache(10);
+        TravelLogCache.Key key = TravelLogCache.key(userId, "page", null);
+
+        cache.get(key, () -> load("a"));
+        cache.invalidate(userId);
+        assertEquals("b", cache.get(key, () -> load("b")));
+
+        // Invalidasi terjadi saat query masih berjalan: hasilnya tidak disimpan
+        cache.get(TravelLogCache.key(userId, "total", null), () -> {
+            cache.invalidate(userId);
+            return load("lama");
+        });
+        assertEquals("baru", cache.get(TravelLogCache.key(userId, "total", null), () -> load("baru")));
+    }
+
+    @Test
+    @DisplayName("Key: Keyword dinormalisasi, kosong sama dengan null")
+    void testKeyNormalized() {
+        assertEquals(TravelLogCache.key(userId, "page", "Pantai  Kuta"), TravelLogCache.key(userId, "page", " pantai kuta "));
+        assertEquals(TravelLogCache.key(userId, "page", null), TravelLogCache.key(userId, "page", "  "));
+    }
+
+    @Test
+    @DisplayName("Nonaktif: max-entries 0 selalu memuat ulang")
+    void testDisabled() {
+        TravelLogCache cache = cache(0);
+        TravelLogCache.Key key = TravelLogCache.key(userId, "page", null);
+
+        cache.get(key, () -> load("a"));
+        cache.get(key, () -> load("a"));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,115 @@
+package org.delcom.app.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.repositories.TravelLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TravelLogExportServiceTests {
+
+    @Mock
+    private TravelLogRepository repository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TravelLogExportService service;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        service = new TravelLogExportService(repository, entityManager, objectMapper);
+    }
+
+    private TravelLog log(String title, String description, long cost) {
+        TravelLog log = new TravelLog(userId, title, "Bali", description, cost, 5);
+        log.setId(UUID.randomUUID());
+        log.setImagePath("a.jpg");
+        ReflectionTestUtils.setField(log, "createdAt", LocalDateTime.of(2024, 5, 1, 10, 0));
+        return log;
+    }
+
+    @Test
+    @DisplayName("NDJSON: Satu objek per baris, entity di-detach setelah ditulis")
+    void testNdjson() throws Exception {
+        TravelLog first = log("Pantai \"Kuta\"", "Baris 1\nBaris 2", 1500L);
+        TravelLog second = log("Tanpa biaya", null, 0L);
+        when(repository.streamByUserId(userId)).thenReturn(Stream.of(first, second));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = service.writeNdjson(userId, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        JsonNode node = objectMapper.readTree(lines[0]);
+        assertEquals("Pantai \"Kuta\"", node.get("title").asText());
+        assertEquals("Baris 1\nBaris 2", node.get("description").asText());
+        assertEquals(1500L, node.get("totalCost").asLong());
+        assertTrue(node.get("totalCost").isIntegralNumber());
+        assertEquals("2024-05-01T10:00", node.get("createdAt").asText());
+        assertEquals(0L, objectMapper.readTree(lines[1]).get("totalCost").asLong());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    @DisplayName("CSV: Header lalu baris, nilai khusus di-escape")
+    void testCsv() throws Exception {
+        when(repository.streamByUserId(userId)).thenReturn(Stream.of(log("Kuta, Bali", "Kata \"indah\"\nsekali", 200L)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = service.writeCsv(userId, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(1, count);
+        assertTrue(csv.startsWith("id,title,destination,description,image_path,total_cost,rating,created_at,updated_at\r\n"));
+        assertTrue(csv.contains(",\"Kuta, Bali\",Bali,\"Kata \"\"indah\"\"\nsekali\",a.jpg,200,5,2024-05-01T10:00,\r\n"));
+    }
+
+    @Test
+    @DisplayName("Streaming: Output di-flush per batch dan stream ditutup")
+    void testFlushesAndClosesStream() throws Exception {
+        int rows = TravelLogExportService.FLUSH_EVERY * 2 + 1;
+        boolean[] closed = {false};
+        when(repository.streamByUserId(userId)).thenReturn(
+                IntStream.range(0, rows).mapToObj(i -> log("T" + i, "", 1L)).onClose(() -> closed[0] = true));
+
+        int[] flushes = {0};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+
+        assertEquals(rows, service.writeNdjson(userId, out));
+        assertTrue(flushes[0] >= 3);
+        assertTrue(closed[0]);
+        verify(entityManager, times(rows)).detach(any());
+    }
+}
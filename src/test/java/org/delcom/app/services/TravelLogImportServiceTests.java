@@ -0,0 +1,252 @@
+package org.delcom.app.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.delcom.app.dto.TravelLogImportResult;
+import org.delcom.app.utils.CsvReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TravelLogImportServiceTests {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private TravelLogStatsService statsService;
+    @Mock private TravelLogSearchBackend searchBackend;
+    @Mock private DestinationSuggestService destinationSuggest;
+    @Mock private TravelLogCache cache;
+    @Mock private DestinationService destinations;
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final UUID userId = UUID.randomUUID();
+    private final List<List<Object[]>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(destinations.intern("Bali")).thenReturn(7L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            batches.add(new ArrayList<>(rows));
+            return new int[rows.size()];
+        });
+    }
+
+    private TravelLogImportService service(long maxRows) {
+        return new TravelLogImportService(jdbcTemplate, transactionManager, VALIDATOR, new ObjectMapper(),
+                statsService, searchBackend, destinationSuggest, cache, destinations, maxRows);
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("CSV: Baris valid di-insert, baris tidak valid dilaporkan per nomor baris")
+    void testCsvImport() throws Exception {
+        String csv = "\uFEFFTitle,Destination,Description,Total Cost,Rating\r\n"
+                + "Pantai Kuta,Bali,\"Indah, sekali\nbaris 2\",1500,5\r\n"
+                + ",Solo,,100,4\r\n"
+                + "\r\n"
+                + "Bromo,Malang,,abc,4\r\n"
+                + "Rinjani,Lombok,,200,9\r\n";
+
+        TravelLogImportResult result = service(100).importCsv(userId, input(csv));
+
+        assertEquals(1, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals("Judul wajib diisi", result.getErrors().get(0).getMessage());
+        assertEquals(3, result.getErrors().get(1).getRow());
+        assertTrue(result.getErrors().get(1).getMessage().contains("total_cost bukan angka"));
+        assertEquals("Rating maksimal 5", result.getErrors().get(2).getMessage());
+
+        Object[] row = batches.get(0).get(0);
+        assertEquals(userId, row[1]);
+        assertEquals("Pantai Kuta", row[2]);
+        assertEquals(7L, row[4]);
+        assertEquals("Indah, sekali\nbaris 2", row[5]);
+        assertEquals(1500L, row[7]);
+        verify(statsService).rebuildUser(userId);
+        verify(searchBackend).onBulkChange(userId);
+        verify(cache).invalidate(userId);
+        verify(destinationSuggest).record(userId, "Bali");
+    }
+
+    @Test
+    @DisplayName("CSV: Header tanpa kolom wajib ditolak")
+    void testCsvMissingHeader() {
+        assertThrows(IllegalArgumentException.class, () -> service(100).importCsv(userId, input("title,rating\nA,5\n")));
+        assertThrows(IllegalArgumentException.class, () -> service(100).importCsv(userId, input("")));
+    }
+
+    @Test
+    @DisplayName("NDJSON: JSON rusak dan field salah dilaporkan, sisanya tetap masuk")
+    void testNdjsonImport() throws Exception {
+        String ndjson = "{\"title\":\"A\",\"destination\":\"Bali\",\"totalCost\":100,\"rating\":5}\n"
+                + "{bukan json\n"
+                + "[1,2]\n"
+                + "{\"title\":\"B\",\"destination\":\"Solo\",\"total_cost\":\"250.00\"}\n"
+                + "{\"title\":\"C\",\"destination\":\"Solo\",\"totalCost\":-1}\n";
+
+        TravelLogImportResult result = service(100).importNdjson(userId, input(ndjson));
+
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals("JSON tidak valid", result.getErrors().get(0).getMessage());
+        assertEquals("Baris bukan objek JSON", result.getErrors().get(1).getMessage());
+        assertEquals("Total biaya tidak boleh negatif", result.getErrors().get(2).getMessage());
+        assertEquals(250L, batches.get(0).get(1)[7]);
+        assertNull(batches.get(0).get(1)[8]);
+    }
+
+    @Test
+    @DisplayName("NDJSON: Biaya pecahan ditolak karena disimpan dalam rupiah utuh")
+    void testNdjsonRejectsFractionalCost() throws Exception {
+        String ndjson = "{\"title\":\"A\",\"destination\":\"Bali\",\"totalCost\":250.5}\n"
+                + "{\"title\":\"B\",\"destination\":\"Bali\",\"totalCost\":1e3}\n";
+
+        TravelLogImportResult result = service(100).importNdjson(userId, input(ndjson));
+
+        assertEquals(1, result.getImported());
+        assertEquals("totalCost harus rupiah utuh tanpa pecahan: 250.5", result.getErrors().get(0).getMessage());
+        assertEquals(1000L, batches.get(0).get(0)[7]);
+    }
+
+    @Test
+    @DisplayName("Batch: Insert per chunk, setiap chunk satu transaksi")
+    void testChunks() throws Exception {
+        int rows = TravelLogImportService.CHUNK_SIZE * 2 + 5;
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < rows; i++) ndjson.append("{\"title\":\"T").append(i).append("\",\"destination\":\"Bali\",\"totalCost\":1}\n");
+
+        TravelLogImportResult result = service(100_000).importNdjson(userId, input(ndjson.toString()));
+
+        assertEquals(rows, result.getImported());
+        assertEquals(3, batches.size());
+        assertEquals(TravelLogImportService.CHUNK_SIZE, batches.get(0).size());
+        assertEquals(5, batches.get(2).size());
+        verify(transactionManager, times(3)).commit(any());
+        verify(statsService, times(1)).rebuildUser(userId);
+    }
+
+    @Test
+    @DisplayName("Batas: Import berhenti setelah max-rows baris")
+    void testMaxRows() throws Exception {
+        String ndjson = "{\"title\":\"A\",\"destination\":\"Bali\",\"totalCost\":1}\n".repeat(5);
+
+        TravelLogImportResult result = service(3).importNdjson(userId, input(ndjson));
+
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(4, result.getErrors().get(0).getRow());
+    }
+
+    @Test
+    @DisplayName("Kosong: Tidak ada baris valid, statistik tidak dihitung ulang")
+    void testNothingImported() throws Exception {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        TravelLogImportResult result = service(100).importNdjson(userId, input("\n\n"));
+
+        assertEquals(0, result.getImported());
+        verify(jdbcTemplate, never()).batchUpdate(sql.capture(), anyList());
+        verify(statsService, never()).rebuildUser(any());
+        verify(cache, never()).invalidate(any());
+    }
+
+    @Test
+    @DisplayName("Gagal di tengah: Chunk yang sudah di-commit tetap masuk statistik, index & cache")
+    void testRefreshAfterLaterChunkFails() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < TravelLogImportService.CHUNK_SIZE * 2; i++) {
+            ndjson.append("{\"title\":\"T").append(i).append("\",\"destination\":\"Bali\",\"totalCost\":1}\n");
+        }
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[TravelLogImportService.CHUNK_SIZE])
+                .thenThrow(new IllegalStateException("koneksi database putus"));
+
+        assertThrows(IllegalStateException.class, () -> service(100_000).importNdjson(userId, input(ndjson.toString())));
+
+        verify(statsService).rebuildUser(userId);
+        verify(searchBackend).onBulkChange(userId);
+        verify(cache).invalidate(userId);
+    }
+
+    @Test
+    @DisplayName("Gagal di tengah: Input putus setelah chunk pertama tetap memperbarui statistik")
+    void testRefreshAfterReaderFails() {
+        StringBuilder csv = new StringBuilder("title,destination,total_cost\n");
+        for (int i = 0; i < TravelLogImportService.CHUNK_SIZE + 10; i++) csv.append("T").append(i).append(",Bali,1\n");
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        InputStream broken = new SequenceInputStream(new ByteArrayInputStream(bytes), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("koneksi putus");
+            }
+        });
+
+        assertThrows(IOException.class, () -> service(100_000).importCsv(userId, broken));
+
+        assertEquals(1, batches.size());
+        verify(statsService).rebuildUser(userId);
+        verify(cache).invalidate(userId);
+    }
+
+    @Test
+    @DisplayName("CSV: Nilai yang terlalu panjang dilaporkan untuk barisnya, baris berikutnya tetap masuk")
+    void testCsvFieldTooLong() throws Exception {
+        String csv = "title,destination,description,total_cost\n"
+                + "A,Bali,\"" + "x".repeat(CsvReader.DEFAULT_MAX_FIELD_LENGTH + 1) + "\nmasih dikutip\",1\n"
+                + "B,Bali,pendek,1\n";
+
+        TravelLogImportResult result = service(100).importCsv(userId, input(csv));
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getErrors().get(0).getRow());
+        assertEquals("Nilai CSV melebihi " + CsvReader.DEFAULT_MAX_FIELD_LENGTH + " karakter", result.getErrors().get(0).getMessage());
+        assertEquals("B", batches.get(0).get(0)[2]);
+    }
+
+    @Test
+    @DisplayName("CSV: Kutip yang tidak ditutup menjadi error baris, baris sebelumnya tetap masuk")
+    void testCsvUnterminatedQuote() throws Exception {
+        String csv = "title,destination,total_cost\n"
+                + "A,Bali,1\n"
+                + "B,\"Bali\n"
+                + "C,Bali,1\n";
+
+        TravelLogImportResult result = service(100).importCsv(userId, input(csv));
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals("Tanda kutip pada CSV tidak ditutup", result.getErrors().get(0).getMessage());
+        verify(searchBackend).onBulkChange(userId);
+    }
+}
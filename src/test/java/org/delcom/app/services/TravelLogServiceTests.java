@@ -1,18 +1,35 @@
 package org.delcom.app.services;
 
+import org.delcom.app.dto.DestinationCount;
+import org.delcom.app.dto.TravelLogCursor;
+import org.delcom.app.dto.TravelLogFieldsPage;
+import org.delcom.app.dto.TravelLogPage;
+import org.delcom.app.dto.TravelLogSummary;
+import org.delcom.app.dto.TravelLogVersion;
 import org.delcom.app.entities.TravelLog;
+import org.delcom.app.entities.TravelLogStat;
 import org.delcom.app.repositories.TravelLogRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -26,22 +43,40 @@ class TravelLogServiceTests {
     @Mock
     private TravelLogRepository repository;
 
+    @Mock
+    private TravelLogStatsService statsService;
+
+    @Mock
+    private TravelLogSearchBackend searchBackend;
+
+    @Mock
+    private DestinationSuggestService destinationSuggest;
+
+    @Mock
+    private FileStorageService fileStorage;
+
+    @Mock
+    private DestinationService destinations;
+
+    @Spy
+    private TravelLogCache cache = new TravelLogCache(100, Duration.ofMinutes(1));
+
     @InjectMocks
     private TravelLogService service;
 
     @Test
-    @DisplayName("GetAll: Menggunakan Search jika keyword ada")
+    @DisplayName("GetAll: Menggunakan search backend jika keyword ada")
     void testGetAllWithKeyword() {
         UUID userId = UUID.randomUUID();
         String keyword = "Bali";
         List<TravelLog> expectedList = Collections.singletonList(new TravelLog());
 
-        when(repository.search(userId, keyword)).thenReturn(expectedList);
+        when(searchBackend.search(userId, keyword)).thenReturn(expectedList);
 
         List<TravelLog> result = service.getAll(userId, keyword);
 
         assertEquals(expectedList, result);
-        verify(repository).search(userId, keyword);
+        verify(searchBackend).search(userId, keyword);
         verify(repository, never()).findByUserIdOrderByCreatedAtDesc(any());
     }
 
@@ -57,7 +92,7 @@ class TravelLogServiceTests {
         service.getAll(userId, "   ");
 
         verify(repository, times(2)).findByUserIdOrderByCreatedAtDesc(userId);
-        verify(repository, never()).search(any(), anyString());
+        verify(searchBackend, never()).search(any(), anyString());
     }
 
     @Test
@@ -126,4 +161,415 @@ class TravelLogServiceTests {
 
         verify(repository, never()).delete(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Delete: File cover ikut dihapus, gambar default tidak")
+    void testDeleteRemovesCover() {
+        UUID userId = UUID.randomUUID();
+        UUID logId = UUID.randomUUID();
+        TravelLog log = new TravelLog();
+        log.setImagePath("cover_1.jpg");
+        when(repository.findByUserIdAndId(userId, logId)).thenReturn(Optional.of(log));
+
+        service.delete(userId, logId);
+        verify(fileStorage).deleteFiles(List.of("cover_1.jpg"));
+
+        log.setImagePath(FileStorageService.DEFAULT_IMAGE);
+        service.delete(userId, logId);
+        log.setImagePath(null);
+        service.delete(userId, logId);
+        verify(fileStorage, times(1)).deleteFiles(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Delete: File cover yang masih dirujuk jurnal lain tidak dihapus")
+    void testDeleteKeepsSharedCover() {
+        UUID userId = UUID.randomUUID();
+        UUID logId = UUID.randomUUID();
+        TravelLog log = new TravelLog();
+        log.setImagePath("abc.jpg");
+        when(repository.findByUserIdAndId(userId, logId)).thenReturn(Optional.of(log));
+        when(repository.findReferencedImagePaths(List.of("abc.jpg"))).thenReturn(List.of("abc.jpg"));
+
+        service.delete(userId, logId);
+
+        verify(fileStorage, never()).deleteFiles(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Save: Foto diganti -> file lama dilepas, jurnal baru tidak melepas apa pun")
+    void testSaveReleasesReplacedCover() {
+        TravelLog log = new TravelLog(UUID.randomUUID(), "Pantai", "Bali", "desc", 0L, 5);
+        log.setImagePath("lama.jpg");
+        when(repository.save(any(TravelLog.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.save(log); // jurnal baru
+        verify(fileStorage, never()).deleteFiles(anyCollection());
+
+        log.setImagePath("baru.jpg");
+        service.save(log);
+        verify(fileStorage).deleteFiles(List.of("lama.jpg"));
+
+        service.save(log); // foto sama
+        verify(fileStorage, times(1)).deleteFiles(anyCollection());
+    }
+
+    // ========================================================================
+    // OPERASI MASSAL
+    // ========================================================================
+    @Test
+    @DisplayName("DeleteAll: Satu bulk delete, id duplikat dibuang, efek samping sekali per user")
+    void testDeleteAll() {
+        UUID userId = UUID.randomUUID();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        Set<UUID> unique = new LinkedHashSet<>(List.of(a, b));
+        when(repository.countByDestinationForIds(userId, unique)).thenReturn(List.of(new DestinationCount("Bali", 2L)));
+        when(repository.findImagePathsByUserIdAndIdIn(userId, unique)).thenReturn(List.of("cover_a.jpg", FileStorageService.DEFAULT_IMAGE));
+        when(repository.deleteByUserIdAndIdIn(userId, unique)).thenReturn(2);
+
+        assertEquals(2, service.deleteAll(userId, List.of(a, b, a)));
+
+        verify(repository).deleteByUserIdAndIdIn(userId, unique);
+        verify(statsService).rebuildUser(userId);
+        verify(searchBackend).onBulkChange(userId);
+        verify(cache).invalidate(userId);
+        verify(destinationSuggest).forget(userId, "Bali", 2L);
+        verify(fileStorage).deleteFiles(List.of("cover_a.jpg"));
+        verify(repository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("DeleteAll: Tidak ada yang terhapus -> tidak ada efek samping")
+    void testDeleteAllNothingDeleted() {
+        UUID userId = UUID.randomUUID();
+        when(repository.deleteByUserIdAndIdIn(eq(userId), anyCollection())).thenReturn(0);
+
+        assertEquals(0, service.deleteAll(userId, List.of(UUID.randomUUID())));
+        assertEquals(0, service.deleteAll(userId, List.of()));
+
+        verify(repository, times(1)).deleteByUserIdAndIdIn(eq(userId), anyCollection());
+        verify(statsService, never()).rebuildUser(any());
+        verify(fileStorage, never()).deleteFiles(anyCollection());
+    }
+
+    @Test
+    @DisplayName("RenameDestination: Satu bulk update lalu statistik & trie disesuaikan")
+    void testRenameDestination() {
+        UUID userId = UUID.randomUUID();
+        when(destinations.findId(" Jogja ")).thenReturn(1L);
+        when(destinations.findId("Tidak Ada")).thenReturn(null);
+        when(destinations.intern("Yogyakarta")).thenReturn(2L);
+        when(repository.renameDestination(eq(userId), eq(1L), eq("Yogyakarta"), eq(2L), any())).thenReturn(3);
+
+        assertEquals(3, service.renameDestination(userId, " Jogja ", "Yogyakarta "));
+        assertEquals(0, service.renameDestination(userId, "Tidak Ada", "Bali"));
+
+        verify(repository, times(1)).renameDestination(any(), any(), any(), any(), any());
+        verify(statsService).rebuildUser(userId);
+        verify(searchBackend).onBulkChange(userId);
+        verify(cache).invalidate(userId);
+        verify(destinationSuggest).forget(userId, "Jogja", 3);
+        verify(destinationSuggest).record(userId, "Yogyakarta", 3);
+    }
+
+    // ========================================================================
+    // PAGINATION KEYSET
+    // ========================================================================
+    private TravelLogSummary logAt(LocalDateTime createdAt) {
+        return new TravelLogSummary(UUID.randomUUID(), "Trip", "Bali", "", null, null, 0L, 5, createdAt);
+    }
+
+    private List<TravelLogSummary> logs(int count) {
+        List<TravelLogSummary> list = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) list.add(logAt(now.minusMinutes(i)));
+        return list;
+    }
+
+    @Test
+    @DisplayName("GetPage: Halaman pertama tanpa halaman berikutnya")
+    void testGetPageLastPage() {
+        UUID userId = UUID.randomUUID();
+        when(repository.findFirstPage(userId, Limit.of(4))).thenReturn(logs(2));
+
+        TravelLogPage page = service.getPage(userId, null, null, 3);
+
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    @DisplayName("GetPage: Cursor berikutnya menunjuk baris terakhir di halaman")
+    void testGetPageHasNext() {
+        UUID userId = UUID.randomUUID();
+        List<TravelLogSummary> rows = logs(4);
+        when(repository.findFirstPage(userId, Limit.of(4))).thenReturn(rows);
+
+        TravelLogPage page = service.getPage(userId, "", null, 3);
+
+        assertEquals(3, page.getItems().size());
+        assertTrue(page.hasNext());
+        TravelLogCursor next = TravelLogCursor.decode(page.getNextCursor());
+        assertEquals(rows.get(2).getId(), next.getId());
+        assertEquals(rows.get(2).getCreatedAt(), next.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("GetPage: Cursor dipakai sebagai batas keyset")
+    void testGetPageAfterCursor() {
+        UUID userId = UUID.randomUUID();
+        TravelLogCursor cursor = new TravelLogCursor(LocalDateTime.now(), UUID.randomUUID());
+        when(repository.findPageAfter(userId, cursor.getCreatedAt(), cursor.getId(), Limit.of(4))).thenReturn(logs(1));
+
+        TravelLogPage page = service.getPage(userId, null, cursor.encode(), 3);
+
+        assertEquals(1, page.getItems().size());
+        verify(repository, never()).findFirstPage(any(), any());
+    }
+
+    @Test
+    @DisplayName("GetPage: Search memakai search backend dengan keyset")
+    void testGetPageSearch() {
+        UUID userId = UUID.randomUUID();
+        TravelLogCursor cursor = new TravelLogCursor(LocalDateTime.now(), UUID.randomUUID());
+        when(searchBackend.searchPage(userId, "Bali", null, 4)).thenReturn(logs(1));
+        when(searchBackend.searchPage(eq(userId), eq("Bali"), argThat(c -> c != null && c.getId().equals(cursor.getId())), eq(4)))
+                .thenReturn(logs(2));
+
+        assertEquals(1, service.getPage(userId, "Bali", null, 3).getItems().size());
+        assertEquals(2, service.getPage(userId, "Bali", cursor.encode(), 3).getItems().size());
+        verify(repository, never()).findFirstPage(any(), any());
+    }
+
+    @Test
+    @DisplayName("GetPage: Hasil full-text search membawa rank ke cursor berikutnya")
+    void testGetPageSearchRankCursor() {
+        UUID userId = UUID.randomUUID();
+        List<TravelLogSummary> rows = logs(4).stream().map(summary -> summary.withRank(0.25f)).toList();
+        when(searchBackend.searchPage(userId, "pantai", null, 4)).thenReturn(rows);
+
+        TravelLogCursor next = TravelLogCursor.decode(service.getPage(userId, "pantai", null, 3).getNextCursor());
+
+        assertEquals(rows.get(2).getId(), next.getId());
+        assertEquals(0.25f, next.getRank());
+    }
+
+    @Test
+    @DisplayName("GetPage: Cursor rusak kembali ke halaman pertama")
+    void testGetPageInvalidCursor() {
+        UUID userId = UUID.randomUUID();
+        when(repository.findFirstPage(userId, Limit.of(4))).thenReturn(Collections.emptyList());
+
+        TravelLogPage page = service.getPage(userId, null, "bukan-cursor", 3);
+
+        assertTrue(page.getItems().isEmpty());
+        verify(repository).findFirstPage(userId, Limit.of(4));
+    }
+
+    // ========================================================================
+    // AGREGASI DASHBOARD
+    // ========================================================================
+    @Test
+    @DisplayName("GrandTotal: Tanpa keyword menjumlahkan tabel statistik")
+    void testGetGrandTotalWithoutKeyword() {
+        UUID userId = UUID.randomUUID();
+        when(statsService.getStats(userId)).thenReturn(List.of(
+                new TravelLogStat(userId, 1L, "Bali", 1000L, 2L),
+                new TravelLogStat(userId, 2L, "Solo", 500L, 1L)));
+
+        assertEquals(1500L, service.getGrandTotal(userId, null));
+        assertEquals(1500L, service.getGrandTotal(userId, " "));
+        verify(searchBackend, never()).sumTotalCost(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("GrandTotal: Dengan keyword memakai search backend")
+    void testGetGrandTotalWithKeyword() {
+        UUID userId = UUID.randomUUID();
+        when(searchBackend.sumTotalCost(userId, "Bali")).thenReturn(700L);
+
+        assertEquals(700L, service.getGrandTotal(userId, "Bali"));
+        verify(statsService, never()).getStats(any());
+    }
+
+    @Test
+    @DisplayName("Save/Delete: Statistik dan search backend ikut diperbarui")
+    void testSaveAndDeleteUpdateStats() {
+        UUID userId = UUID.randomUUID();
+        UUID logId = UUID.randomUUID();
+        TravelLog log = new TravelLog(userId, "Trip", "Bali", "", 100L, 5);
+        when(repository.save(log)).thenReturn(log);
+        when(repository.findByUserIdAndId(userId, logId)).thenReturn(Optional.of(log));
+
+        service.save(log);
+        verify(statsService).onSaved(log);
+        verify(searchBackend).onSaved(log);
+        assertTrue(log.isPersistedStateKnown(), "Snapshot harus diperbarui setelah save");
+
+        service.delete(userId, logId);
+        verify(statsService).onDeleted(log);
+        verify(searchBackend).onDeleted(log);
+    }
+
+    @Test
+    @DisplayName("Save/Delete: Trie autocomplete destinasi ikut diperbarui")
+    void testSaveAndDeleteUpdateDestinationSuggest() {
+        UUID userId = UUID.randomUUID();
+        UUID logId = UUID.randomUUID();
+        TravelLog log = new TravelLog(userId, "Trip", "Bali", "", 100L, 5);
+        when(repository.save(log)).thenReturn(log);
+        when(repository.findByUserIdAndId(userId, logId)).thenReturn(Optional.of(log));
+        when(destinations.intern(anyString())).thenAnswer(inv -> (long) DestinationService.canonicalKey(inv.getArgument(0)).hashCode());
+
+        service.save(log);
+        verify(destinationSuggest).record(userId, "Bali");
+        assertEquals(destinations.intern("Bali"), log.getDestinationId());
+
+        // Hanya beda penulisan: destinasi kanonik sama, trie tidak disentuh
+        log.setDestination("bali ");
+        service.save(log);
+        verify(destinationSuggest, never()).forget(any(), anyString());
+
+        // Edit tanpa ganti destinasi tidak menyentuh trie
+        log.setTitle("Trip 2");
+        service.save(log);
+        verify(destinationSuggest, times(1)).record(userId, "Bali");
+
+        log.setDestination("Lombok");
+        service.save(log);
+        verify(destinationSuggest).forget(userId, "bali ");
+        verify(destinationSuggest).record(userId, "Lombok");
+
+        service.delete(userId, logId);
+        verify(destinationSuggest).forget(userId, "Lombok");
+    }
+
+    @Test
+    @DisplayName("Save: Perubahan trie autocomplete dicatat di dalam transaksi (diterapkan setelah commit oleh trie)")
+    void testDestinationSuggestInsideTransaction() {
+        UUID userId = UUID.randomUUID();
+        TravelLog log = new TravelLog(userId, "Trip", "Bali", "", 100L, 5);
+        when(repository.save(log)).thenReturn(log);
+        when(destinations.intern("Bali")).thenReturn(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.save(log);
+            // Dicatat sebelum commit agar seed trie yang berjalan bersamaan tahu ada perubahan
+            verify(destinationSuggest).record(userId, "Bali");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Version: Validator ETag dibaca langsung dari repository")
+    void testVersionNotCached() {
+        UUID userId = UUID.randomUUID();
+        UUID logId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        when(repository.findVersionByUserId(userId)).thenReturn(new TravelLogVersion(now, 3L));
+        when(repository.findUpdatedAtByUserIdAndId(userId, logId)).thenReturn(Optional.of(now));
+
+        service.getVersion(userId);
+        TravelLogVersion version = service.getVersion(userId);
+
+        assertEquals(3, version.getCount());
+        assertEquals(now, version.getLastModified());
+        verify(repository, times(2)).findVersionByUserId(userId);
+        assertEquals(now, service.getUpdatedAt(userId, logId));
+        assertNull(service.getUpdatedAt(userId, UUID.randomUUID()));
+    }
+
+    // ========================================================================
+    // REST API (SPARSE FIELDSET)
+    // ========================================================================
+    private Map<String, Object> row(LocalDateTime createdAt, String title) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", UUID.randomUUID());
+        row.put("createdAt", createdAt);
+        row.put("title", title);
+        return row;
+    }
+
+    @Test
+    @DisplayName("FieldsPage: Cursor dari baris terakhir, createdAt & null disembunyikan jika tidak diminta")
+    void testGetFieldsPage() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        List<String> fields = List.of("title");
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(row(now, "A"), row(now.minusMinutes(1), null), row(now.minusMinutes(2), "C")));
+        when(repository.findFieldsPage(userId, fields, null, null, 3)).thenReturn(rows);
+
+        TravelLogFieldsPage page = service.getFieldsPage(userId, fields, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(List.of("id", "title"), new ArrayList<>(page.getItems().get(0).keySet()));
+        assertEquals(List.of("id"), new ArrayList<>(page.getItems().get(1).keySet()));
+        TravelLogCursor next = TravelLogCursor.decode(page.getNextCursor());
+        assertEquals(rows.get(1).get("id"), next.getId());
+
+        when(repository.findFieldsPage(userId, fields, next.getCreatedAt(), next.getId(), 3)).thenReturn(List.of(row(now, "D")));
+        TravelLogFieldsPage last = service.getFieldsPage(userId, fields, page.getNextCursor(), 2);
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("FieldsById: createdAt dikirim jika diminta, null jika tidak ada")
+    void testGetFieldsById() {
+        UUID userId = UUID.randomUUID();
+        UUID id = UUID.randomUUID();
+        List<String> fields = List.of("title", "createdAt");
+        when(repository.findFieldsById(userId, id, fields)).thenReturn(row(LocalDateTime.now(), "A"));
+
+        UUID missing = UUID.randomUUID();
+        when(repository.findFieldsById(userId, missing, fields)).thenReturn(null);
+
+        assertTrue(service.getFieldsById(userId, id, fields).containsKey("createdAt"));
+        assertNull(service.getFieldsById(userId, missing, fields));
+    }
+
+    // ========================================================================
+    // CACHE
+    // ========================================================================
+    @Test
+    @DisplayName("Cache: Halaman yang sama tidak query ulang sampai ada save/delete")
+    void testPageCachedUntilWrite() {
+        UUID userId = UUID.randomUUID();
+        UUID logId = UUID.randomUUID();
+        TravelLog log = new TravelLog(userId, "Trip", "Bali", "", 100L, 5);
+        when(repository.findFirstPage(userId, Limit.of(4))).thenReturn(logs(2));
+        when(repository.save(log)).thenReturn(log);
+        when(repository.findByUserIdAndId(userId, logId)).thenReturn(Optional.of(log));
+
+        service.getPage(userId, null, null, 3);
+        service.getPage(userId, null, null, 3);
+        verify(repository, times(1)).findFirstPage(userId, Limit.of(4));
+
+        service.save(log);
+        service.getPage(userId, null, null, 3);
+        verify(repository, times(2)).findFirstPage(userId, Limit.of(4));
+
+        service.delete(userId, logId);
+        service.getPage(userId, null, null, 3);
+        verify(repository, times(3)).findFirstPage(userId, Limit.of(4));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Cache: Keyword dinormalisasi, user lain punya entri sendiri")
+    void testCacheKeyNormalized() {
+        UUID userId = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        when(searchBackend.sumTotalCost(any(), anyString())).thenReturn(700L);
+
+        service.getGrandTotal(userId, "Bali");
+        service.getGrandTotal(userId, "  bali ");
+        service.getGrandTotal(other, "Bali");
+
+        verify(searchBackend, times(1)).sumTotalCost(userId, "Bali");
+        verify(searchBackend, times(1)).sumTotalCost(other, "Bali");
+    }
+}
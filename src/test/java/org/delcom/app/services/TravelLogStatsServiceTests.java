@@ -0,0 +1,148 @@
+package org.delcom.app.services;
+
+import org.delcom.app.entities.TravelLog;
+import org.delcom.app.repositories.TravelLogStatRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TravelLogStatsServiceTests {
+
+    @Mock
+    private TravelLogStatRepository statRepository;
+
+    @InjectMocks
+    private TravelLogStatsService service;
+
+    private final UUID userId = UUID.randomUUID();
+    private static final Long BALI = 1L;
+    private static final Long LOMBOK = 2L;
+
+    private TravelLog log(String destination, Long destinationId, long cost) {
+        TravelLog log = new TravelLog(userId, "Trip", destination, "", cost, 5);
+        log.setDestinationId(destinationId);
+        return log;
+    }
+
+    private TravelLog loadedLog(String destination, Long destinationId, long cost) {
+        TravelLog log = log(destination, destinationId, cost);
+        log.markPersistedState(); // simulasi @PostLoad
+        return log;
+    }
+
+    @Test
+    @DisplayName("OnSaved: Log baru di-upsert dalam satu statement (label dari teks jurnal user sendiri)")
+    void testOnSavedNewLogUpserts() {
+        TravelLog log = log(" bali  utara ", BALI, 250L);
+
+        service.onSaved(log);
+
+        verify(statRepository).upsertDelta(userId, BALI, "bali utara", 250L, 1L);
+        verify(statRepository, never()).applyDelta(any(), any(), anyLong(), any());
+        verify(statRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("OnSaved: Destinasi kanonik & biaya tetap (hanya beda penulisan), tidak ada query")
+    void testOnSavedUnchanged() {
+        TravelLog log = loadedLog("Bali", BALI, 100L);
+        log.setImagePath("cover.jpg");
+        log.setDestination("BALI");
+
+        service.onSaved(log);
+
+        verifyNoInteractions(statRepository);
+    }
+
+    @Test
+    @DisplayName("OnSaved: Ganti destinasi memindahkan biaya ke destinasi baru")
+    void testOnSavedDestinationChanged() {
+        TravelLog log = loadedLog("Bali", BALI, 100L);
+        log.setDestination("Lombok");
+        log.setDestinationId(LOMBOK);
+        log.setTotalCost(300L);
+
+        service.onSaved(log);
+
+        verify(statRepository).applyDelta(userId, BALI, -100L, -1L);
+        verify(statRepository).deleteIfEmpty(userId, BALI);
+        verify(statRepository).upsertDelta(userId, LOMBOK, "Lombok", 300L, 1L);
+    }
+
+    @Test
+    @DisplayName("OnSaved: Ganti biaya saja tetap di destinasi yang sama")
+    void testOnSavedCostChanged() {
+        TravelLog log = loadedLog("Bali", BALI, 100L);
+        log.setTotalCost(150L);
+
+        service.onSaved(log);
+
+        verify(statRepository).applyDelta(userId, BALI, -100L, -1L);
+        verify(statRepository).upsertDelta(userId, BALI, "Bali", 150L, 1L);
+        verify(statRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("OnDeleted: Memakai nilai yang tersimpan, bukan yang sedang diedit")
+    void testOnDeleted() {
+        TravelLog log = loadedLog("Bali", BALI, 100L);
+        log.setDestination("Diubah");
+        log.setDestinationId(99L);
+
+        service.onDeleted(log);
+
+        verify(statRepository).applyDelta(userId, BALI, -100L, -1L);
+        verify(statRepository).deleteIfEmpty(userId, BALI);
+    }
+
+    @Test
+    @DisplayName("OnSaved: Log tanpa destination_id tidak menyentuh statistik")
+    void testOnSavedWithoutDestinationId() {
+        service.onSaved(log("Bali", null, 100L));
+
+        verifyNoInteractions(statRepository);
+    }
+
+    @Test
+    @DisplayName("NeedsRebuild: Ada baris statistik lama tanpa destination_id")
+    void testNeedsRebuild() {
+        when(statRepository.existsByDestinationIdIsNull()).thenReturn(true);
+        assertTrue(service.needsRebuild());
+    }
+
+    @Test
+    @DisplayName("Rebuild: Hapus semua lalu isi dari agregasi travel_logs")
+    void testRebuild() {
+        when(statRepository.insertAggregates()).thenReturn(1);
+
+        assertEquals(1, service.rebuild());
+
+        InOrder order = inOrder(statRepository);
+        order.verify(statRepository).deleteAllStats();
+        order.verify(statRepository).insertAggregates();
+    }
+
+    @Test
+    @DisplayName("RebuildUser: Hanya baris milik user yang dihitung ulang")
+    void testRebuildUser() {
+        service.rebuildUser(userId);
+
+        InOrder order = inOrder(statRepository);
+        order.verify(statRepository).deleteByUserId(userId);
+        order.verify(statRepository).insertAggregatesByUserId(userId);
+    }
+}
@@ -0,0 +1,141 @@
+package org.delcom.app.services;
+
+import org.delcom.app.repositories.TravelLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UploadGarbageCollectorTests {
+
+    @Mock private TravelLogRepository repository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    private FileStorageService fileStorage;
+    private final long old = System.currentTimeMillis() - Duration.ofDays(2).toMillis();
+
+    @BeforeEach
+    void setUp() {
+        fileStorage = new FileStorageService(new FilesystemStorageEngine(tempDir.toString()), new ImageBufferCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)));
+        when(repository.streamImagePaths()).thenAnswer(inv -> Stream.of("cover_a.png"));
+        when(repository.findReferencedImagePaths(anyCollection())).thenReturn(List.of());
+    }
+
+    private UploadGarbageCollector collector(int maxFilesPerSecond) {
+        return new UploadGarbageCollector(repository, fileStorage, transactionManager, Duration.ofHours(24), maxFilesPerSecond);
+    }
+
+    private Path file(String relative, String content, long modified) throws IOException {
+        Path file = tempDir.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+        return file;
+    }
+
+    @Test
+    @DisplayName("Collect: File yatim lama dihapus, yang dirujuk, varian-nya, baru, & sementara disimpan")
+    void testCollect() throws IOException {
+        String hashed = "b".repeat(64) + ".jpg";
+        Path referenced = file("cover_a.png", "a", old);
+        Path variant = file("cover_a_grid.jpg", "grid", old);
+        Path fallback = file(FileStorageService.DEFAULT_IMAGE, "default", old);
+        Path orphan = file("cover_b.png", "12345", old);
+        Path shardedOrphan = file("bb/bb/" + hashed, "123", old);
+        Path fresh = file("cover_c.png", "baru", System.currentTimeMillis());
+        Path temp = file("upload-1.tmp", "sementara", old);
+        Path segment = file("segments/segment-00000001.dat", "segment", old);
+
+        UploadGarbageCollector.Result result = collector(10_000).collect();
+
+        assertFalse(Files.exists(orphan));
+        assertFalse(Files.exists(shardedOrphan));
+        assertTrue(Files.exists(referenced));
+        assertTrue(Files.exists(variant));
+        assertTrue(Files.exists(fallback));
+        assertTrue(Files.exists(fresh));
+        assertTrue(Files.exists(temp));
+        assertTrue(Files.exists(segment));
+        assertEquals(2, result.deleted());
+        assertEquals(8, result.reclaimedBytes());
+        assertEquals(6, result.scanned(), "File sementara & folder segment tidak ikut ditelusuri");
+    }
+
+    @Test
+    @DisplayName("Collect: Cover yang dirujuk setelah fase mark tidak dihapus")
+    void testRecheckBeforeDelete() throws IOException {
+        Path orphan = file("cover_b.png", "b", old);
+        when(repository.findReferencedImagePaths(anyCollection())).thenReturn(List.of("cover_b.png"));
+
+        UploadGarbageCollector.Result result = collector(10_000).collect();
+
+        assertTrue(Files.exists(orphan));
+        assertEquals(0, result.deleted());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Collect: File yang di-touch (unggah ulang) setelah masuk batch tidak dihapus")
+    void testRestatBeforeDelete() throws IOException {
+        Path reused = file("cover_b.png", "b", old);
+        Path orphan = file("cover_d.png", "d", old);
+        // Unggahan ulang isi yang sama memperbarui mtime (FileStorageService.store -> engine.touch)
+        when(repository.findReferencedImagePaths(anyCollection())).thenAnswer(inv -> {
+            Files.setLastModifiedTime(reused, FileTime.fromMillis(System.currentTimeMillis()));
+            return List.of();
+        });
+
+        UploadGarbageCollector.Result result = collector(10_000).collect();
+
+        assertTrue(Files.exists(reused));
+        assertFalse(Files.exists(orphan));
+        assertEquals(1, result.deleted());
+    }
+
+    @Test
+    @DisplayName("Collect: Laju penelusuran dibatasi max-files-per-second")
+    void testThrottled() throws IOException {
+        for (int i = 0; i < 5; i++) file("cover_" + i + ".png", "x", System.currentTimeMillis());
+
+        UploadGarbageCollector.Result result = collector(10).collect();
+
+        assertEquals(5, result.scanned());
+        assertTrue(result.durationMillis() >= 400, "5 file pada 10 file/detik butuh ~500 ms");
+    }
+
+    @Test
+    @DisplayName("ReferenceSet: Nama yang ditambahkan ditemukan, nama lain tidak")
+    void testReferenceSet() {
+        UploadGarbageCollector.ReferenceSet set = new UploadGarbageCollector.ReferenceSet();
+        for (int i = 0; i < 5000; i++) set.add("cover_" + i + ".jpg");
+        set.freeze();
+
+        assertEquals(5000, set.size());
+        assertTrue(set.contains("cover_4999.jpg"));
+        assertFalse(set.contains("cover_5000.jpg"));
+    }
+}